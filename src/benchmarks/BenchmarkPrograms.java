@@ -0,0 +1,454 @@
+package benchmarks;
+
+import main.ast.nodes.Program;
+import main.symbolTable.SymbolTable;
+import main.visitor.name.NameAnalyser;
+import main.visitor.resolve.SlotResolver;
+import main.visitor.type.TypeChecker;
+import org.antlr.v4.runtime.CharStreams;
+import org.antlr.v4.runtime.CommonTokenStream;
+import parsers.CmmLexer;
+import parsers.CmmParser;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+
+public class BenchmarkPrograms {
+    private static final int GENERATED_SEEDS = 5;
+
+    public static Program parse(String text) {
+        CmmLexer lexer = new CmmLexer(CharStreams.fromString(text));
+        CmmParser parser = new CmmParser(new CommonTokenStream(lexer));
+        return parser.cmm().cmmProgram;
+    }
+
+    //The tree the optimization passes run on: name-analysed, type-checked and slot-resolved as CmmCompiler does
+    public static Program analysed(String text) {
+        Program program = parse(text);
+        SymbolTable.reset();
+        program.accept(new NameAnalyser());
+        program.accept(new TypeChecker());
+        program.accept(new SlotResolver());
+        return program;
+    }
+
+    //Name and text of every .cmm file in sampleDir, in name order, then of generated programs of that many functions
+    public static LinkedHashMap<String, String> inputs(Path sampleDir, int generatedFunctions) throws IOException {
+        LinkedHashMap<String, String> inputs = new LinkedHashMap<>();
+        try (var files = Files.list(sampleDir)) {
+            for (Path file : (Iterable<Path>) files.sorted()::iterator) {
+                if (file.toString().endsWith(".cmm"))
+                    inputs.put(file.getFileName().toString(), Files.readString(file));
+            }
+        }
+        for (int seed = 1; seed <= GENERATED_SEEDS; seed++)
+            inputs.put("generated seed " + seed, new ProgramGenerator(seed).setFunctions(generatedFunctions).generate().getText());
+        return inputs;
+    }
+
+    //Valid program of independent functions with nested scopes, the shape name analysis cares about
+    public static String nestedScopes(int functions, int statements) {
+        StringBuilder text = new StringBuilder();
+        for (int f = 0; f < functions; f++) {
+            text.append("int f").append(f).append("(int a, bool b) begin\n");
+            text.append("    int x = a\n");
+            for (int s = 0; s < statements; s++) {
+                text.append("    if b begin\n");
+                text.append("        int y").append(s).append(" = x + ").append(s).append("\n");
+                text.append("        while x < y").append(s).append(" begin\n");
+                text.append("            x = x + 1\n");
+                text.append("        end\n");
+                text.append("    end\n");
+            }
+            text.append("    return x\n");
+            text.append("end\n\n");
+        }
+        text.append("main() begin\n");
+        text.append("    display(f0(1, true))\n");
+        text.append("end\n");
+        return text.toString();
+    }
+
+    //Program that uses every statement and expression node kind, so traversals see a mixed node stream
+    public static String mixedNodes(int functions, int statements) {
+        StringBuilder text = new StringBuilder();
+        text.append("struct point begin\n");
+        text.append("    int x\n");
+        text.append("    list #int ys\n");
+        text.append("end\n\n");
+        for (int f = 0; f < functions; f++) {
+            text.append("int f").append(f).append("(struct point p, list #int l, bool b) begin\n");
+            text.append("    int i = 0, j = size(l)\n");
+            for (int s = 0; s < statements; s++) {
+                switch (s % 6) {
+                    case 0:
+                        text.append("    i = (i + p.x * 2) - l[i] / 3\n");
+                        break;
+                    case 1:
+                        text.append("    if b & ~(i == j) | i > 3 begin\n");
+                        text.append("        display(-i)\n");
+                        text.append("    end\n");
+                        text.append("    else\n");
+                        text.append("        append(p.ys, i)\n");
+                        break;
+                    case 2:
+                        text.append("    while i < size(l) begin\n");
+                        text.append("        l[i] = p.ys[i] + 1\n");
+                        text.append("        i = i + 1\n");
+                        text.append("    end\n");
+                        break;
+                    case 3:
+                        text.append("    do begin\n");
+                        text.append("        j = j - f").append(f).append("(p, l, ~b)\n");
+                        text.append("    end\n");
+                        text.append("    while j > 0\n");
+                        break;
+                    case 4:
+                        text.append("    size(p.ys)\n");
+                        break;
+                    default:
+                        text.append("    f").append(f).append("(p, l, true)\n");
+                        break;
+                }
+            }
+            text.append("    return i\n");
+            text.append("end\n\n");
+        }
+        text.append("main() begin\n");
+        text.append("    struct point p\n");
+        text.append("    list #int l\n");
+        text.append("    display(f0(p, l, false))\n");
+        text.append("end\n");
+        return text.toString();
+    }
+
+    //Valid program of chained member accesses through a line of structs n0 -> n1 -> ... each holding the next
+    //one directly and in a list, the shape StructAccess resolution cares about
+    public static String structChains(int functions, int statements, int depth) {
+        StringBuilder text = new StringBuilder();
+        for (int d = depth; d >= 0; d--) {
+            text.append("struct n").append(d).append(" begin\n");
+            text.append("    int v\n");
+            if (d < depth) {
+                text.append("    struct n").append(d + 1).append(" next\n");
+                text.append("    list #struct n").append(d + 1).append(" olds\n");
+            }
+            text.append("end\n\n");
+        }
+        for (int f = 0; f < functions; f++) {
+            text.append("int f").append(f).append("(struct n0 a) begin\n");
+            text.append("    int x = a.v\n");
+            for (int s = 0; s < statements; s++) {
+                StringBuilder chain = new StringBuilder("a");
+                for (int d = 0; d < depth; d++)
+                    chain.append((s + d) % 2 == 0 ? ".next" : ".olds[x]");
+                text.append("    x = x + ").append(chain).append(".v\n");
+            }
+            text.append("    return x\n");
+            text.append("end\n\n");
+        }
+        text.append("main() begin\n");
+        text.append("    struct n0 a\n");
+        text.append("    display(f0(a))\n");
+        text.append("end\n");
+        return text.toString();
+    }
+
+    //Valid program whose functions declare struct locals, half of them temporaries that never leave the function
+    //and the rest escaping through a return, an append, a call argument and a store into another struct
+    public static String structLocals(int functions) {
+        StringBuilder text = new StringBuilder();
+        text.append("struct point begin\n");
+        text.append("    int x\n");
+        text.append("    int y\n");
+        text.append("end\n\n");
+        text.append("struct holder begin\n");
+        text.append("    struct point p\n");
+        text.append("    bool full\n");
+        text.append("end\n\n");
+        text.append("int use(struct point q) begin\n");
+        text.append("    return q.x\n");
+        text.append("end\n\n");
+        for (int f = 0; f < functions; f++) {
+            text.append("struct point f").append(f).append("(int a, list #struct point ps, struct holder h) begin\n");
+            text.append("    struct point t, r\n");
+            text.append("    struct holder k\n");
+            text.append("    int x = 0\n");
+            text.append("    t.x = a\n");
+            text.append("    t.y = t.x + ").append(f).append("\n");
+            text.append("    k.full = t.x > t.y\n");
+            text.append("    k.p.x = t.y\n");
+            text.append("    while x < t.y begin\n");
+            text.append("        struct point u, v, w\n");
+            text.append("        u.x = x\n");
+            text.append("        append(ps, u)\n");
+            text.append("        v.y = use(v)\n");
+            text.append("        w.x = t.x * 2\n");
+            text.append("        h.p = w\n");
+            text.append("        x = x + 1\n");
+            text.append("    end\n");
+            text.append("    r.x = x\n");
+            text.append("    return r\n");
+            text.append("end\n\n");
+        }
+        text.append("main() begin\n");
+        text.append("    struct holder h\n");
+        text.append("    list #struct point ps\n");
+        text.append("    struct point m\n");
+        text.append("    m.x = use(f0(1, ps, h))\n");
+        text.append("    display(m.x)\n");
+        text.append("end\n");
+        return text.toString();
+    }
+
+    //Valid program that calls through function pointers held in locals, parameters, struct members and lists,
+    //with one, two and three possible targets per call site
+    public static String callbacks(int functions) {
+        StringBuilder text = new StringBuilder();
+        text.append("struct handler begin\n");
+        text.append("    fptr<int -> int> on\n");
+        text.append("    int hits\n");
+        text.append("end\n\n");
+        text.append("int inc(int x) begin\n    return x + 1\nend\n\n");
+        text.append("int dbl(int x) begin\n    return x * 2\nend\n\n");
+        text.append("int neg(int x) begin\n    return 0 - x\nend\n\n");
+        text.append("int apply(fptr<int -> int> f, int x) begin\n    return f(x)\nend\n\n");
+        text.append("int applyAny(fptr<int -> int> f, int x) begin\n    return f(x)\nend\n\n");
+        text.append("fptr<int -> int> pick(bool b) begin\n");
+        text.append("    if b\n        return inc\n");
+        text.append("    return dbl\n");
+        text.append("end\n\n");
+        for (int f = 0; f < functions; f++) {
+            text.append("int cb").append(f).append("(int x) begin\n");
+            text.append("    fptr<int -> int> g = inc\n");
+            text.append("    struct handler h\n");
+            text.append("    list #fptr<int -> int> fs\n");
+            text.append("    h.on = dbl\n");
+            text.append("    fs[0] = neg\n");
+            text.append("    x = g(x) + h.on(x)\n");
+            text.append("    x = x + apply(inc, x) + apply(dbl, x)\n");
+            text.append("    x = x + applyAny(inc, x) + applyAny(dbl, x) + applyAny(neg, x)\n");
+            text.append("    x = x + (fs[0])(x) + pick(x > ").append(f).append(")(x)\n");
+            text.append("    return x\n");
+            text.append("end\n\n");
+        }
+        text.append("main() begin\n");
+        text.append("    display(cb0(1))\n");
+        text.append("end\n");
+        return text.toString();
+    }
+
+    //Valid program of list scans: plain and two-list scans the bounds checks can go from, and scans that keep them
+    //(access after the increment, do...while, no lower bound on the index, an inner list of a list)
+    public static String listScans(int functions) {
+        StringBuilder text = new StringBuilder();
+        for (int f = 0; f < functions; f++) {
+            text.append("int f").append(f).append("(list #int a, list #int b, list #list #int m, int k) begin\n");
+            text.append("    int i = 0, s = 0, r = 0\n");
+            text.append("    while i > -1 & i < size(a) begin\n");
+            text.append("        s = s + a[i] * a[i]\n");
+            text.append("        i = i + 1\n");
+            text.append("    end\n");
+            text.append("    i = 0\n");
+            text.append("    while ~(i < 0) & i < size(a) & size(b) > i begin\n");
+            text.append("        a[i] = a[i] + b[i]\n");
+            text.append("        append(b, s)\n");
+            text.append("        i = i + 1\n");
+            text.append("        s = s + a[i]\n");
+            text.append("    end\n");
+            text.append("    i = 0\n");
+            text.append("    do begin\n");
+            text.append("        s = s + b[i]\n");
+            text.append("        i = i + 1\n");
+            text.append("    end\n");
+            text.append("    while i < size(b)\n");
+            text.append("    while k < size(a) begin\n");
+            text.append("        s = s + a[k]\n");
+            text.append("        k = k + 1\n");
+            text.append("    end\n");
+            text.append("    while 0 - 1 < r & r < size(m) begin\n");
+            text.append("        i = 0\n");
+            text.append("        s = s + m[r][").append(f % 3).append("]\n");
+            text.append("        r = r + 1\n");
+            text.append("    end\n");
+            text.append("    return s\n");
+            text.append("end\n\n");
+        }
+        text.append("main() begin\n");
+        text.append("    list #int a\n");
+        text.append("    list #list #int m\n");
+        text.append("    display(f0(a, a, m, 0))\n");
+        text.append("end\n");
+        return text.toString();
+    }
+
+    //Valid program of nested loops that recompute sizes, member chains and pure calls on every iteration, next to
+    //loops that must keep recomputing them: one appends, one writes a member, one calls a function that displays
+    public static String nestedLoops(int functions) {
+        StringBuilder text = new StringBuilder();
+        text.append("struct grid begin\n");
+        text.append("    int w\n");
+        text.append("    int h\n");
+        text.append("    list #int cells\n");
+        text.append("end\n\n");
+        text.append("int area(int w, int h) begin\n    return w * h\nend\n\n");
+        text.append("int total(list #int xs) begin\n");
+        text.append("    int i = 0, s = 0\n");
+        text.append("    while i < size(xs) begin\n");
+        text.append("        s = s + xs[i]\n");
+        text.append("        i = i + 1\n");
+        text.append("    end\n");
+        text.append("    return s\n");
+        text.append("end\n\n");
+        text.append("int show(int x) begin\n    display(x)\n    return x\nend\n\n");
+        for (int f = 0; f < functions; f++) {
+            text.append("int f").append(f).append("(struct grid g, list #int a, int k) begin\n");
+            text.append("    int i = 0, j = 0, s = 0\n");
+            text.append("    while i > -1 & i < size(a) begin\n");
+            text.append("        j = 0\n");
+            text.append("        while j < g.w * g.h begin\n");
+            text.append("            s = s + a[i] * area(g.w, g.h) + k * ").append(f % 7 + 2).append("\n");
+            text.append("            s = s + total(g.cells) - size(g.cells)\n");
+            text.append("            j = j + 1\n");
+            text.append("        end\n");
+            text.append("        i = i + 1\n");
+            text.append("    end\n");
+            text.append("    do begin\n");
+            text.append("        s = s + total(a) + size(g.cells) * k\n");
+            text.append("        append(a, s)\n");
+            text.append("        i = i - 1\n");
+            text.append("    end\n");
+            text.append("    while i > 0\n");
+            text.append("    while j > 0 begin\n");
+            text.append("        g.w = j\n");
+            text.append("        s = s + g.h * 3 + g.w\n");
+            text.append("        j = j - 1\n");
+            text.append("    end\n");
+            text.append("    while i < k begin\n");
+            text.append("        s = s + show(k + 1) + area(k, k)\n");
+            text.append("        i = i + 1\n");
+            text.append("    end\n");
+            text.append("    return s\n");
+            text.append("end\n\n");
+        }
+        text.append("main() begin\n");
+        text.append("    struct grid g\n");
+        text.append("    list #int a\n");
+        text.append("    display(f0(g, a, 3))\n");
+        text.append("end\n");
+        return text.toString();
+    }
+
+    //Valid program whose call graph is chains of ten functions, each with a cycle back two steps, so it has both
+    //plain calls and mutual recursion. The last function of a chain is pure, appends, displays or calls a setter
+    public static String callGraph(int functions) {
+        StringBuilder text = new StringBuilder();
+        text.append("struct cell begin\n");
+        text.append("    int v\n");
+        text.append("    int val (int x) begin\n");
+        text.append("        set begin\n");
+        text.append("            v = x\n");
+        text.append("        end\n");
+        text.append("        get begin\n");
+        text.append("            return v\n");
+        text.append("        end\n");
+        text.append("    end\n");
+        text.append("end\n\n");
+        for (int f = 0; f < functions; f++) {
+            text.append("int g").append(f).append("(int x, list #int l, struct cell c) begin\n");
+            text.append("    int s = x + l[0] + c.v\n");
+            if (f % 10 >= 2 && f % 3 == 0) {
+                text.append("    if x > 0\n");
+                text.append("        s = s + g").append(f - 2).append("(x - 1, l, c)\n");
+            }
+            if (f % 10 != 9 && f + 1 < functions) {
+                text.append("    return g").append(f + 1).append("(s, l, c)\n");
+            } else {
+                int chain = f / 10;
+                if (chain % 4 == 1)
+                    text.append("    append(l, s)\n");
+                else if (chain % 4 == 2)
+                    text.append("    display(s)\n");
+                else if (chain % 4 == 3)
+                    text.append("    s = c.val(s)\n");
+                text.append("    return s\n");
+            }
+            text.append("end\n\n");
+        }
+        text.append("main() begin\n");
+        text.append("    struct cell c\n");
+        text.append("    list #int l\n");
+        text.append("    display(g0(1, l, c))\n");
+        text.append("end\n");
+        return text.toString();
+    }
+
+    //Valid program of naive recursive functions over ints (fib, lattice paths, mutual recursion) that memoization
+    //is for, next to ones it must leave alone: a non-recursive one, one that displays and one taking a list
+    public static String recursiveFunctions() {
+        return "int fib(int n) begin\n"
+                + "    if n < 2\n        return n\n"
+                + "    return fib(n - 1) + fib(n - 2)\n"
+                + "end\n\n"
+                + "int paths(int r, int c) begin\n"
+                + "    if r == 0 | c == 0\n        return 1\n"
+                + "    return paths(r - 1, c) + paths(r, c - 1)\n"
+                + "end\n\n"
+                + "bool isEven(int n) begin\n"
+                + "    if n == 0\n        return true\n"
+                + "    return isOdd(n - 1)\n"
+                + "end\n\n"
+                + "bool isOdd(int n) begin\n"
+                + "    if n == 0\n        return false\n"
+                + "    return isEven(n - 1)\n"
+                + "end\n\n"
+                + "int twice(int n) begin\n    return n * 2\nend\n\n"
+                + "int loud(int n) begin\n"
+                + "    display(n)\n"
+                + "    if n > 0\n        return loud(n - 1)\n"
+                + "    return 0\n"
+                + "end\n\n"
+                + "int sum(list #int l, int i) begin\n"
+                + "    if i < size(l)\n        return l[i] + sum(l, i + 1)\n"
+                + "    return 0\n"
+                + "end\n\n"
+                + "main() begin\n"
+                + "    list #int l\n"
+                + "    display(fib(30) + paths(12, 12) + twice(loud(3)) + sum(l, 0))\n"
+                + "    display(isEven(10))\n"
+                + "end\n";
+    }
+
+    //Valid program of self-recursive functions: a list walk and a countdown whose recursive returns are tail calls
+    //(one in parentheses, one inside a loop), and a count whose recursive call is not, since it adds after it
+    public static String tailCalls(int functions) {
+        StringBuilder text = new StringBuilder();
+        for (int f = 0; f < functions; f++) {
+            text.append("int walk").append(f).append("(list #int l, int i, int acc) begin\n");
+            text.append("    if i < size(l)\n");
+            text.append("        return walk").append(f).append("(l, i + 1, acc + l[i])\n");
+            text.append("    return acc\n");
+            text.append("end\n\n");
+            text.append("int countdown").append(f).append("(int n) begin\n");
+            text.append("    while n > ").append(f + 100).append(" begin\n");
+            text.append("        return countdown").append(f).append("(n - 2)\n");
+            text.append("    end\n");
+            text.append("    if n > 0\n");
+            text.append("        return (countdown").append(f).append("(n - 1))\n");
+            text.append("    return n\n");
+            text.append("end\n\n");
+            text.append("int count").append(f).append("(int n) begin\n");
+            text.append("    if n > 0\n");
+            text.append("        return 1 + count").append(f).append("(n - 1)\n");
+            text.append("    return 0\n");
+            text.append("end\n\n");
+        }
+        text.append("main() begin\n");
+        text.append("    list #int l\n");
+        text.append("    display(walk0(l, 0, 0) + countdown0(5) + count0(5))\n");
+        text.append("end\n");
+        return text.toString();
+    }
+}
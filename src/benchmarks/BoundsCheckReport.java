@@ -0,0 +1,31 @@
+package benchmarks;
+
+import main.ast.nodes.Program;
+import main.visitor.FusedTraversal;
+import main.visitor.optimize.BoundsCheckEliminator;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+
+//Bounds checks BoundsCheckEliminator removes from loop bodies, per input, ending with BenchmarkPrograms.listScans.
+//Every list access inside a loop body is a check per iteration, so the checks left are per iteration too.
+//usage: BoundsCheckReport [sampleDir] [functions]
+public class BoundsCheckReport {
+    public static void main(String[] args) throws IOException {
+        int functions = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+        BenchmarkPrograms.inputs(Paths.get(args.length > 0 ? args[0] : "samples"), functions)
+                .forEach(BoundsCheckReport::report);
+        report("listScans " + functions, BenchmarkPrograms.listScans(functions));
+    }
+
+    private static void report(String name, String text) {
+        Program program = BenchmarkPrograms.analysed(text);
+        BoundsCheckEliminator eliminator = new BoundsCheckEliminator();
+        FusedTraversal traversal = new FusedTraversal();
+        traversal.addHook(eliminator);
+        traversal.run(program);
+        int accesses = eliminator.getLoopAccesses();
+        System.out.printf("%-20s %6d list accesses in loops, %6d check-free, %6d checks left%n", name, accesses,
+                eliminator.getCheckFree(), accesses - eliminator.getCheckFree());
+    }
+}
@@ -0,0 +1,47 @@
+package benchmarks;
+
+import main.ast.nodes.Program;
+import main.visitor.FusedTraversal;
+import main.visitor.optimize.CommonSubexpressionEliminator;
+import main.visitor.optimize.EffectAnalyser;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+
+//Repeats CommonSubexpressionEliminator finds within basic blocks and the operations they save, per input, with the
+//time of the pass per numbered expression. The struct-navigation programs of BenchmarkPrograms.structChains grow in
+//both function count and chain depth; the time per expression should stay flat, the pass being linear.
+//usage: CommonSubexpressionReport [sampleDir] [functions]
+public class CommonSubexpressionReport {
+    private static final int ROUNDS = 10;
+
+    public static void main(String[] args) throws IOException {
+        int functions = args.length > 1 ? Integer.parseInt(args[1]) : 100;
+        BenchmarkPrograms.inputs(Paths.get(args.length > 0 ? args[0] : "samples"), functions)
+                .forEach(CommonSubexpressionReport::report);
+        for (int depth = 2; depth <= 8; depth *= 2)
+            for (int n = functions; n <= functions * 4; n *= 2)
+                report("structChains " + n + "x" + depth, BenchmarkPrograms.structChains(n, 20, depth));
+    }
+
+    private static void report(String name, String text) {
+        CommonSubexpressionEliminator eliminator = null;
+        long nanos = 0;
+        //The first rounds warm up; only the last one is timed. Each round takes a fresh tree, so marks start unset
+        for (int i = 0; i < ROUNDS; i++) {
+            Program program = BenchmarkPrograms.analysed(text);
+            EffectAnalyser effectAnalyser = new EffectAnalyser();
+            eliminator = new CommonSubexpressionEliminator(effectAnalyser);
+            FusedTraversal traversal = new FusedTraversal();
+            traversal.addHook(eliminator);
+            traversal.addHook(effectAnalyser);
+            long start = System.nanoTime();
+            traversal.run(program);
+            nanos = System.nanoTime() - start;
+        }
+        int numbered = Math.max(1, eliminator.getCandidates());
+        System.out.printf("%-24s %7d numbered, %6d repeats saving %7d operations  (%.2f ms, %.0f ns/expression)%n", name,
+                eliminator.getCandidates(), eliminator.getRepeated(), eliminator.getOperations(), nanos / 1e6,
+                (double) nanos / numbered);
+    }
+}
@@ -0,0 +1,103 @@
+package benchmarks;
+
+import main.daemon.CmmClient;
+import main.daemon.CmmDaemon;
+import main.daemon.DaemonProtocol;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.SocketAddress;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+//End-to-end latency of one compile: a cold main.Cmm process, a CmmClient process talking to a warm daemon,
+//and the socket round trip alone. Also checks that concurrent requests get the same answers as sequential ones.
+//usage: DaemonLatency [file] [runs]
+public class DaemonLatency {
+    private static final int PORT = DaemonProtocol.DEFAULT_PORT + 1;
+    private static final int CONCURRENT_CLIENTS = 8;
+
+    public static void main(String[] args) throws Exception {
+        Path file = Paths.get(args.length > 0 ? args[0] : "samples/sample71.cmm");
+        int runs = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+        String source = Files.readString(file);
+        String java = ProcessHandle.current().info().command().orElse("java");
+        String classPath = System.getProperty("java.class.path");
+
+        SocketAddress address = DaemonProtocol.address(String.valueOf(PORT));
+        CmmDaemon daemon = new CmmDaemon(address);
+        daemon.warmup(source);
+        Thread server = new Thread(() -> {
+            try {
+                daemon.serve();
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        });
+        server.setDaemon(true);
+        server.start();
+        Thread.sleep(500);
+
+        checkConcurrent(address, source);
+
+        report("cold main.Cmm", runs, () -> run(java, "-cp", classPath, "main.Cmm", file.toString()));
+        report("CmmClient process", runs, () -> run(java, "-cp", classPath, "main.daemon.CmmClient", String.valueOf(PORT), file.toString()));
+        try (CmmClient client = new CmmClient(address)) {
+            report("socket round trip", runs * 50, () -> client.compile(source));
+        }
+    }
+
+    private interface Run {
+        void run() throws Exception;
+    }
+
+    private static void run(String... command) throws IOException, InterruptedException {
+        Process process = new ProcessBuilder(command)
+                .redirectOutput(ProcessBuilder.Redirect.to(new File("/dev/null")))
+                .redirectError(ProcessBuilder.Redirect.to(new File("/dev/null")))
+                .start();
+        process.waitFor();
+    }
+
+    private static void report(String name, int runs, Run run) throws Exception {
+        double[] millis = new double[runs];
+        for (int i = 0; i < runs; i++) {
+            long start = System.nanoTime();
+            run.run();
+            millis[i] = (System.nanoTime() - start) / 1e6;
+        }
+        Arrays.sort(millis);
+        System.out.printf("%-20s runs %5d  p50 %9.2f ms  p99 %9.2f ms%n", name, runs,
+                millis[runs / 2], millis[Math.min(runs - 1, (int) Math.ceil(runs * 0.99) - 1)]);
+    }
+
+    private static void checkConcurrent(SocketAddress address, String source) throws Exception {
+        DaemonProtocol.Response expected = CmmDaemon.compile(source);
+        ExecutorService executor = Executors.newFixedThreadPool(CONCURRENT_CLIENTS);
+        List<Future<Boolean>> results = new ArrayList<>();
+        for (int i = 0; i < CONCURRENT_CLIENTS; i++) {
+            results.add(executor.submit(() -> {
+                try (CmmClient client = new CmmClient(address)) {
+                    for (int j = 0; j < 10; j++) {
+                        DaemonProtocol.Response response = client.compile(source);
+                        if (response.getExitStatus() != expected.getExitStatus() || !response.getOut().equals(expected.getOut()))
+                            return false;
+                    }
+                }
+                return true;
+            }));
+        }
+        boolean same = true;
+        for (Future<Boolean> result : results)
+            same &= result.get();
+        executor.shutdown();
+        System.out.println("concurrent clients " + CONCURRENT_CLIENTS + ": " + (same ? "same output as sequential" : "OUTPUT DIFFERS"));
+    }
+}
@@ -0,0 +1,42 @@
+package benchmarks;
+
+import main.ast.nodes.Program;
+import main.visitor.FusedTraversal;
+import main.visitor.optimize.FptrDevirtualizer;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+
+//Splits each input's calls through function pointers into those FptrDevirtualizer binds to one target (a direct
+//call), to two (a guarded call), and those left indirect, and times the analysis. BenchmarkPrograms.callbacks runs
+//last, as the case with the most pointer calls to resolve.
+//usage: DevirtualizationReport [sampleDir] [functions]
+public class DevirtualizationReport {
+    private static final int ROUNDS = 10;
+
+    public static void main(String[] args) throws IOException {
+        int functions = args.length > 1 ? Integer.parseInt(args[1]) : 1000;
+        BenchmarkPrograms.inputs(Paths.get(args.length > 0 ? args[0] : "samples"), functions / 10)
+                .forEach(DevirtualizationReport::report);
+        report("callbacks " + functions, BenchmarkPrograms.callbacks(functions));
+    }
+
+    private static void report(String name, String text) {
+        Program program = BenchmarkPrograms.analysed(text);
+        FptrDevirtualizer devirtualizer = null;
+        long start = 0;
+        //The first rounds warm up; only the last one is timed
+        for (int i = 0; i < ROUNDS; i++) {
+            devirtualizer = new FptrDevirtualizer();
+            FusedTraversal traversal = new FusedTraversal();
+            traversal.addHook(devirtualizer);
+            start = System.nanoTime();
+            traversal.run(program);
+        }
+        double millis = (System.nanoTime() - start) / 1e6;
+        int calls = devirtualizer.getFptrCalls();
+        int left = calls - devirtualizer.getMonomorphic() - devirtualizer.getBimorphic();
+        System.out.printf("%-20s %6d fptr calls: %6d direct, %6d guarded, %6d indirect  (%.2f ms)%n", name, calls,
+                devirtualizer.getMonomorphic(), devirtualizer.getBimorphic(), left, millis);
+    }
+}
@@ -0,0 +1,299 @@
+package benchmarks;
+
+import main.ast.nodes.Node;
+import main.ast.nodes.Program;
+import main.ast.nodes.declaration.*;
+import main.ast.nodes.declaration.struct.StructDeclaration;
+import main.ast.nodes.expression.*;
+import main.ast.nodes.expression.values.primitive.*;
+import main.ast.nodes.statement.*;
+import main.visitor.KindSwitchVisitor;
+
+//Compares accept/visit double dispatch with KindSwitchVisitor.dispatch on the same traversals.
+//usage: DispatchComparison [functions] [statementsPerFunction]
+public class DispatchComparison {
+    private static final int WARMUP = 20;
+    private static final int ROUNDS = 50;
+
+    public static void main(String[] args) {
+        int functions = args.length > 0 ? Integer.parseInt(args[0]) : 500;
+        int statements = args.length > 1 ? Integer.parseInt(args[1]) : 60;
+        Program program = BenchmarkPrograms.parse(BenchmarkPrograms.mixedNodes(functions, statements));
+        int nodes = new AcceptReportWalk().visit(program);
+        System.out.println("functions=" + functions + " statementsPerFunction=" + statements + " nodes=" + nodes);
+
+        Walk[] walks = {new AcceptReportWalk(), new SwitchReportWalk(), new AcceptTypeWalk(), new SwitchTypeWalk()};
+        for (Walk walk : walks)
+            for (int i = 0; i < WARMUP; i++)
+                walk.visit(program);
+        for (Walk walk : walks) {
+            int result = 0;
+            long start = System.nanoTime();
+            for (int i = 0; i < ROUNDS; i++)
+                result += walk.visit(program);
+            double nanos = (double) (System.nanoTime() - start) / ROUNDS / nodes;
+            System.out.printf("%-18s %6.2f ns/node  (checksum %d)%n", walk.getClass().getSimpleName(), nanos, result);
+        }
+    }
+
+    //ErrorReporter-style: every node is visited and contributes to a sum
+    private static abstract class Walk extends KindSwitchVisitor<Integer> {
+        protected abstract int walk(Node node);
+
+        protected int self(Node node) {
+            return 1;
+        }
+
+        @Override
+        public Integer visit(Program program) {
+            int sum = self(program);
+            for (StructDeclaration struct : program.getStructs())
+                sum += walk(struct);
+            for (FunctionDeclaration function : program.getFunctions())
+                sum += walk(function);
+            return sum + walk(program.getMain());
+        }
+
+        @Override
+        public Integer visit(FunctionDeclaration functionDec) {
+            int sum = self(functionDec) + walk(functionDec.getFunctionName());
+            for (VariableDeclaration arg : functionDec.getArgs())
+                sum += walk(arg);
+            return sum + walk(functionDec.getBody());
+        }
+
+        @Override
+        public Integer visit(MainDeclaration mainDec) {
+            return self(mainDec) + walk(mainDec.getBody());
+        }
+
+        @Override
+        public Integer visit(VariableDeclaration variableDec) {
+            int sum = self(variableDec) + walk(variableDec.getVarName());
+            if (variableDec.getDefaultValue() != null)
+                sum += walk(variableDec.getDefaultValue());
+            return sum;
+        }
+
+        @Override
+        public Integer visit(StructDeclaration structDec) {
+            return self(structDec) + walk(structDec.getStructName()) + walk(structDec.getBody());
+        }
+
+        @Override
+        public Integer visit(SetGetVarDeclaration setGetVarDec) {
+            int sum = self(setGetVarDec) + walk(setGetVarDec.getVarDec()) + walk(setGetVarDec.getVarName());
+            for (VariableDeclaration arg : setGetVarDec.getArgs())
+                sum += walk(arg);
+            return sum + walk(setGetVarDec.getSetterBody()) + walk(setGetVarDec.getGetterBody());
+        }
+
+        @Override
+        public Integer visit(AssignmentStmt assignmentStmt) {
+            return self(assignmentStmt) + walk(assignmentStmt.getLValue()) + walk(assignmentStmt.getRValue());
+        }
+
+        @Override
+        public Integer visit(BlockStmt blockStmt) {
+            int sum = self(blockStmt);
+            for (Statement stmt : blockStmt.getStatements())
+                sum += walk(stmt);
+            return sum;
+        }
+
+        @Override
+        public Integer visit(ConditionalStmt conditionalStmt) {
+            int sum = self(conditionalStmt) + walk(conditionalStmt.getCondition()) + walk(conditionalStmt.getThenBody());
+            if (conditionalStmt.getElseBody() != null)
+                sum += walk(conditionalStmt.getElseBody());
+            return sum;
+        }
+
+        @Override
+        public Integer visit(FunctionCallStmt functionCallStmt) {
+            return self(functionCallStmt) + walk(functionCallStmt.getFunctionCall());
+        }
+
+        @Override
+        public Integer visit(DisplayStmt displayStmt) {
+            return self(displayStmt) + walk(displayStmt.getArg());
+        }
+
+        @Override
+        public Integer visit(ReturnStmt returnStmt) {
+            int sum = self(returnStmt);
+            if (returnStmt.getReturnedExpr() != null)
+                sum += walk(returnStmt.getReturnedExpr());
+            return sum;
+        }
+
+        @Override
+        public Integer visit(LoopStmt loopStmt) {
+            return self(loopStmt) + walk(loopStmt.getCondition()) + walk(loopStmt.getBody());
+        }
+
+        @Override
+        public Integer visit(VarDecStmt varDecStmt) {
+            int sum = self(varDecStmt);
+            for (VariableDeclaration var : varDecStmt.getVars())
+                sum += walk(var);
+            return sum;
+        }
+
+        @Override
+        public Integer visit(ListAppendStmt listAppendStmt) {
+            return self(listAppendStmt) + walk(listAppendStmt.getListAppendExpr());
+        }
+
+        @Override
+        public Integer visit(ListSizeStmt listSizeStmt) {
+            return self(listSizeStmt) + walk(listSizeStmt.getListSizeExpr());
+        }
+
+        @Override
+        public Integer visit(BinaryExpression binaryExpression) {
+            return self(binaryExpression) + walk(binaryExpression.getFirstOperand()) + walk(binaryExpression.getSecondOperand());
+        }
+
+        @Override
+        public Integer visit(UnaryExpression unaryExpression) {
+            return self(unaryExpression) + walk(unaryExpression.getOperand());
+        }
+
+        @Override
+        public Integer visit(FunctionCall funcCall) {
+            int sum = self(funcCall) + walk(funcCall.getInstance());
+            for (Expression arg : funcCall.getArgs())
+                sum += walk(arg);
+            return sum;
+        }
+
+        @Override
+        public Integer visit(Identifier identifier) {
+            return self(identifier);
+        }
+
+        @Override
+        public Integer visit(ListAccessByIndex listAccessByIndex) {
+            return self(listAccessByIndex) + walk(listAccessByIndex.getInstance()) + walk(listAccessByIndex.getIndex());
+        }
+
+        @Override
+        public Integer visit(StructAccess structAccess) {
+            return self(structAccess) + walk(structAccess.getInstance()) + walk(structAccess.getElement());
+        }
+
+        @Override
+        public Integer visit(ListSize listSize) {
+            return self(listSize) + walk(listSize.getArg());
+        }
+
+        @Override
+        public Integer visit(ListAppend listAppend) {
+            return self(listAppend) + walk(listAppend.getListArg()) + walk(listAppend.getElementArg());
+        }
+
+        @Override
+        public Integer visit(ExprInPar exprInPar) {
+            int sum = self(exprInPar);
+            for (Expression expression : exprInPar.getInputs())
+                sum += walk(expression);
+            return sum;
+        }
+
+        @Override
+        public Integer visit(IntValue intValue) {
+            return self(intValue);
+        }
+
+        @Override
+        public Integer visit(BoolValue boolValue) {
+            return self(boolValue);
+        }
+    }
+
+    //TypeChecker-style: expressions compute a small type code from their operands instead of a count
+    private static abstract class TypeWalk extends Walk {
+        private static final int INT = 1, BOOL = 2, NONE = 3;
+
+        @Override
+        public Integer visit(BinaryExpression binaryExpression) {
+            int left = walk(binaryExpression.getFirstOperand());
+            int right = walk(binaryExpression.getSecondOperand());
+            switch (binaryExpression.getBinaryOperator()) {
+                case and: case or:
+                    return left == BOOL && right == BOOL ? BOOL : NONE;
+                case eq: case lt: case gt:
+                    return left == right ? BOOL : NONE;
+                default:
+                    return left == INT && right == INT ? INT : NONE;
+            }
+        }
+
+        @Override
+        public Integer visit(UnaryExpression unaryExpression) {
+            return walk(unaryExpression.getOperand());
+        }
+
+        @Override
+        public Integer visit(Identifier identifier) {
+            return identifier.getName().length() % 2 == 0 ? INT : BOOL;
+        }
+
+        @Override
+        public Integer visit(ListAccessByIndex listAccessByIndex) {
+            walk(listAccessByIndex.getIndex());
+            return walk(listAccessByIndex.getInstance());
+        }
+
+        @Override
+        public Integer visit(StructAccess structAccess) {
+            walk(structAccess.getInstance());
+            return INT;
+        }
+
+        @Override
+        public Integer visit(ListSize listSize) {
+            walk(listSize.getArg());
+            return INT;
+        }
+
+        @Override
+        public Integer visit(IntValue intValue) {
+            return INT;
+        }
+
+        @Override
+        public Integer visit(BoolValue boolValue) {
+            return BOOL;
+        }
+    }
+
+    private static class AcceptReportWalk extends Walk {
+        @Override
+        protected int walk(Node node) {
+            return node.accept(this);
+        }
+    }
+
+    private static class SwitchReportWalk extends Walk {
+        @Override
+        protected int walk(Node node) {
+            return dispatch(node);
+        }
+    }
+
+    private static class AcceptTypeWalk extends TypeWalk {
+        @Override
+        protected int walk(Node node) {
+            return node.accept(this);
+        }
+    }
+
+    private static class SwitchTypeWalk extends TypeWalk {
+        @Override
+        protected int walk(Node node) {
+            return dispatch(node);
+        }
+    }
+}
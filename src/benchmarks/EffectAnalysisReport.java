@@ -0,0 +1,48 @@
+package benchmarks;
+
+import main.ast.nodes.Program;
+import main.visitor.FusedTraversal;
+import main.visitor.NodeCounter;
+import main.visitor.optimize.EffectAnalyser;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+
+//What EffectAnalyser makes of each input's call graph: bodies summarised, pure ones, components and recursive ones,
+//with the time per tree node. BenchmarkPrograms.callGraph runs at doubling sizes, where that time should stay flat,
+//the analysis being linear. FptrDevirtualizer does not run, so calls through function pointers count as unknown.
+//usage: EffectAnalysisReport [sampleDir] [functions]
+public class EffectAnalysisReport {
+    private static final int ROUNDS = 10;
+
+    public static void main(String[] args) throws IOException {
+        int functions = args.length > 1 ? Integer.parseInt(args[1]) : 1000;
+        BenchmarkPrograms.inputs(Paths.get(args.length > 0 ? args[0] : "samples"), functions / 5)
+                .forEach(EffectAnalysisReport::report);
+        for (int n = functions; n <= functions * 8; n *= 2)
+            report("callGraph " + n, BenchmarkPrograms.callGraph(n));
+    }
+
+    private static void report(String name, String text) {
+        Program program = BenchmarkPrograms.analysed(text);
+        NodeCounter nodeCounter = new NodeCounter();
+        FusedTraversal counting = new FusedTraversal();
+        counting.addHook(nodeCounter);
+        counting.run(program);
+
+        EffectAnalyser effectAnalyser = null;
+        long start = 0;
+        //The first rounds warm up; only the last one is timed
+        for (int i = 0; i < ROUNDS; i++) {
+            effectAnalyser = new EffectAnalyser();
+            FusedTraversal traversal = new FusedTraversal();
+            traversal.addHook(effectAnalyser);
+            start = System.nanoTime();
+            traversal.run(program);
+        }
+        long nanos = System.nanoTime() - start;
+        System.out.printf("%-20s %6d bodies, %6d pure, %6d components, %5d recursive  (%.2f ms, %.1f ns/node)%n", name,
+                effectAnalyser.getBodies(), effectAnalyser.getPure(), effectAnalyser.getComponents(),
+                effectAnalyser.getRecursive(), nanos / 1e6, (double) nanos / nodeCounter.getCount());
+    }
+}
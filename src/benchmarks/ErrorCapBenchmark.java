@@ -0,0 +1,77 @@
+package benchmarks;
+
+import main.CmmCompiler;
+import main.diagnostics.JsonLinesDiagnosticWriter;
+import main.diagnostics.TextDiagnosticWriter;
+import main.stats.CompileStats;
+import org.antlr.v4.runtime.CharStreams;
+
+import java.io.BufferedOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+//Analysis time of a badly broken generated file with and without --max-errors, and the cost of writing every
+//diagnostic through an autoflushing PrintStream, as System.out is, against a buffered one. Output goes to a temp file.
+//usage: ErrorCapBenchmark [functions] [runs]
+public class ErrorCapBenchmark {
+    public static void main(String[] args) throws IOException {
+        int functions = args.length > 0 ? Integer.parseInt(args[0]) : 400;
+        int runs = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+        String text = new ProgramGenerator(11).setStructs(20).setFunctions(functions).setStatements(40)
+                .setInvalid(true).generate().getText();
+        Path file = Files.createTempFile("cmm-diagnostics", ".txt");
+        try {
+            run("text, line flushed", runs, () -> {
+                try (PrintStream out = new PrintStream(new FileOutputStream(file.toFile()), true)) {
+                    return compile(new CmmCompiler(new TextDiagnosticWriter(out, out)), text, Integer.MAX_VALUE);
+                }
+            });
+            run("text, buffered", runs, () -> {
+                try (PrintStream out = new PrintStream(new BufferedOutputStream(new FileOutputStream(file.toFile()), 1 << 16), false)) {
+                    return compile(new CmmCompiler(new TextDiagnosticWriter(out, out)), text, Integer.MAX_VALUE);
+                }
+            });
+            run("jsonl, buffered", runs, () -> {
+                try (PrintStream out = new PrintStream(new BufferedOutputStream(new FileOutputStream(file.toFile()), 1 << 16), false)) {
+                    return compile(new CmmCompiler(new JsonLinesDiagnosticWriter(out)), text, Integer.MAX_VALUE);
+                }
+            });
+            for (int cap : new int[]{1000, 100, 10}) {
+                run("text, --max-errors " + cap, runs, () -> {
+                    try (PrintStream out = new PrintStream(new BufferedOutputStream(new FileOutputStream(file.toFile()), 1 << 16), false)) {
+                        return compile(new CmmCompiler(new TextDiagnosticWriter(out, out)), text, cap);
+                    }
+                });
+            }
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private interface Compile {
+        long run() throws IOException;
+    }
+
+    //Time after parsing, which is all the cap can save
+    private static long compile(CmmCompiler compiler, String text, int maxErrors) {
+        compiler.setMaxErrors(maxErrors);
+        compiler.compile(CharStreams.fromString(text));
+        long nanos = 0;
+        for (CompileStats.PhaseStats phase : compiler.getStats().getPhases()) {
+            if (!phase.getName().equals("lex") && !phase.getName().equals("parse") && phase.getCpuNanos() >= 0)
+                nanos += phase.getWallNanos();
+        }
+        return nanos;
+    }
+
+    private static void run(String name, int runs, Compile compile) throws IOException {
+        compile.run();
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < runs; i++)
+            best = Math.min(best, compile.run());
+        System.out.printf("%-24s %10.1f ms%n", name, best / 1e6);
+    }
+}
@@ -0,0 +1,36 @@
+package benchmarks;
+
+import main.ast.nodes.Program;
+import main.visitor.FusedTraversal;
+import main.visitor.optimize.EscapeAnalyser;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+
+//Struct locals declared, and how many EscapeAnalyser replaces with scalars, per input and in total, with
+//BenchmarkPrograms.structLocals last. Counts are of declarations; one inside a loop saves an allocation per iteration.
+//usage: EscapeAnalysisReport [sampleDir] [functions]
+public class EscapeAnalysisReport {
+    private static int totalLocals = 0;
+    private static int totalReplaced = 0;
+
+    public static void main(String[] args) throws IOException {
+        int functions = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+        BenchmarkPrograms.inputs(Paths.get(args.length > 0 ? args[0] : "samples"), functions)
+                .forEach(EscapeAnalysisReport::report);
+        report("structLocals " + functions, BenchmarkPrograms.structLocals(functions));
+        System.out.printf("%-24s %6d struct locals, %6d replaced%n", "total", totalLocals, totalReplaced);
+    }
+
+    private static void report(String name, String text) {
+        Program program = BenchmarkPrograms.analysed(text);
+        EscapeAnalyser escapeAnalyser = new EscapeAnalyser();
+        FusedTraversal traversal = new FusedTraversal();
+        traversal.addHook(escapeAnalyser);
+        traversal.run(program);
+        System.out.printf("%-24s %6d struct locals, %6d replaced%n", name, escapeAnalyser.getStructLocals(),
+                escapeAnalyser.getReplaced());
+        totalLocals += escapeAnalyser.getStructLocals();
+        totalReplaced += escapeAnalyser.getReplaced();
+    }
+}
@@ -0,0 +1,72 @@
+package benchmarks;
+
+import main.ast.nodes.Program;
+import main.symbolTable.SymbolTable;
+import main.visitor.ErrorReporter;
+import main.visitor.FusedTraversal;
+import main.visitor.name.NameAnalyser;
+import main.visitor.type.TypeChecker;
+
+//Compares the separate NameAnalyser/ErrorReporter/TypeChecker/ErrorReporter walks with the fused pipeline CmmCompiler uses.
+//usage: FusedPipelineComparison [functions] [statementsPerFunction]
+public class FusedPipelineComparison {
+    private static final int WARMUP = 10;
+    private static final int ROUNDS = 20;
+
+    public static void main(String[] args) {
+        int functions = args.length > 0 ? Integer.parseInt(args[0]) : 500;
+        int statements = args.length > 1 ? Integer.parseInt(args[1]) : 60;
+        Program program = BenchmarkPrograms.parse(BenchmarkPrograms.mixedNodes(functions, statements));
+        System.out.println("functions=" + functions + " statementsPerFunction=" + statements);
+
+        for (int i = 0; i < WARMUP; i++) {
+            separate(program);
+            fused(program);
+        }
+
+        long start = System.nanoTime();
+        for (int i = 0; i < ROUNDS; i++)
+            separate(program);
+        double separateMillis = (System.nanoTime() - start) / 1e6 / ROUNDS;
+
+        int subtreeWalks = 0;
+        start = System.nanoTime();
+        for (int i = 0; i < ROUNDS; i++)
+            subtreeWalks = fused(program);
+        double fusedMillis = (System.nanoTime() - start) / 1e6 / ROUNDS;
+
+        System.out.printf("separate  program walks 4  %8.2f ms/op%n", separateMillis);
+        System.out.printf("fused     program walks 2  %8.2f ms/op  (reporting runs on %d hot declarations)%n", fusedMillis, subtreeWalks);
+    }
+
+    private static void separate(Program program) {
+        ErrorReporter errorReporter = new ErrorReporter();
+        SymbolTable.reset();
+        program.accept(new NameAnalyser());
+        if (program.accept(errorReporter) > 0)
+            throw new IllegalStateException("benchmark program has name errors");
+        program.accept(new TypeChecker());
+        if (program.accept(errorReporter) > 0)
+            throw new IllegalStateException("benchmark program has type errors");
+    }
+
+    private static int fused(Program program) {
+        ErrorReporter errorReporter = new ErrorReporter();
+        FusedTraversal reporting = new FusedTraversal();
+        reporting.addHook(errorReporter);
+
+        SymbolTable.reset();
+        NameAnalyser nameAnalyser = new NameAnalyser();
+        nameAnalyser.setDeclarationTraversal(reporting);
+        program.accept(nameAnalyser);
+        if (errorReporter.flushNumberOfErrors() > 0)
+            throw new IllegalStateException("benchmark program has name errors");
+
+        TypeChecker typeChecker = new TypeChecker();
+        typeChecker.setDeclarationTraversal(reporting);
+        program.accept(typeChecker);
+        if (errorReporter.flushNumberOfErrors() > 0)
+            throw new IllegalStateException("benchmark program has type errors");
+        return reporting.getTraversals();
+    }
+}
@@ -0,0 +1,34 @@
+package benchmarks;
+
+import main.ast.nodes.Program;
+import main.visitor.FusedTraversal;
+import main.visitor.optimize.EffectAnalyser;
+import main.visitor.optimize.LoopInvariantHoister;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+
+//Per input, the operations inside loops that LoopInvariantHoister finds need computing only once per run of a loop,
+//next to the pure bodies EffectAnalyser found for it. BenchmarkPrograms.nestedLoops, last, has the most to find.
+//usage: LoopInvariantReport [sampleDir] [functions]
+public class LoopInvariantReport {
+    public static void main(String[] args) throws IOException {
+        int functions = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+        BenchmarkPrograms.inputs(Paths.get(args.length > 0 ? args[0] : "samples"), functions)
+                .forEach(LoopInvariantReport::report);
+        report("nestedLoops " + functions, BenchmarkPrograms.nestedLoops(functions));
+    }
+
+    private static void report(String name, String text) {
+        Program program = BenchmarkPrograms.analysed(text);
+        EffectAnalyser effectAnalyser = new EffectAnalyser();
+        LoopInvariantHoister hoister = new LoopInvariantHoister(effectAnalyser);
+        FusedTraversal traversal = new FusedTraversal();
+        traversal.addHook(hoister);
+        traversal.addHook(effectAnalyser);
+        traversal.run(program);
+        System.out.printf("%-20s %5d loops, %6d operations in them, %6d invariant in %5d expressions; %4d of %4d bodies pure%n",
+                name, hoister.getLoops(), hoister.getLoopOperations(), hoister.getOperations(), hoister.getInvariants(),
+                effectAnalyser.getPure(), effectAnalyser.getBodies());
+    }
+}
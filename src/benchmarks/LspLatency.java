@@ -0,0 +1,107 @@
+package benchmarks;
+
+import main.CmmCompiler;
+import main.lsp.CmmDocument;
+import org.antlr.v4.runtime.CharStreams;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.IntFunction;
+
+//Time from an edit to fresh diagnostics in CmmDocument on a generated file of about 10k lines, for edits inside a body,
+//edits that move later declarations, and edits to a function header. After each kind of edit the incremental
+//diagnostics are checked against a document built from scratch, and the final text against CmmCompiler.
+//usage: LspLatency [functions] [edits]
+public class LspLatency {
+    public static void main(String[] args) {
+        int functions = args.length > 0 ? Integer.parseInt(args[0]) : 60;
+        int edits = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+        String text = new ProgramGenerator(7).setStructs(10).setFunctions(functions).setStatements(40)
+                .setInvalid(true).generate().getText();
+        List<String> lines = Arrays.asList(text.split("\n", -1));
+        String target = "f" + functions / 2;
+        int header = -1;
+        for (int i = 0; i < lines.size() && header < 0; i++) {
+            if (lines.get(i).matches("^\\w+ " + target + "\\(.*"))
+                header = i;
+        }
+        int headerLine = header;
+        System.out.println("lines " + lines.size() + ", editing " + target + " at line " + (header + 1));
+
+        CmmDocument document = new CmmDocument();
+        long start = System.nanoTime();
+        document.update(text);
+        document.getDiagnostics();
+        System.out.printf("open                 %9.2f ms%n", (System.nanoTime() - start) / 1e6);
+
+        String last = measure(document, "body edit", edits, k -> replace(lines, headerLine + 1, lines.get(headerLine + 1) + " + " + k));
+        check(document, last);
+        last = measure(document, "line insert", edits, k -> insert(lines, headerLine + 1, k % 2 == 0 ? "" : "    "));
+        check(document, last);
+        last = measure(document, "header edit", edits / 10, k -> replace(lines, headerLine, lines.get(headerLine).replace("(", k % 2 == 0 ? "(" : "( ")));
+        check(document, last);
+        checkCompiler(document, last);
+    }
+
+    private static String replace(List<String> lines, int index, String line) {
+        ArrayList<String> edited = new ArrayList<>(lines);
+        edited.set(index, line);
+        return String.join("\n", edited);
+    }
+
+    private static String insert(List<String> lines, int index, String line) {
+        ArrayList<String> edited = new ArrayList<>(lines);
+        edited.add(index, line);
+        return String.join("\n", edited);
+    }
+
+    private static String measure(CmmDocument document, String name, int edits, IntFunction<String> edit) {
+        double[] millis = new double[edits];
+        String text = null;
+        int bodies = 0;
+        for (int k = 0; k < edits; k++) {
+            text = edit.apply(k);
+            long start = System.nanoTime();
+            document.update(text);
+            document.getDiagnostics();
+            millis[k] = (System.nanoTime() - start) / 1e6;
+            bodies += document.getAnalysedBodies();
+        }
+        Arrays.sort(millis);
+        System.out.printf("%-20s %9.2f ms p50 %9.2f ms p99  (%d edits, %.1f bodies analysed per edit)%n", name,
+                millis[edits / 2], millis[Math.min(edits - 1, (int) Math.ceil(edits * 0.99) - 1)], edits, bodies / (double) edits);
+        return text;
+    }
+
+    private static List<String> render(CmmDocument document) {
+        List<String> rendered = new ArrayList<>();
+        for (CmmDocument.Diagnostic diagnostic : document.getDiagnostics())
+            rendered.add("Line " + diagnostic.getLine() + ": " + diagnostic.getMessage());
+        Collections.sort(rendered);
+        return rendered;
+    }
+
+    private static void check(CmmDocument document, String text) {
+        CmmDocument fresh = new CmmDocument();
+        fresh.update(text);
+        List<String> expected = render(fresh);
+        List<String> actual = render(document);
+        System.out.println("  " + actual.size() + " diagnostics, " + (expected.equals(actual) ? "same as a fresh document" : "DIFFERENT from a fresh document"));
+    }
+
+    private static void checkCompiler(CmmDocument document, String text) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        PrintStream stream = new PrintStream(out, true, StandardCharsets.UTF_8);
+        new CmmCompiler(stream, new PrintStream(OutputStream.nullOutputStream())).compile(CharStreams.fromString(text));
+        List<String> expected = new ArrayList<>(Arrays.asList(out.toString(StandardCharsets.UTF_8).split("\n")));
+        expected.removeIf(line -> line.isEmpty() || line.equals("Compilation successful"));
+        Collections.sort(expected);
+        System.out.println("  " + (expected.equals(render(document)) ? "same as CmmCompiler" : "DIFFERENT from CmmCompiler: " + expected.size() + " there"));
+    }
+}
@@ -0,0 +1,109 @@
+package benchmarks;
+
+import main.ast.nodes.Program;
+import main.ast.nodes.declaration.FunctionDeclaration;
+import main.runtime.MemoCache;
+import main.visitor.FusedTraversal;
+import main.visitor.optimize.EffectAnalyser;
+import main.visitor.optimize.Memoizer;
+
+//Which functions of BenchmarkPrograms.recursiveFunctions Memoizer marks, then the hit rate and speedup a MemoCache
+//gives fib and paths written the way that program writes them, at cache sizes from ample down to a few entries,
+//where eviction starts to cost hits. There is no backend to run the Cmm itself, so the two run as Java here.
+//usage: MemoizationReport [fib n] [paths n]
+public class MemoizationReport {
+    private static final int ROUNDS = 5;
+
+    private static MemoCache cache;
+    private static final int[] key1 = new int[1];
+
+    public static void main(String[] args) {
+        int fibN = args.length > 0 ? Integer.parseInt(args[0]) : 32;
+        int pathsN = args.length > 1 ? Integer.parseInt(args[1]) : 13;
+
+        Program program = BenchmarkPrograms.analysed(BenchmarkPrograms.recursiveFunctions());
+        EffectAnalyser effectAnalyser = new EffectAnalyser();
+        Memoizer memoizer = new Memoizer(effectAnalyser, null);
+        FusedTraversal traversal = new FusedTraversal();
+        traversal.addHook(memoizer);
+        traversal.addHook(effectAnalyser);
+        traversal.run(program);
+        System.out.printf("%d candidates, %d memoized:", memoizer.getCandidates(), memoizer.getMemoized());
+        for (FunctionDeclaration function : program.getFunctions())
+            if (function.isMemoized())
+                System.out.print(" " + function.getFunctionName().getName());
+        System.out.println();
+
+        long plain = time(() -> fib(fibN), 1, 0);
+        System.out.printf("fib(%d) plain %10.2f ms%n", fibN, plain / 1e6);
+        for (int entries : new int[]{1 << 10, 16, 4, 2}) {
+            long memo = time(() -> memoFib(fibN), 1, entries);
+            check(memoFib(fibN) == fib(fibN));
+            report("fib(" + fibN + ")", entries, plain, memo);
+        }
+
+        plain = time(() -> paths(pathsN, pathsN), 2, 0);
+        System.out.printf("paths(%d, %d) plain %10.2f ms%n", pathsN, pathsN, plain / 1e6);
+        for (int entries : new int[]{1 << 10, 64, 16, 4}) {
+            long memo = time(() -> memoPaths(pathsN, pathsN), 2, entries);
+            check(memoPaths(pathsN, pathsN) == paths(pathsN, pathsN));
+            report("paths(" + pathsN + ", " + pathsN + ")", entries, plain, memo);
+        }
+    }
+
+    //Run after the timed runs, so the cache is warm and evicting as it goes
+    private static void check(boolean same) {
+        if (!same)
+            throw new IllegalStateException("memoized result differs");
+    }
+
+    private static void report(String name, int entries, long plain, long memo) {
+        System.out.printf("%s memo %5d entries %10.3f ms  hit rate %5.1f%%, %8d evictions, speedup %10.1fx%n", name,
+                entries, memo / 1e6, cache.hitRate() * 100, cache.getEvictions(), (double) plain / memo);
+    }
+
+    //Nanoseconds of the last of a few runs, each memoized one with a fresh cache of that many entries
+    private static long time(Runnable run, int arity, int entries) {
+        long nanos = 0;
+        for (int i = 0; i < ROUNDS; i++) {
+            cache = entries > 0 ? new MemoCache(arity, entries) : null;
+            long start = System.nanoTime();
+            run.run();
+            nanos = System.nanoTime() - start;
+        }
+        return nanos;
+    }
+
+    private static int fib(int n) {
+        if (n < 2)
+            return n;
+        return fib(n - 1) + fib(n - 2);
+    }
+
+    private static int memoFib(int n) {
+        key1[0] = n;
+        int slot = cache.find(key1);
+        if (slot >= 0)
+            return cache.valueAt(slot);
+        int value = n < 2 ? n : memoFib(n - 1) + memoFib(n - 2);
+        key1[0] = n;
+        cache.put(key1, value);
+        return value;
+    }
+
+    private static int paths(int r, int c) {
+        if (r == 0 || c == 0)
+            return 1;
+        return paths(r - 1, c) + paths(r, c - 1);
+    }
+
+    private static int memoPaths(int r, int c) {
+        int[] key = {r, c};
+        int slot = cache.find(key);
+        if (slot >= 0)
+            return cache.valueAt(slot);
+        int value = r == 0 || c == 0 ? 1 : memoPaths(r - 1, c) + memoPaths(r, c - 1);
+        cache.put(key, value);
+        return value;
+    }
+}
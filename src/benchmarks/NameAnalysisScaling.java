@@ -0,0 +1,40 @@
+package benchmarks;
+
+import main.ast.nodes.Program;
+import main.symbolTable.SymbolTable;
+import main.visitor.name.NameAnalyser;
+
+//usage: NameAnalysisScaling [functions] [statementsPerFunction]
+public class NameAnalysisScaling {
+    private static final int[] THREADS = {1, 2, 4, 8, 16, 32};
+    private static final int WARMUP = 5;
+    private static final int ROUNDS = 10;
+
+    public static void main(String[] args) {
+        int functions = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+        int statements = args.length > 1 ? Integer.parseInt(args[1]) : 50;
+        Program program = BenchmarkPrograms.parse(BenchmarkPrograms.nestedScopes(functions, statements));
+
+        System.out.println("functions=" + functions + " statementsPerFunction=" + statements);
+        double base = 0;
+        for (int threads : THREADS) {
+            for (int i = 0; i < WARMUP; i++)
+                analyse(program, threads);
+            long nanos = 0;
+            //Only the analysis is timed, not the reset before it
+            for (int i = 0; i < ROUNDS; i++)
+                nanos += analyse(program, threads);
+            double millis = nanos / 1e6 / ROUNDS;
+            if (threads == 1)
+                base = millis;
+            System.out.printf("threads=%2d  %8.2f ms/op  speedup %.2fx%n", threads, millis, base / millis);
+        }
+    }
+
+    private static long analyse(Program program, int threads) {
+        SymbolTable.reset();
+        long start = System.nanoTime();
+        program.accept(new NameAnalyser(threads));
+        return System.nanoTime() - start;
+    }
+}
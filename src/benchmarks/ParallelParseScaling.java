@@ -0,0 +1,86 @@
+package benchmarks;
+
+import main.ast.nodes.Node;
+import main.ast.nodes.Program;
+import main.parse.ParallelParser;
+import main.visitor.FusedTraversal;
+import main.visitor.TraversalHook;
+import org.antlr.v4.runtime.CharStreams;
+import org.antlr.v4.runtime.CommonTokenStream;
+import parsers.CmmLexer;
+import parsers.CmmParser;
+
+//Parse time of a generated file of the given size, serially and with ParallelParser at 1, 2, 4... threads up to
+//the core count, as speedup over the serial parse. Each parallel Program is checked node for node, lines included,
+//against the serial one. ANTLR's prediction cache is warmed on a small file first, as it would be in the daemon.
+//A 100 MB file needs a heap of several GB for its trees: java -Xmx16g ... ParallelParseScaling 100
+//usage: ParallelParseScaling [megabytes] [maxThreads]
+public class ParallelParseScaling {
+    private static class Fingerprint implements TraversalHook {
+        private long hash = 17;
+        private long nodes = 0;
+
+        @Override
+        public void pre(Node node) {
+            hash = hash * 31 + node.toString().hashCode();
+            hash = hash * 31 + node.getLine();
+            nodes += 1;
+        }
+    }
+
+    public static void main(String[] args) {
+        double megabytes = args.length > 0 ? Double.parseDouble(args[0]) : 100;
+        int maxThreads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+
+        //Size of one function in the generator's output, to scale the file to the size asked for
+        String sample = generate(100);
+        int bytesPerFunction = sample.length() / 100;
+        String text = generate(Math.max(1, (int) (megabytes * 1e6 / bytesPerFunction)));
+        System.out.printf("%.1f MB, %d lines, %d cores%n", text.length() / 1e6, text.split("\n").length,
+                Runtime.getRuntime().availableProcessors());
+
+        parseSerially(sample);
+        new ParallelParser(maxThreads).parse(sample);
+
+        long start = System.nanoTime();
+        Program serialProgram = parseSerially(text);
+        double serial = (System.nanoTime() - start) / 1e6;
+        Fingerprint expected = fingerprint(serialProgram);
+        serialProgram = null;
+        System.out.printf("serial      %10.0f ms%n", serial);
+
+        for (int threads = 1; ; threads = Math.min(threads * 2, maxThreads)) {
+            start = System.nanoTime();
+            Program program = new ParallelParser(threads).parse(text);
+            double millis = (System.nanoTime() - start) / 1e6;
+            if (program == null) {
+                System.out.println("ParallelParser fell back to a serial parse");
+                return;
+            }
+            Fingerprint actual = fingerprint(program);
+            boolean same = actual.hash == expected.hash && actual.nodes == expected.nodes;
+            System.out.printf("%2d threads  %10.0f ms  speedup %5.2f  %s%n", threads, millis, serial / millis,
+                    same ? "same tree" : "DIFFERENT TREE");
+            if (threads >= maxThreads)
+                break;
+        }
+    }
+
+    private static String generate(int functions) {
+        return new ProgramGenerator(40).setStructs(20).setFunctions(functions).setStatements(20)
+                .setInvalid(true).generate().getText();
+    }
+
+    private static Program parseSerially(String text) {
+        CmmParser parser = new CmmParser(new CommonTokenStream(new CmmLexer(CharStreams.fromString(text))));
+        return parser.cmm().cmmProgram;
+    }
+
+    private static Fingerprint fingerprint(Program program) {
+        Fingerprint fingerprint = new Fingerprint();
+        FusedTraversal traversal = new FusedTraversal();
+        traversal.addHook(fingerprint);
+        traversal.run(program);
+        return fingerprint;
+    }
+}
@@ -0,0 +1,137 @@
+package benchmarks;
+
+import main.CmmCompiler;
+import main.ast.nodes.Program;
+import main.symbolTable.SymbolTable;
+import main.visitor.ErrorReporter;
+import main.visitor.name.NameAnalyser;
+import main.visitor.type.TypeChecker;
+import org.antlr.v4.runtime.CharStreams;
+import parsers.CmmLexer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+//Throughput and allocation of every compiler phase over the samples/ corpus and ProgramGenerator programs of growing size.
+//Allocation is read per thread from ThreadMXBean, the same counter the JMH GC profiler reports.
+//usage: PhaseBenchmark [corpusDir] [measureMillis]
+public class PhaseBenchmark {
+    private static final int[] GENERATED_SIZES = {10, 100, 1000};
+    private static final com.sun.management.ThreadMXBean threads =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    private static final PrintStream discard = new PrintStream(OutputStream.nullOutputStream());
+
+    private interface Phase {
+        //Runs untimed setup, then the measured work between the two markers
+        void run(String text, Measurement measurement);
+    }
+
+    private static class Measurement {
+        long nanos, bytes, startNanos, startBytes;
+
+        void start() {
+            startBytes = threads.getThreadAllocatedBytes(Thread.currentThread().getId());
+            startNanos = System.nanoTime();
+        }
+
+        void stop() {
+            nanos += System.nanoTime() - startNanos;
+            bytes += threads.getThreadAllocatedBytes(Thread.currentThread().getId()) - startBytes;
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        Path corpus = Paths.get(args.length > 0 ? args[0] : "samples");
+        long measureMillis = args.length > 1 ? Long.parseLong(args[1]) : 1000;
+
+        Map<String, String> inputs = new LinkedHashMap<>();
+        List<Path> files;
+        try (Stream<Path> listing = Files.list(corpus)) {
+            files = listing.filter(f -> f.toString().endsWith(".cmm")).sorted().collect(Collectors.toList());
+        }
+        for (Path file : files)
+            inputs.put(file.getFileName().toString(), Files.readString(file));
+        for (int size : GENERATED_SIZES)
+            inputs.put("generated-" + size, new ProgramGenerator(size).setStructs(size / 10 + 1).setFunctions(size).generate().getText());
+
+        Map<String, Phase> phases = new LinkedHashMap<>();
+        phases.put("lex", (text, m) -> {
+            m.start();
+            new CmmLexer(CharStreams.fromString(text)).getAllTokens();
+            m.stop();
+        });
+        phases.put("parse", (text, m) -> {
+            m.start();
+            BenchmarkPrograms.parse(text);
+            m.stop();
+        });
+        phases.put("nameAnalysis", (text, m) -> {
+            Program program = BenchmarkPrograms.parse(text);
+            SymbolTable.reset();
+            m.start();
+            program.accept(new NameAnalyser());
+            m.stop();
+        });
+        phases.put("typeCheck", (text, m) -> {
+            Program program = BenchmarkPrograms.parse(text);
+            SymbolTable.reset();
+            program.accept(new NameAnalyser());
+            m.start();
+            program.accept(new TypeChecker());
+            m.stop();
+        });
+        phases.put("errorReport", (text, m) -> {
+            Program program = BenchmarkPrograms.parse(text);
+            SymbolTable.reset();
+            program.accept(new NameAnalyser());
+            program.accept(new TypeChecker());
+            m.start();
+            program.accept(new ErrorReporter());
+            m.stop();
+        });
+        phases.put("compile", (text, m) -> {
+            m.start();
+            new CmmCompiler().compile(CharStreams.fromString(text));
+            m.stop();
+        });
+
+        PrintStream out = System.out;
+        out.printf("%-14s %-13s %12s %12s %14s %12s%n", "input", "phase", "ops/s", "us/op", "alloc B/op", "alloc MB/s");
+        for (Map.Entry<String, String> input : inputs.entrySet()) {
+            for (Map.Entry<String, Phase> phase : phases.entrySet()) {
+                System.setOut(discard);
+                measure(phase.getValue(), input.getValue(), measureMillis);
+                Measurement m = new Measurement();
+                int ops = measure(phase.getValue(), input.getValue(), measureMillis, m);
+                System.setOut(out);
+                double seconds = m.nanos / 1e9;
+                out.printf("%-14s %-13s %12.1f %12.2f %14d %12.1f%n", input.getKey(), phase.getKey(),
+                        ops / seconds, m.nanos / 1e3 / ops, m.bytes / ops, m.bytes / 1e6 / seconds);
+            }
+        }
+    }
+
+    private static void measure(Phase phase, String text, long millis) {
+        measure(phase, text, millis, new Measurement());
+    }
+
+    private static int measure(Phase phase, String text, long millis, Measurement measurement) {
+        long end = System.currentTimeMillis() + millis;
+        int ops = 0;
+        do {
+            phase.run(text, measurement);
+            ops += 1;
+        } while (System.currentTimeMillis() < end);
+        return ops;
+    }
+}
@@ -0,0 +1,260 @@
+package benchmarks;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Random;
+
+//Seeded generator of Cmm programs of controllable size and shape. Valid programs compile cleanly; invalid ones
+//contain injected type errors whose diagnostics are known in advance, in the order ErrorReporter prints them.
+//usage: ProgramGenerator outFile [--seed n] [--structs n] [--members n] [--functions n] [--statements n]
+//                                [--nesting n] [--fptr-depth n] [--list-depth n] [--invalid]
+//writes outFile and outFile.expected with one diagnostic per line
+public class ProgramGenerator {
+    private final Random random;
+    private int structs = 10;
+    private int members = 2;
+    private int functions = 10;
+    private int statements = 20;
+    private int nesting = 2;
+    private int fptrDepth = 2;
+    private int listDepth = 2;
+    private boolean invalid = false;
+
+    private StringBuilder text;
+    private int line;
+    private int injected;
+    private ArrayList<String> diagnostics;
+
+    public ProgramGenerator(long seed) {
+        this.random = new Random(seed);
+    }
+
+    public static class GeneratedProgram {
+        private final String text;
+        private final ArrayList<String> diagnostics;
+
+        public GeneratedProgram(String text, ArrayList<String> diagnostics) {
+            this.text = text;
+            this.diagnostics = diagnostics;
+        }
+
+        public String getText() {
+            return text;
+        }
+
+        public ArrayList<String> getDiagnostics() {
+            return diagnostics;
+        }
+    }
+
+    public ProgramGenerator setStructs(int structs) {
+        this.structs = Math.max(1, structs);
+        return this;
+    }
+
+    public ProgramGenerator setMembers(int members) {
+        this.members = Math.max(1, members);
+        return this;
+    }
+
+    public ProgramGenerator setFunctions(int functions) {
+        this.functions = Math.max(1, functions);
+        return this;
+    }
+
+    public ProgramGenerator setStatements(int statements) {
+        this.statements = Math.max(1, statements);
+        return this;
+    }
+
+    public ProgramGenerator setNesting(int nesting) {
+        this.nesting = Math.max(0, nesting);
+        return this;
+    }
+
+    public ProgramGenerator setFptrDepth(int fptrDepth) {
+        this.fptrDepth = Math.max(1, fptrDepth);
+        return this;
+    }
+
+    public ProgramGenerator setListDepth(int listDepth) {
+        this.listDepth = Math.max(1, listDepth);
+        return this;
+    }
+
+    public ProgramGenerator setInvalid(boolean invalid) {
+        this.invalid = invalid;
+        return this;
+    }
+
+    public GeneratedProgram generate() {
+        text = new StringBuilder();
+        line = 1;
+        injected = 0;
+        diagnostics = new ArrayList<>();
+        for (int s = 0; s < structs; s++)
+            struct(s);
+        for (int f = 0; f < functions; f++)
+            function(f);
+        main();
+        return new GeneratedProgram(text.toString(), diagnostics);
+    }
+
+    private void emit(int indent, String code) {
+        text.append("    ".repeat(indent)).append(code).append('\n');
+        line += 1;
+    }
+
+    private String listType(int depth) {
+        return "list #".repeat(depth) + "int";
+    }
+
+    //fptr<fptr<...<int -> int>...> -> int> -> int>
+    private String fptrType(int depth) {
+        String type = "int";
+        for (int d = 0; d < depth; d++)
+            type = "fptr<" + type + " -> int>";
+        return type;
+    }
+
+    //Every struct after the first holds the previous one, so struct types form one long dependency chain
+    private void struct(int s) {
+        emit(0, "struct s" + s + " begin");
+        emit(1, "int m0");
+        emit(1, listType(listDepth) + " l0");
+        emit(1, fptrType(fptrDepth) + " p0");
+        if (s > 0)
+            emit(1, "struct s" + (s - 1) + " prev");
+        for (int m = 0; m < members; m++) {
+            emit(1, "int g" + m + " (int a) begin");
+            emit(2, "set begin");
+            emit(3, "m0 = a + " + m);
+            emit(2, "end");
+            emit(2, "get begin");
+            emit(3, "return m0");
+            emit(2, "end");
+            emit(1, "end");
+        }
+        emit(0, "end");
+        emit(0, "");
+    }
+
+    private void function(int f) {
+        String struct = "s" + (f % structs);
+        emit(0, "int f" + f + "(struct " + struct + " s, int a, " + listType(listDepth) + " l) begin");
+        emit(1, "int x = a");
+        emit(1, fptrType(fptrDepth) + " p = s.p0");
+        for (int i = 0; i < statements; i++)
+            statement(f, i, 1, nesting);
+        emit(1, "return x");
+        emit(0, "end");
+        emit(0, "");
+    }
+
+    //Every eighth statement nests all the way down, the rest only sometimes
+    private void statement(int f, int i, int indent, int depth) {
+        if (depth > 0 && (i % 8 == 0 || random.nextInt(3) == 0)) {
+            if (random.nextBoolean()) {
+                emit(indent, "if x > " + i + " begin");
+                emit(indent + 1, "int y" + depth + " = x - 1");
+                statement(f, i, indent + 1, depth - 1);
+                emit(indent, "end");
+                emit(indent, "else");
+                emit(indent + 1, "x = x + 1");
+            } else {
+                emit(indent, "while x < " + i + " begin");
+                emit(indent + 1, "int w" + depth + " = x + 1");
+                statement(f, i, indent + 1, depth - 1);
+                emit(indent + 1, "x = w" + depth);
+                emit(indent, "end");
+            }
+            return;
+        }
+        if (invalid && random.nextInt(8) == 0) {
+            injectError(indent);
+            return;
+        }
+        switch (random.nextInt(6)) {
+            case 0:
+                emit(indent, "x = x * 2 - s.m0 / 3");
+                break;
+            case 1:
+                emit(indent, "x = s.g" + random.nextInt(members) + "(x)");
+                break;
+            case 2:
+                emit(indent, "x = x + size(l)");
+                break;
+            case 3:
+                emit(indent, "display(~(x == " + i + ") & true)");
+                break;
+            case 4:
+                emit(indent, "x = f" + (f == 0 ? 0 : random.nextInt(f)) + "(s, x, l)");
+                break;
+            default:
+                emit(indent, "p = s.p0");
+                break;
+        }
+    }
+
+    private void injectError(int indent) {
+        int kind = injected % 3;
+        injected += 1;
+        if (kind == 0) {
+            diagnostics.add("Line " + line + ": Variable undeclared" + injected + " is not declared");
+            emit(indent, "x = undeclared" + injected);
+        } else if (kind == 1) {
+            diagnostics.add("Line " + line + ": Condition must be bool");
+            emit(indent, "if " + injected + " begin");
+            emit(indent + 1, "x = x");
+            emit(indent, "end");
+        } else {
+            diagnostics.add("Line " + line + ": Unsupported operand type for operator add");
+            emit(indent, "x = x + true");
+        }
+    }
+
+    private void main() {
+        emit(0, "main() begin");
+        emit(1, "struct s0 s");
+        emit(1, listType(listDepth) + " l");
+        emit(1, "display(f0(s, 1, l))");
+        emit(0, "end");
+    }
+
+    public static void main(String[] args) throws IOException {
+        Path out = Paths.get(args[0]);
+        long seed = 1;
+        ArrayList<String> options = new ArrayList<>();
+        for (int i = 1; i < args.length; i++) {
+            if (args[i].equals("--seed"))
+                seed = Long.parseLong(args[++i]);
+            else
+                options.add(args[i]);
+        }
+        ProgramGenerator generator = new ProgramGenerator(seed);
+        for (int i = 0; i < options.size(); i++) {
+            String option = options.get(i);
+            if (option.equals("--invalid")) {
+                generator.setInvalid(true);
+                continue;
+            }
+            int value = Integer.parseInt(options.get(++i));
+            switch (option) {
+                case "--structs": generator.setStructs(value); break;
+                case "--members": generator.setMembers(value); break;
+                case "--functions": generator.setFunctions(value); break;
+                case "--statements": generator.setStatements(value); break;
+                case "--nesting": generator.setNesting(value); break;
+                case "--fptr-depth": generator.setFptrDepth(value); break;
+                case "--list-depth": generator.setListDepth(value); break;
+                default: throw new IllegalArgumentException("unknown option " + option);
+            }
+        }
+        GeneratedProgram program = generator.generate();
+        Files.writeString(out, program.getText());
+        Files.write(Paths.get(out + ".expected"), program.getDiagnostics());
+    }
+}
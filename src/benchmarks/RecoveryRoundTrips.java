@@ -0,0 +1,110 @@
+package benchmarks;
+
+import main.CmmCompiler;
+import main.compileError.CompileError;
+import main.diagnostics.DiagnosticWriter;
+import org.antlr.v4.runtime.CharStreams;
+
+import java.util.ArrayList;
+import java.util.Random;
+import java.util.TreeMap;
+
+//Edit-compile cycles needed to clear a generated file with syntax errors in some of its functions.
+//Without --recover the developer fixes the first error reported and compiles again; with it, one compile
+//reports every broken line, plus the name and type errors of the file. Each break leaves an assignment dangling: "x = a +".
+//usage: RecoveryRoundTrips [functions] [breaks]
+public class RecoveryRoundTrips {
+    private static class Counter implements DiagnosticWriter {
+        private final ArrayList<Integer> syntaxLines = new ArrayList<>();
+        private int errors;
+
+        @Override
+        public void begin(String source) {
+        }
+
+        @Override
+        public void syntaxError(int line, int column, String message) {
+            syntaxLines.add(line);
+        }
+
+        @Override
+        public void error(CompileError error) {
+            errors += 1;
+        }
+
+        @Override
+        public void finish(boolean successful, boolean stoppedEarly) {
+        }
+    }
+
+    public static void main(String[] args) {
+        int functions = args.length > 0 ? Integer.parseInt(args[0]) : 200;
+        int breaks = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        String[] lines = new ProgramGenerator(5).setStructs(10).setFunctions(functions).setStatements(20)
+                .setInvalid(true).generate().getText().split("\n", -1);
+
+        //Original text of each broken line, by line index
+        TreeMap<Integer, String> broken = new TreeMap<>();
+        Random random = new Random(5);
+        while (broken.size() < breaks) {
+            int line = random.nextInt(lines.length);
+            if (lines[line].startsWith("    ") && lines[line].matches("\\s+\\w+ = .*") && !broken.containsKey(line)) {
+                broken.put(line, lines[line]);
+                lines[line] = lines[line] + " +";
+            }
+        }
+
+        //Warm up both modes on the broken text
+        for (int i = 0; i < 3; i++) {
+            compile(lines, false);
+            compile(lines, true);
+        }
+
+        long start = System.nanoTime();
+        Counter recovered = compile(lines, true);
+        long recoverNanos = System.nanoTime() - start;
+        System.out.printf("--recover   1 compile   %8.2f ms  %d of %d broken lines reported, %d name and type errors%n",
+                recoverNanos / 1e6, reported(recovered, broken), breaks, recovered.errors);
+
+        int cycles = 0;
+        long nanos = 0;
+        String[] text = lines.clone();
+        TreeMap<Integer, String> left = new TreeMap<>(broken);
+        while (true) {
+            cycles += 1;
+            start = System.nanoTime();
+            Counter counter = compile(text, false);
+            nanos += System.nanoTime() - start;
+            if (counter != null && counter.syntaxLines.isEmpty() || left.isEmpty())
+                break;
+            //The developer fixes the first broken line, which is what the first report points at
+            int line = left.firstKey();
+            text[line] = left.remove(line);
+        }
+        System.out.printf("default    %2d compiles  %8.2f ms  one fix per compile%n", cycles, nanos / 1e6);
+    }
+
+    private static int reported(Counter counter, TreeMap<Integer, String> broken) {
+        int reported = 0;
+        for (int line : broken.keySet()) {
+            //A dangling operator is reported on the line or where the next one starts
+            if (counter.syntaxLines.contains(line + 1) || counter.syntaxLines.contains(line + 2))
+                reported += 1;
+        }
+        return reported;
+    }
+
+    //null when the compile crashed, which the grammar actions do on some partial input
+    private static Counter compile(String[] lines, boolean recover) {
+        Counter counter = new Counter();
+        CmmCompiler compiler = new CmmCompiler(counter);
+        compiler.setRecordStats(false);
+        compiler.setRecover(recover);
+        try {
+            compiler.compile(CharStreams.fromString(String.join("\n", lines)));
+        } catch (RuntimeException e) {
+            return null;
+        }
+        return counter;
+    }
+}
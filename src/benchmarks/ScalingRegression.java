@@ -0,0 +1,97 @@
+package benchmarks;
+
+import main.CmmCompiler;
+import main.ast.nodes.Program;
+import main.symbolTable.SymbolTable;
+import main.visitor.name.NameAnalyser;
+import main.visitor.type.TypeChecker;
+import org.antlr.v4.runtime.CharStreams;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.function.IntFunction;
+
+//Regression suite over generated programs: invalid programs must produce exactly the expected diagnostics, and
+//NameAnalyser and TypeChecker time must grow near-linearly along every shape axis. Exits with 1 on any failure.
+//usage: ScalingRegression [maxExponent]
+public class ScalingRegression {
+    private static final int[] STEPS = {1, 2, 4, 8};
+    private static final int RUNS = 5;
+
+    private static int failures = 0;
+
+    public static void main(String[] args) {
+        double maxExponent = args.length > 0 ? Double.parseDouble(args[0]) : 1.3;
+
+        checkDiagnostics();
+
+        scaling("structs", maxExponent, n -> new ProgramGenerator(n).setStructs(250 * n).setFunctions(5));
+        scaling("setters", maxExponent, n -> new ProgramGenerator(n).setStructs(20).setMembers(25 * n).setFunctions(5));
+        scaling("functions", maxExponent, n -> new ProgramGenerator(n).setFunctions(100 * n));
+        scaling("statements", maxExponent, n -> new ProgramGenerator(n).setFunctions(20).setStatements(100 * n));
+        scaling("nesting", maxExponent, n -> new ProgramGenerator(n).setFunctions(20).setStatements(16).setNesting(2 * n));
+        scaling("fptr-depth", maxExponent, n -> new ProgramGenerator(n).setFunctions(20).setFptrDepth(25 * n));
+        scaling("list-depth", maxExponent, n -> new ProgramGenerator(n).setFunctions(20).setListDepth(50 * n));
+
+        System.out.println(failures == 0 ? "OK" : failures + " FAILED");
+        System.exit(failures == 0 ? 0 : 1);
+    }
+
+    private static void checkDiagnostics() {
+        for (long seed = 1; seed <= 20; seed++) {
+            ProgramGenerator.GeneratedProgram program = new ProgramGenerator(seed)
+                    .setFunctions(10).setStatements(40).setNesting(4).setInvalid(true).generate();
+            PrintStream out = System.out;
+            ByteArrayOutputStream printed = new ByteArrayOutputStream();
+            System.setOut(new PrintStream(printed));
+            new CmmCompiler().compile(CharStreams.fromString(program.getText()));
+            System.setOut(out);
+            ArrayList<String> actual = new ArrayList<>(Arrays.asList(printed.toString().split("\n")));
+            if (program.getDiagnostics().isEmpty())
+                actual.remove("Compilation successful");
+            actual.remove("");
+            boolean ok = actual.equals(program.getDiagnostics());
+            if (!ok)
+                failures += 1;
+            System.out.printf("diagnostics seed=%-3d expected %-3d %s%n", seed, program.getDiagnostics().size(), ok ? "ok" : "MISMATCH " + actual);
+        }
+    }
+
+    private static void scaling(String axis, double maxExponent, IntFunction<ProgramGenerator> shape) {
+        double[] nameMillis = new double[STEPS.length];
+        double[] typeMillis = new double[STEPS.length];
+        for (int i = 0; i < STEPS.length; i++) {
+            //Generated programs are valid, so the same tree can be analysed repeatedly
+            Program program = BenchmarkPrograms.parse(shape.apply(STEPS[i]).generate().getText());
+            nameMillis[i] = Double.MAX_VALUE;
+            typeMillis[i] = Double.MAX_VALUE;
+            for (int run = 0; run < RUNS; run++) {
+                SymbolTable.reset();
+                long start = System.nanoTime();
+                program.accept(new NameAnalyser());
+                long middle = System.nanoTime();
+                program.accept(new TypeChecker());
+                long end = System.nanoTime();
+                nameMillis[i] = Math.min(nameMillis[i], (middle - start) / 1e6);
+                typeMillis[i] = Math.min(typeMillis[i], (end - middle) / 1e6);
+            }
+        }
+        report(axis, "NameAnalyser", nameMillis, maxExponent);
+        report(axis, "TypeChecker", typeMillis, maxExponent);
+    }
+
+    //Growth exponent k in time ~ size^k between the smallest and largest step
+    private static void report(String axis, String phase, double[] millis, double maxExponent) {
+        int last = STEPS.length - 1;
+        double exponent = Math.log(millis[last] / millis[0]) / Math.log((double) STEPS[last] / STEPS[0]);
+        boolean ok = exponent <= maxExponent;
+        if (!ok)
+            failures += 1;
+        StringBuilder times = new StringBuilder();
+        for (double m : millis)
+            times.append(String.format("%9.2f", m));
+        System.out.printf("%-11s %-13s ms:%s  exponent %.2f %s%n", axis, phase, times, exponent, ok ? "ok" : "SUPERLINEAR");
+    }
+}
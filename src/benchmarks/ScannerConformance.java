@@ -0,0 +1,145 @@
+package benchmarks;
+
+import main.CmmCompiler;
+import main.scanner.CmmScanner;
+import main.scanner.ScannerTokenSource;
+import org.antlr.v4.runtime.*;
+import parsers.CmmLexer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+//Checks that CmmScanner gives the tokens CmmLexer gives: kind, text, line and column of every token, and the same
+//token recognition errors. The corpus is the samples, generated programs, and copies of the samples with random
+//characters dropped in, which covers comments left open, leading zeros and characters no token starts with.
+//The mutated copies are also compiled both ways, and every line of output has to match.
+//usage: ScannerConformance [sampleDir] [mutants]
+public class ScannerConformance {
+    private static final String[] MUTATIONS = {"@", "/*", "*/", "0", "00", "07", "->", "-", "==", "=", "\t", "\r",
+            "\u00e9", "\u20ac", "\n", "$", "mainx", "_9", "int", "'"};
+
+    private static int failures = 0;
+
+    public static void main(String[] args) throws IOException {
+        Path sampleDir = Paths.get(args.length > 0 ? args[0] : "samples");
+        int mutants = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+
+        List<String> samples = new ArrayList<>();
+        try (var files = Files.list(sampleDir)) {
+            for (Path file : (Iterable<Path>) files.sorted()::iterator) {
+                if (file.toString().endsWith(".cmm"))
+                    samples.add(Files.readString(file));
+            }
+        }
+        int files = 0;
+        for (String sample : samples) {
+            check("sample", sample);
+            files += 1;
+        }
+        for (int seed = 1; seed <= 10; seed++) {
+            ProgramGenerator generator = new ProgramGenerator(seed).setFunctions(20).setInvalid(seed % 2 == 0);
+            check("generated seed " + seed, generator.generate().getText());
+            files += 1;
+        }
+        Random random = new Random(39);
+        for (int i = 0; i < mutants && !samples.isEmpty(); i++) {
+            StringBuilder text = new StringBuilder(samples.get(random.nextInt(samples.size())));
+            for (int j = 0; j < 1 + random.nextInt(4); j++)
+                text.insert(random.nextInt(text.length() + 1), MUTATIONS[random.nextInt(MUTATIONS.length)]);
+            check("mutant " + i, text.toString());
+            compareCompiles("mutant " + i, text.toString());
+            files += 1;
+        }
+        System.out.println(files + " files, " + failures + " differences");
+        if (failures > 0)
+            System.exit(1);
+    }
+
+    private static void check(String name, String text) {
+        List<String> expectedErrors = new ArrayList<>();
+        CmmLexer lexer = new CmmLexer(CharStreams.fromString(text));
+        lexer.removeErrorListeners();
+        lexer.addErrorListener(collect(expectedErrors));
+        List<? extends Token> expected = lexer.getAllTokens();
+
+        List<String> actualErrors = new ArrayList<>();
+        CmmScanner scanner = new CmmScanner(text.getBytes(StandardCharsets.UTF_8), name);
+        scanner.setErrorListener(collect(actualErrors));
+        //getAllTokens stops before EOF, so the scanner's EOF is left out as well
+        int count = scanner.scan() - 1;
+
+        if (count != expected.size())
+            fail(name, "token count " + count + " against " + expected.size());
+        for (int i = 0; i < Math.min(count, expected.size()); i++) {
+            Token token = expected.get(i);
+            if (token.getType() != scanner.kind(i) || !token.getText().equals(scanner.text(i))
+                    || token.getLine() != scanner.line(i) || token.getCharPositionInLine() != scanner.column(i)) {
+                fail(name, "token " + i + " is " + describe(scanner.kind(i), scanner.text(i), scanner.line(i), scanner.column(i))
+                        + " against " + describe(token.getType(), token.getText(), token.getLine(), token.getCharPositionInLine()));
+                return;
+            }
+        }
+        if (!actualErrors.equals(expectedErrors))
+            fail(name, "errors " + actualErrors + " against " + expectedErrors);
+
+        //The EOF token is the one the parser gets to see too
+        ScannerTokenSource source = new ScannerTokenSource(scanner);
+        Token eof;
+        do {
+            eof = source.nextToken();
+        } while (eof.getType() != Token.EOF);
+        Token expectedEof = lexer.nextToken();
+        if (eof.getLine() != expectedEof.getLine() || eof.getCharPositionInLine() != expectedEof.getCharPositionInLine())
+            fail(name, "EOF at " + eof.getLine() + ":" + eof.getCharPositionInLine()
+                    + " against " + expectedEof.getLine() + ":" + expectedEof.getCharPositionInLine());
+    }
+
+    private static void compareCompiles(String name, String text) {
+        String expected = compile(text, false);
+        String actual = compile(text, true);
+        if (!actual.equals(expected))
+            fail(name, "compiler output\n" + actual + "against\n" + expected);
+    }
+
+    private static String compile(String text, boolean scanner) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        PrintStream out = new PrintStream(bytes, true);
+        CmmCompiler compiler = new CmmCompiler(out, out);
+        compiler.setRecordStats(false);
+        compiler.setScanner(scanner);
+        try {
+            compiler.compile(CharStreams.fromString(text));
+        } catch (RuntimeException e) {
+            //The grammar's actions throw on some broken input; both lexers have to lead to the same one
+            out.println(e.getClass().getName());
+        }
+        return bytes.toString(StandardCharsets.UTF_8);
+    }
+
+    private static ANTLRErrorListener collect(List<String> errors) {
+        return new BaseErrorListener() {
+            @Override
+            public void syntaxError(Recognizer<?, ?> recognizer, Object offendingSymbol, int line,
+                                    int charPositionInLine, String msg, RecognitionException e) {
+                errors.add(line + ":" + charPositionInLine + " " + msg);
+            }
+        };
+    }
+
+    private static String describe(int kind, String text, int line, int column) {
+        return CmmLexer.VOCABULARY.getDisplayName(kind) + " '" + text + "' at " + line + ":" + column;
+    }
+
+    private static void fail(String name, String message) {
+        failures += 1;
+        System.out.println(name + ": " + message);
+    }
+}
@@ -0,0 +1,57 @@
+package benchmarks;
+
+import main.scanner.CmmScanner;
+import main.scanner.ScannerTokenSource;
+import org.antlr.v4.runtime.CharStreams;
+import org.antlr.v4.runtime.CommonTokenStream;
+import parsers.CmmLexer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+//Lexing throughput on a generated file: the generated CmmLexer filling a CommonTokenStream, CmmScanner producing
+//packed tokens only, and CmmScanner behind ScannerTokenSource filling a CommonTokenStream, which is what the parser
+//gets with --scanner. The CharStream and byte array are built outside the timed part.
+//usage: ScannerThroughput [functions] [runs]
+public class ScannerThroughput {
+    private interface Lex {
+        int run();
+    }
+
+    public static void main(String[] args) {
+        int functions = args.length > 0 ? Integer.parseInt(args[0]) : 400;
+        int runs = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+        String text = new ProgramGenerator(39).setStructs(20).setFunctions(functions).setStatements(40)
+                .generate().getText();
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        System.out.printf("%d lines, %.2f MB%n", text.split("\n").length, bytes.length / 1e6);
+
+        run("CmmLexer", runs, bytes.length, () -> {
+            CommonTokenStream tokens = new CommonTokenStream(new CmmLexer(CharStreams.fromString(text)));
+            tokens.fill();
+            return tokens.size();
+        });
+        run("CmmScanner, packed", runs, bytes.length, () -> new CmmScanner(bytes, "generated").scan());
+        run("CmmScanner, tokens", runs, bytes.length, () -> {
+            CommonTokenStream tokens = new CommonTokenStream(new ScannerTokenSource(new CmmScanner(bytes, "generated")));
+            tokens.fill();
+            return tokens.size();
+        });
+    }
+
+    private static void run(String name, int runs, int size, Lex lex) {
+        int tokens = 0;
+        for (int i = 0; i < runs; i++)
+            tokens = lex.run();
+        long[] times = new long[runs];
+        for (int i = 0; i < runs; i++) {
+            long start = System.nanoTime();
+            lex.run();
+            times[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(times);
+        double millis = times[runs / 2] / 1e6;
+        System.out.printf("%-20s %8.2f ms p50  %7.1f MB/s  %6.2f M tokens/s  (%d tokens)%n",
+                name, millis, size / 1e3 / millis, tokens / 1e3 / millis, tokens);
+    }
+}
@@ -0,0 +1,98 @@
+package benchmarks;
+
+import main.ast.nodes.Program;
+import main.ast.nodes.declaration.struct.StructDeclaration;
+import main.symbolTable.StructLayout;
+import main.symbolTable.SymbolTable;
+import main.symbolTable.exceptions.ItemNotFoundException;
+import main.symbolTable.items.StructSymbolTableItem;
+import main.symbolTable.items.VariableSymbolTableItem;
+import main.visitor.name.NameAnalyser;
+import main.visitor.type.TypeChecker;
+
+import java.util.ArrayList;
+import java.util.Random;
+
+//Cost of resolving a.b: two SymbolTable lookups, struct then member, against an index into the struct's StructLayout.
+//Also times name analysis plus type checking of a program made of chained accesses, and counts its lookups.
+//usage: StructAccessResolution [functions] [chainDepth]
+public class StructAccessResolution {
+    private static final int ACCESSES = 1 << 16;
+    private static final int WARMUP = 20;
+    private static final int ROUNDS = 100;
+
+    public static void main(String[] args) throws ItemNotFoundException {
+        int functions = args.length > 0 ? Integer.parseInt(args[0]) : 500;
+        int depth = args.length > 1 ? Integer.parseInt(args[1]) : 6;
+        Program program = BenchmarkPrograms.parse(BenchmarkPrograms.structChains(functions, 20, depth));
+
+        for (int i = 0; i < WARMUP / 4; i++)
+            analyse(program);
+        long lookups = SymbolTable.getLookups();
+        long start = System.nanoTime();
+        for (int i = 0; i < WARMUP / 4; i++)
+            analyse(program);
+        double millis = (System.nanoTime() - start) / 1e6 / (WARMUP / 4);
+        System.out.printf("functions=%d chainDepth=%d: analysis %.2f ms/op, %d lookups/op%n", functions, depth,
+                millis, (SymbolTable.getLookups() - lookups) / (WARMUP / 4));
+
+        //The root of the last analysis is still this thread's, with every layout built under it
+        ArrayList<StructLayout> layouts = new ArrayList<>();
+        for (StructDeclaration struct : program.getStructs()) {
+            String key = StructSymbolTableItem.START_KEY + struct.getStructName().getName();
+            layouts.add(((StructSymbolTableItem) SymbolTable.root().getItem(key)).getLayout());
+        }
+        Random random = new Random(41);
+        StructLayout[] structs = new StructLayout[ACCESSES];
+        String[] members = new String[ACCESSES];
+        for (int i = 0; i < ACCESSES; i++) {
+            structs[i] = layouts.get(random.nextInt(layouts.size()));
+            members[i] = structs[i].getName(random.nextInt(structs[i].size()));
+        }
+
+        for (int i = 0; i < WARMUP; i++) {
+            byName(structs, members);
+            byLayout(structs, members);
+        }
+        start = System.nanoTime();
+        int checksum = 0;
+        for (int i = 0; i < ROUNDS; i++)
+            checksum += byName(structs, members);
+        double nameNanos = (double) (System.nanoTime() - start) / ROUNDS / ACCESSES;
+        start = System.nanoTime();
+        for (int i = 0; i < ROUNDS; i++)
+            checksum += byLayout(structs, members);
+        double layoutNanos = (double) (System.nanoTime() - start) / ROUNDS / ACCESSES;
+
+        System.out.println("structs=" + layouts.size() + " (checksum " + checksum + ")");
+        System.out.printf("two SymbolTable lookups  %7.2f ns/access%n", nameNanos);
+        System.out.printf("StructLayout index       %7.2f ns/access%n", layoutNanos);
+    }
+
+    private static void analyse(Program program) {
+        SymbolTable.reset();
+        program.accept(new NameAnalyser());
+        program.accept(new TypeChecker());
+    }
+
+    //What ExpressionTypeChecker did for every access before layouts
+    private static int byName(StructLayout[] structs, String[] members) throws ItemNotFoundException {
+        int found = 0;
+        for (int i = 0; i < structs.length; i++) {
+            String structName = structs[i].getStruct().getName();
+            StructSymbolTableItem struct = (StructSymbolTableItem) SymbolTable.root().getItem(StructSymbolTableItem.START_KEY + structName);
+            VariableSymbolTableItem member = (VariableSymbolTableItem) struct.getStructSymbolTable().getItem(VariableSymbolTableItem.START_KEY + members[i]);
+            found += member.getType() != null ? 1 : 0;
+        }
+        return found;
+    }
+
+    private static int byLayout(StructLayout[] structs, String[] members) {
+        int found = 0;
+        for (int i = 0; i < structs.length; i++) {
+            int index = structs[i].indexOf(members[i]);
+            found += structs[i].getType(index) != null ? 1 : 0;
+        }
+        return found;
+    }
+}
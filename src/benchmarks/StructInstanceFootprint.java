@@ -0,0 +1,123 @@
+package benchmarks;
+
+import main.ast.nodes.Program;
+import main.runtime.StructInstance;
+import main.runtime.StructShape;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+//Struct instances as a HashMap from member name to boxed value against StructInstance's flat layout: bytes
+//allocated per instance, and member reads and writes per second over many instances, the way a struct-heavy
+//program would touch them. usage: StructInstanceFootprint [instances] [rounds]
+public class StructInstanceFootprint {
+    private static final String STRUCT = "struct particle begin\n"
+            + "    int x\n    int y\n    int dx\n    int dy\n"
+            + "    bool alive\n    bool visible\n    bool hit\n"
+            + "    list #int trail\n"
+            + "end\n\n"
+            + "main() begin\n"
+            + "    struct particle p\n"
+            + "end\n";
+    private static final com.sun.management.ThreadMXBean bean =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    public static void main(String[] args) {
+        int instances = args.length > 0 ? Integer.parseInt(args[0]) : 100000;
+        int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 50;
+        Program program = BenchmarkPrograms.parse(STRUCT);
+        StructShape shape = StructShape.of(program).get("particle");
+        System.out.println(shape.getName() + ": " + shape.size() + " members, " + shape.getSlabWords()
+                + " slab words, " + shape.getRefs() + " references");
+
+        long before = allocated();
+        List<HashMap<String, Object>> maps = newMaps(shape, instances);
+        double mapBytes = (double) (allocated() - before) / instances;
+        before = allocated();
+        StructInstance[] flats = newFlats(shape, instances);
+        double flatBytes = (double) (allocated() - before) / instances;
+        System.out.printf("HashMap<String,Object>  %7.1f bytes/instance%n", mapBytes);
+        System.out.printf("StructInstance          %7.1f bytes/instance%n", flatBytes);
+
+        for (int i = 0; i < 5; i++) {
+            stepMaps(maps);
+            stepFlats(flats);
+        }
+        long start = System.nanoTime();
+        long checksum = 0;
+        for (int i = 0; i < rounds; i++)
+            checksum += stepMaps(maps);
+        double mapNanos = System.nanoTime() - start;
+        start = System.nanoTime();
+        for (int i = 0; i < rounds; i++)
+            checksum += stepFlats(flats);
+        double flatNanos = System.nanoTime() - start;
+        //Each step reads five members and writes three
+        double accesses = 8.0 * instances * rounds;
+        System.out.println("checksum " + checksum);
+        System.out.printf("HashMap<String,Object>  %7.1f M accesses/s%n", accesses / mapNanos * 1e3);
+        System.out.printf("StructInstance          %7.1f M accesses/s%n", accesses / flatNanos * 1e3);
+    }
+
+    private static long allocated() {
+        return bean.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    private static List<HashMap<String, Object>> newMaps(StructShape shape, int instances) {
+        List<HashMap<String, Object>> maps = new ArrayList<>(instances);
+        for (int i = 0; i < instances; i++) {
+            HashMap<String, Object> map = new HashMap<>();
+            for (int m = 0; m < shape.size(); m++) {
+                byte kind = shape.getKind(m);
+                map.put(shape.getMember(m), kind == StructShape.INT ? (Object) (i * 31 + m) : kind == StructShape.BOOL ? (Object) true : null);
+            }
+            maps.add(map);
+        }
+        return maps;
+    }
+
+    private static StructInstance[] newFlats(StructShape shape, int instances) {
+        StructInstance[] flats = new StructInstance[instances];
+        for (int i = 0; i < instances; i++) {
+            StructInstance flat = shape.newInstance();
+            for (int m = 0; m < shape.size(); m++) {
+                if (shape.getKind(m) == StructShape.INT)
+                    flat.setInt(m, i * 31 + m);
+                else if (shape.getKind(m) == StructShape.BOOL)
+                    flat.setBool(m, true);
+            }
+            flats[i] = flat;
+        }
+        return flats;
+    }
+
+    //x = x + dx; y = y + dy; hit = alive & x > y
+    private static long stepMaps(List<HashMap<String, Object>> maps) {
+        long sum = 0;
+        for (HashMap<String, Object> p : maps) {
+            int x = (Integer) p.get("x") + (Integer) p.get("dx");
+            int y = (Integer) p.get("y") + (Integer) p.get("dy");
+            p.put("x", x);
+            p.put("y", y);
+            p.put("hit", (Boolean) p.get("alive") && x > y);
+            sum += x;
+        }
+        return sum;
+    }
+
+    //Member indices as the type checker would have put them on the StructAccess nodes
+    private static long stepFlats(StructInstance[] flats) {
+        long sum = 0;
+        for (StructInstance p : flats) {
+            int x = p.getInt(0) + p.getInt(2);
+            int y = p.getInt(1) + p.getInt(3);
+            p.setInt(0, x);
+            p.setInt(1, y);
+            p.setBool(6, p.getBool(4) && x > y);
+            sum += x;
+        }
+        return sum;
+    }
+}
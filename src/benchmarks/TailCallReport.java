@@ -0,0 +1,84 @@
+package benchmarks;
+
+import main.ast.nodes.Program;
+import main.visitor.FusedTraversal;
+import main.visitor.optimize.TailCallMarker;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+
+//Self tail calls TailCallMarker finds among each input's returns, ending with BenchmarkPrograms.tailCalls. There is
+//no backend to run Cmm, so the walk function of that program then runs as Java twice: as plain recursion, the way
+//a backend mapping Cmm calls to Java calls would run it, and in the shape a marked tail call compiles to
+//(arguments into temporaries, then the parameters, then a jump to the start).
+//usage: TailCallReport [sampleDir] [functions] [depth]
+public class TailCallReport {
+    private static final int ROUNDS = 5;
+    private static final int SHALLOW = 2000;
+
+    public static void main(String[] args) throws IOException {
+        int functions = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+        int depth = args.length > 2 ? Integer.parseInt(args[2]) : 10_000_000;
+
+        BenchmarkPrograms.inputs(Paths.get(args.length > 0 ? args[0] : "samples"), functions)
+                .forEach(TailCallReport::report);
+        report("tailCalls " + functions, BenchmarkPrograms.tailCalls(functions));
+
+        int[] list = new int[depth];
+        for (int i = 0; i < depth; i++)
+            list[i] = i % 7;
+        try {
+            System.out.printf("walk %d deep, recursive: %d%n", depth, walk(list, 0, 0));
+        } catch (StackOverflowError e) {
+            System.out.printf("walk %d deep, recursive: stack overflow%n", depth);
+        }
+        long start = System.nanoTime();
+        int sum = walkLoop(list, 0, 0);
+        System.out.printf("walk %d deep, as a loop: %d  (%.2f ns/call)%n", depth, sum, (double) (System.nanoTime() - start) / depth);
+
+        //Both shapes at a depth recursion survives, many times over, to compare the cost of a call
+        int[] shallow = new int[SHALLOW];
+        long recursive = 0, loop = 0;
+        for (int round = 0; round < ROUNDS; round++) {
+            start = System.nanoTime();
+            for (int i = 0; i < depth / SHALLOW; i++)
+                sum += walk(shallow, 0, i);
+            recursive = System.nanoTime() - start;
+            start = System.nanoTime();
+            for (int i = 0; i < depth / SHALLOW; i++)
+                sum += walkLoop(shallow, 0, i);
+            loop = System.nanoTime() - start;
+        }
+        System.out.printf("walk %d deep x %d: recursive %.2f ns/call, as a loop %.2f ns/call  (%d)%n", SHALLOW,
+                depth / SHALLOW, (double) recursive / depth, (double) loop / depth, sum);
+    }
+
+    private static void report(String name, String text) {
+        Program program = BenchmarkPrograms.analysed(text);
+        TailCallMarker marker = new TailCallMarker();
+        FusedTraversal traversal = new FusedTraversal();
+        traversal.addHook(marker);
+        traversal.run(program);
+        System.out.printf("%-20s %6d returns, %6d tail calls%n", name, marker.getReturns(), marker.getTailCalls());
+    }
+
+    //int walk(list #int l, int i, int acc): if i < size(l) return walk(l, i + 1, acc + l[i]); return acc
+    private static int walk(int[] l, int i, int acc) {
+        if (i < l.length)
+            return walk(l, i + 1, acc + l[i]);
+        return acc;
+    }
+
+    private static int walkLoop(int[] l, int i, int acc) {
+        while (true) {
+            if (i < l.length) {
+                int nextI = i + 1;
+                int nextAcc = acc + l[i];
+                i = nextI;
+                acc = nextAcc;
+                continue;
+            }
+            return acc;
+        }
+    }
+}
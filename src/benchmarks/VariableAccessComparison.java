@@ -0,0 +1,73 @@
+package benchmarks;
+
+import main.ast.nodes.expression.Identifier;
+import main.symbolTable.SymbolTable;
+import main.symbolTable.exceptions.ItemAlreadyExistsException;
+import main.symbolTable.exceptions.ItemNotFoundException;
+import main.symbolTable.items.VariableSymbolTableItem;
+
+import java.util.Random;
+
+//Cost of reading a variable by name through the SymbolTable chain versus by slot from an array frame,
+//as an engine could after SlotResolver. usage: VariableAccessComparison [scopeDepth] [varsPerScope]
+public class VariableAccessComparison {
+    private static final int ACCESSES = 1 << 16;
+    private static final int WARMUP = 50;
+    private static final int ROUNDS = 200;
+
+    public static void main(String[] args) throws ItemAlreadyExistsException, ItemNotFoundException {
+        int depth = args.length > 0 ? Integer.parseInt(args[0]) : 4;
+        int vars = args.length > 1 ? Integer.parseInt(args[1]) : 8;
+
+        SymbolTable scope = null;
+        for (int d = 0; d < depth; d++) {
+            scope = new SymbolTable(scope);
+            for (int v = 0; v < vars; v++)
+                scope.put(new VariableSymbolTableItem(new Identifier("v" + d + "_" + v)));
+        }
+        Object[] frame = new Object[depth * vars];
+        for (int i = 0; i < frame.length; i++)
+            frame[i] = new VariableSymbolTableItem(new Identifier("v" + i));
+
+        Random random = new Random(42);
+        String[] keys = new String[ACCESSES];
+        int[] slots = new int[ACCESSES];
+        for (int i = 0; i < ACCESSES; i++) {
+            int d = random.nextInt(depth), v = random.nextInt(vars);
+            keys[i] = VariableSymbolTableItem.START_KEY + "v" + d + "_" + v;
+            slots[i] = d * vars + v;
+        }
+
+        for (int i = 0; i < WARMUP; i++) {
+            byName(scope, keys);
+            bySlot(frame, slots);
+        }
+        long start = System.nanoTime();
+        int checksum = 0;
+        for (int i = 0; i < ROUNDS; i++)
+            checksum += byName(scope, keys);
+        double nameNanos = (double) (System.nanoTime() - start) / ROUNDS / ACCESSES;
+        start = System.nanoTime();
+        for (int i = 0; i < ROUNDS; i++)
+            checksum += bySlot(frame, slots);
+        double slotNanos = (double) (System.nanoTime() - start) / ROUNDS / ACCESSES;
+
+        System.out.println("scopeDepth=" + depth + " varsPerScope=" + vars + " (checksum " + checksum + ")");
+        System.out.printf("SymbolTable.getItem  %7.2f ns/access%n", nameNanos);
+        System.out.printf("frame[slot]          %7.2f ns/access%n", slotNanos);
+    }
+
+    private static int byName(SymbolTable scope, String[] keys) throws ItemNotFoundException {
+        int found = 0;
+        for (String key : keys)
+            found += scope.getItem(key) != null ? 1 : 0;
+        return found;
+    }
+
+    private static int bySlot(Object[] frame, int[] slots) {
+        int found = 0;
+        for (int slot : slots)
+            found += frame[slot] != null ? 1 : 0;
+        return found;
+    }
+}
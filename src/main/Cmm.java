@@ -1,13 +1,108 @@
 package main;
 
+import main.diagnostics.DiagnosticWriter;
+import main.diagnostics.JsonLinesDiagnosticWriter;
+import main.diagnostics.SarifDiagnosticWriter;
+import main.diagnostics.TextDiagnosticWriter;
 import org.antlr.v4.runtime.CharStream;
 import org.antlr.v4.runtime.CharStreams;
+
+import java.io.BufferedOutputStream;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.PrintStream;
+import java.util.Arrays;
+import java.util.List;
 
+//usage: Cmm [--stats] [--format text|jsonl|sarif] [--max-errors n] [--recover] [--scanner] [--parse-threads n]
+//           [--name-threads n] [--optimize] [--memoize] [--memoize-functions f,g] file
+//--stats prints per-phase timing and allocation as JSON on stderr
+//--format picks how diagnostics are written to stdout, text being the original "Line n: message" lines
+//--max-errors stops analysis once n name or type errors have been reported
+//--recover reports every syntax error, then name and type errors in the declarations around them
+//--scanner lexes with the hand-written CmmScanner rather than the generated lexer
+//--parse-threads parses top-level declarations on n threads, falling back to a serial parse on any doubt
+//--name-threads name-analyses function and main bodies on n threads; diagnostics come out in the same order
+//--optimize runs the optimization analyses over the checked tree, without changing the output
+//--memoize also marks pure recursive functions of ints and bools for memoization; --memoize-functions marks the
+//listed functions instead, where they qualify. Either implies --optimize
+//-Dcmm.stats=off stops recording stats at all, including the JFR events; see utilities/startup
 public class Cmm {
+    private static final int OUTPUT_BUFFER = 1 << 16;
+
     public static void main(String[] args) throws IOException {
-        CharStream reader = CharStreams.fromFileName(args[0]);
-        CmmCompiler cmmCompiler = new CmmCompiler();
-        cmmCompiler.compile(reader);
+        boolean printStats = false;
+        String format = "text";
+        int maxErrors = Integer.MAX_VALUE;
+        boolean recover = false;
+        boolean scanner = false;
+        int parseThreads = 1;
+        int nameThreads = 1;
+        boolean optimize = false;
+        boolean memoize = false;
+        List<String> memoizeFunctions = null;
+        String fileName = null;
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--stats"))
+                printStats = true;
+            else if (args[i].equals("--format"))
+                format = args[++i];
+            else if (args[i].equals("--max-errors"))
+                maxErrors = Integer.parseInt(args[++i]);
+            else if (args[i].equals("--recover"))
+                recover = true;
+            else if (args[i].equals("--scanner"))
+                scanner = true;
+            else if (args[i].equals("--parse-threads"))
+                parseThreads = Integer.parseInt(args[++i]);
+            else if (args[i].equals("--name-threads"))
+                nameThreads = Integer.parseInt(args[++i]);
+            else if (args[i].equals("--optimize"))
+                optimize = true;
+            else if (args[i].equals("--memoize"))
+                memoize = optimize = true;
+            else if (args[i].equals("--memoize-functions")) {
+                memoizeFunctions = Arrays.asList(args[++i].split(","));
+                optimize = true;
+            }
+            else
+                fileName = args[i];
+        }
+        PrintStream out = new PrintStream(new BufferedOutputStream(new FileOutputStream(FileDescriptor.out), OUTPUT_BUFFER), false);
+        DiagnosticWriter writer;
+        switch (format) {
+            case "jsonl":
+                writer = new JsonLinesDiagnosticWriter(out);
+                break;
+            case "sarif":
+                writer = new SarifDiagnosticWriter(out);
+                break;
+            case "text":
+                writer = new TextDiagnosticWriter(out, System.err);
+                break;
+            default:
+                System.err.println("unknown format " + format + ", expected text, jsonl or sarif");
+                System.exit(2);
+                return;
+        }
+
+        CharStream reader = CharStreams.fromFileName(fileName);
+        CmmCompiler cmmCompiler = new CmmCompiler(writer);
+        cmmCompiler.setRecordStats(printStats || !"off".equals(System.getProperty("cmm.stats")));
+        cmmCompiler.setMaxErrors(maxErrors);
+        cmmCompiler.setRecover(recover);
+        cmmCompiler.setScanner(scanner);
+        cmmCompiler.setParseThreads(parseThreads);
+        cmmCompiler.setNameThreads(nameThreads);
+        cmmCompiler.setOptimize(optimize);
+        cmmCompiler.setMemoize(memoize);
+        cmmCompiler.setMemoizeFunctions(memoizeFunctions);
+        int exitStatus = cmmCompiler.compile(reader);
+        out.flush();
+        if (printStats)
+            System.err.println(cmmCompiler.getStats().toJson());
+        if (exitStatus != 0)
+            System.exit(exitStatus);
     }
 }
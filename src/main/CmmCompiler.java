@@ -1,39 +1,248 @@
 package main;
 
+import main.compileError.syntaxError.SyntaxError;
+import main.diagnostics.DiagnosticWriter;
+import main.diagnostics.ErrorLimitReached;
+import main.diagnostics.TextDiagnosticWriter;
+import main.parse.ParallelParser;
+import main.recovery.RecoveringParser;
+import main.scanner.CmmScanner;
+import main.scanner.ScannerTokenSource;
+import main.stats.CompileStats;
+import main.symbolTable.SymbolTable;
 import main.visitor.*;
 import main.visitor.name.*;
+import main.visitor.optimize.*;
+import main.visitor.resolve.*;
 import main.visitor.type.*;
 import parsers.*;
 import main.ast.nodes.Program;
 import org.antlr.v4.runtime.*;
+import org.antlr.v4.runtime.misc.Interval;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
 import java.util.*;
 
 public class CmmCompiler {
-    public void compile(CharStream textStream) {
-        CmmLexer cmmLexer = new CmmLexer(textStream);
-        CommonTokenStream tokenStream = new CommonTokenStream(cmmLexer);
-        CmmParser cmmParser = new CmmParser(tokenStream);
-        Program program = cmmParser.cmm().cmmProgram;
-        ErrorReporter errorReporter = new ErrorReporter();
+    private final DiagnosticWriter writer;
+    private CompileStats stats;
+    private boolean recordStats = true;
+    private int maxErrors = ErrorReporter.NO_LIMIT;
+    private boolean recover = false;
+    private boolean scanner = false;
+    private int parseThreads = 1;
+    private int nameThreads = 1;
+    private boolean optimize = false;
+    private boolean memoize = false;
+    private List<String> memoizeFunctions;
+
+    public CmmCompiler() {
+        this(System.out, System.err);
+    }
+
+    //Diagnostics go to out and syntax errors to err, so concurrent compiles can each keep their own
+    public CmmCompiler(PrintStream out, PrintStream err) {
+        this(new TextDiagnosticWriter(out, err));
+    }
+
+    public CmmCompiler(DiagnosticWriter writer) {
+        this.writer = writer;
+    }
+
+    //Off skips the ThreadMXBean and JFR work, and the class loading behind it, which matters for short cold runs
+    public void setRecordStats(boolean recordStats) {
+        this.recordStats = recordStats;
+    }
+
+    //Name and type errors only; analysis stops at the declaration where the cap is reached
+    public void setMaxErrors(int maxErrors) {
+        this.maxErrors = maxErrors;
+    }
 
-        NameAnalyser nameAnalyser = new NameAnalyser();
+    //On parses declaration by declaration, reports every syntax error and still runs name and type analysis
+    //on what could be parsed. See RecoveringParser; the compile fails if there was any syntax error.
+    public void setRecover(boolean recover) {
+        this.recover = recover;
+    }
+
+    //On lexes with the hand-written CmmScanner instead of the generated CmmLexer; the tokens are the same
+    public void setScanner(boolean scanner) {
+        this.scanner = scanner;
+    }
+
+    //Above 1, top-level declarations are parsed on that many threads; see ParallelParser for when it falls back
+    public void setParseThreads(int parseThreads) {
+        this.parseThreads = parseThreads;
+    }
+
+    //Above 1, function and main bodies are name-analysed on that many threads once the globals are in place
+    public void setNameThreads(int nameThreads) {
+        this.nameThreads = nameThreads;
+    }
+
+    //On runs the analyses a backend would use after slot resolution, annotating the tree; output is unchanged
+    public void setOptimize(boolean optimize) {
+        this.optimize = optimize;
+    }
+
+    //On marks pure recursive functions of ints and bools for memoization in the optimize phase; see Memoizer
+    public void setMemoize(boolean memoize) {
+        this.memoize = memoize;
+    }
+
+    //Marks exactly these functions for memoization instead, where they qualify
+    public void setMemoizeFunctions(List<String> memoizeFunctions) {
+        this.memoizeFunctions = memoizeFunctions;
+    }
+
+    public CompileStats getStats() {
+        return stats;
+    }
+
+    public int compile(CharStream textStream) {
+        stats = new CompileStats(recordStats);
+        long lookups = SymbolTable.getLookups();
+        long pushes = SymbolTable.getPushes();
+        writer.begin(textStream.getSourceName());
+        try {
+            int exitStatus = compile(textStream, stats);
+            writer.finish(exitStatus == 0, false);
+            return exitStatus;
+        } catch (ErrorLimitReached e) {
+            writer.finish(false, true);
+            return 1;
+        } finally {
+            stats.setLookups(SymbolTable.getLookups() - lookups);
+            stats.setScopePushes(SymbolTable.getPushes() - pushes);
+            stats.commitEvent();
+            SymbolTable.reset();
+        }
+    }
+
+    private int compile(CharStream textStream, CompileStats stats) {
+        Program program = null;
+        int syntaxErrors = 0;
+        if (recover) {
+            //Lexing happens per declaration inside the parse, so there is no separate lex phase
+            stats.startPhase("parse");
+            RecoveringParser recoveringParser = new RecoveringParser();
+            program = recoveringParser.parse(text(textStream));
+            stats.endPhase();
+            for (SyntaxError error : recoveringParser.getSyntaxErrors())
+                writer.syntaxError(error.getLine(), error.getColumn(), error.getDescription());
+            syntaxErrors = recoveringParser.getSyntaxErrors().size();
+        } else {
+            if (parseThreads > 1) {
+                stats.startPhase("parallelParse");
+                program = new ParallelParser(parseThreads).parse(text(textStream));
+                stats.endPhase();
+            }
+            if (program == null)
+                program = parse(textStream, stats);
+        }
+
+        ErrorReporter errorReporter = new ErrorReporter(writer);
+        errorReporter.setMaxErrors(maxErrors);
+        NodeCounter nodeCounter = new NodeCounter();
+        FusedTraversal reporting = new FusedTraversal();
+        reporting.addHook(errorReporter);
+        reporting.addHook(nodeCounter);
+
+        stats.startPhase("nameAnalysis");
+        NameAnalyser nameAnalyser = new NameAnalyser(nameThreads);
+        nameAnalyser.setDeclarationTraversal(reporting);
         program.accept(nameAnalyser);
+        stats.endPhase();
+        //The reporting walk covers the whole tree once per pass, so count during the first one only
+        stats.setNodes(nodeCounter.getCount());
 
-        int numberOfErrors = program.accept(errorReporter);
-        if(numberOfErrors > 0)
-            System.exit(1);
+        int numberOfErrors = errorReporter.flushNumberOfErrors();
+        if(numberOfErrors > 0) {
+            stats.addNestedPhase("errorReport", reporting.getNanos());
+            return 1;
+        }
 
+        stats.startPhase("typeCheck");
         TypeChecker typeChecker = new TypeChecker();
+        typeChecker.setDeclarationTraversal(reporting);
         program.accept(typeChecker);
+        stats.endPhase();
+        stats.addNestedPhase("errorReport", reporting.getNanos());
+
+        numberOfErrors = errorReporter.flushNumberOfErrors();
+        if(numberOfErrors > 0 || syntaxErrors > 0)
+            return 1;
+
+        stats.startPhase("slotResolution");
+        SlotResolver slotResolver = new SlotResolver();
+        program.accept(slotResolver);
+        stats.endPhase();
 
-        numberOfErrors = program.accept(errorReporter);
-        if(numberOfErrors > 0)
-            System.exit(1);
+        if (optimize) {
+            stats.startPhase("optimize");
+            FusedTraversal optimizations = new FusedTraversal();
+            EffectAnalyser effectAnalyser = new EffectAnalyser();
+            //Post hooks run in reverse, so a pass comes before the analyses it reads at the end of the program
+            optimizations.addHook(new EscapeAnalyser());
+            optimizations.addHook(new BoundsCheckEliminator());
+            optimizations.addHook(new TailCallMarker());
+            optimizations.addHook(new LoopInvariantHoister(effectAnalyser));
+            optimizations.addHook(new CommonSubexpressionEliminator(effectAnalyser));
+            if (memoize || memoizeFunctions != null)
+                optimizations.addHook(new Memoizer(effectAnalyser, memoizeFunctions));
+            optimizations.addHook(effectAnalyser);
+            optimizations.addHook(new FptrDevirtualizer());
+            optimizations.run(program);
+            stats.endPhase();
+        }
 
-        System.out.println("Compilation successful");
+        return 0;
 
 //        ASTTreePrinter astTreePrinter = new ASTTreePrinter();
 //        program.accept(astTreePrinter);
 
     }
+
+    private Program parse(CharStream textStream, CompileStats stats) {
+        stats.startPhase("lex");
+        CommonTokenStream tokenStream;
+        if (scanner) {
+            CmmScanner cmmScanner = new CmmScanner(text(textStream).getBytes(StandardCharsets.UTF_8), textStream.getSourceName());
+            cmmScanner.setErrorListener(syntaxErrorListener());
+            tokenStream = new CommonTokenStream(new ScannerTokenSource(cmmScanner));
+        } else {
+            CmmLexer cmmLexer = new CmmLexer(textStream);
+            reportSyntaxErrors(cmmLexer);
+            tokenStream = new CommonTokenStream(cmmLexer);
+        }
+        tokenStream.fill();
+        stats.endPhase();
+
+        stats.startPhase("parse");
+        CmmParser cmmParser = new CmmParser(tokenStream);
+        reportSyntaxErrors(cmmParser);
+        Program program = cmmParser.cmm().cmmProgram;
+        stats.endPhase();
+        return program;
+    }
+
+    private static String text(CharStream textStream) {
+        return textStream.getText(Interval.of(0, textStream.size() - 1));
+    }
+
+    //Replaces ANTLR's ConsoleErrorListener, which always writes to System.err
+    private void reportSyntaxErrors(Recognizer<?, ?> recognizer) {
+        recognizer.removeErrorListeners();
+        recognizer.addErrorListener(syntaxErrorListener());
+    }
+
+    private ANTLRErrorListener syntaxErrorListener() {
+        return new BaseErrorListener() {
+            @Override
+            public void syntaxError(Recognizer<?, ?> recognizer, Object offendingSymbol, int line,
+                                    int charPositionInLine, String msg, RecognitionException e) {
+                writer.syntaxError(line, charPositionInLine, msg);
+            }
+        };
+    }
 }
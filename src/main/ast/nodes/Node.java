@@ -33,6 +33,8 @@ public abstract class Node {
         return errors;
     }
 
+    public abstract NodeKind getKind();
+
     public abstract <T> T accept(IVisitor<T> visitor);
 
 }
@@ -0,0 +1,38 @@
+package main.ast.nodes;
+
+//One constant per concrete node class, used by KindSwitchVisitor to dispatch without double dispatch
+public enum NodeKind {
+    PROGRAM,
+
+    FUNCTION_DECLARATION,
+    MAIN_DECLARATION,
+    VARIABLE_DECLARATION,
+    STRUCT_DECLARATION,
+    SET_GET_VAR_DECLARATION,
+
+    ASSIGNMENT_STMT,
+    BLOCK_STMT,
+    CONDITIONAL_STMT,
+    FUNCTION_CALL_STMT,
+    DISPLAY_STMT,
+    RETURN_STMT,
+    LOOP_STMT,
+    VAR_DEC_STMT,
+    LIST_APPEND_STMT,
+    LIST_SIZE_STMT,
+    ERROR_STATEMENT,
+
+    BINARY_EXPRESSION,
+    UNARY_EXPRESSION,
+    FUNCTION_CALL,
+    IDENTIFIER,
+    LIST_ACCESS_BY_INDEX,
+    STRUCT_ACCESS,
+    LIST_SIZE,
+    LIST_APPEND,
+    EXPR_IN_PAR,
+    ERROR_EXPRESSION,
+
+    INT_VALUE,
+    BOOL_VALUE
+}
@@ -45,6 +45,11 @@ public class Program extends Node {
         return "Program";
     }
 
+    @Override
+    public NodeKind getKind() {
+        return NodeKind.PROGRAM;
+    }
+
     @Override
     public <R> R accept(IVisitor<R> visitor) {
         return visitor.visit(this);
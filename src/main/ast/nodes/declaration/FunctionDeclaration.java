@@ -1,5 +1,6 @@
 package main.ast.nodes.declaration;
 
+import main.ast.nodes.NodeKind;
 import main.ast.nodes.expression.Identifier;
 import main.ast.nodes.statement.Statement;
 import main.ast.types.*;
@@ -13,7 +14,8 @@ public class FunctionDeclaration extends Declaration {
     private ArrayList<VariableDeclaration> args = new ArrayList<>();
     private Statement body;
     private Type returnType;
-
+    private int frameSize;
+    private boolean memoized = false;
 
     public Identifier getFunctionName() {
         return functionName;
@@ -46,10 +48,30 @@ public class FunctionDeclaration extends Declaration {
         this.returnType = returnType;
     }
 
+    public int getFrameSize() {
+        return frameSize;
+    }
+    public void setFrameSize(int frameSize) {
+        this.frameSize = frameSize;
+    }
+
+    //Set by Memoizer: the backend may keep results of this function in a MemoCache keyed by its arguments
+    public boolean isMemoized() {
+        return memoized;
+    }
+    public void setMemoized(boolean memoized) {
+        this.memoized = memoized;
+    }
+
     @Override
     public String toString() {
         return "FunctionDeclaration_" + this.functionName.getName();
     }
+    @Override
+    public NodeKind getKind() {
+        return NodeKind.FUNCTION_DECLARATION;
+    }
+
     @Override
     public <T> T accept(IVisitor<T> visitor) {
         return visitor.visit(this);
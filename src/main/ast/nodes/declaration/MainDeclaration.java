@@ -1,11 +1,13 @@
 package main.ast.nodes.declaration;
 
+import main.ast.nodes.NodeKind;
 import main.ast.nodes.statement.Statement;
 import main.visitor.IVisitor;
 
 //line -> MAIN
 public class MainDeclaration extends Declaration{
     protected Statement body;
+    private int frameSize;
 
     public Statement getBody() {
         return body;
@@ -14,10 +16,22 @@ public class MainDeclaration extends Declaration{
         this.body = body;
     }
 
+    public int getFrameSize() {
+        return frameSize;
+    }
+    public void setFrameSize(int frameSize) {
+        this.frameSize = frameSize;
+    }
+
     @Override
     public String toString() {
         return "MainDeclaration";
     }
+    @Override
+    public NodeKind getKind() {
+        return NodeKind.MAIN_DECLARATION;
+    }
+
     @Override
     public <T> T accept(IVisitor<T> visitor) {
         return visitor.visit(this);
@@ -1,5 +1,6 @@
 package main.ast.nodes.declaration;
 
+import main.ast.nodes.NodeKind;
 import main.ast.nodes.expression.*;
 import main.ast.nodes.expression.values.*;
 import main.ast.types.*;
@@ -10,6 +11,7 @@ public class VariableDeclaration extends Declaration{
     private Identifier varName;
     private Type varType;
     private Expression defaultValue;
+    private int[] memberSlots;
 
     public VariableDeclaration(Identifier varName, Type varType) {
         this.varName = varName;
@@ -37,10 +39,24 @@ public class VariableDeclaration extends Declaration{
         this.defaultValue = defaultValue;
     }
 
+    //Frame slot of each member, by layout index, when EscapeAnalyser replaced this struct local with scalars;
+    //null when the struct is allocated. Members the body never touches have -1.
+    public int[] getMemberSlots() {
+        return memberSlots;
+    }
+    public void setMemberSlots(int[] memberSlots) {
+        this.memberSlots = memberSlots;
+    }
+
     @Override
     public String toString() {
         return "VarDeclaration_" + this.varName.getName();
     }
+    @Override
+    public NodeKind getKind() {
+        return NodeKind.VARIABLE_DECLARATION;
+    }
+
     @Override
     public <T> T accept(IVisitor<T> visitor) {
         return visitor.visit(this);
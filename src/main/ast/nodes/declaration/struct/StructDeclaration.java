@@ -1,5 +1,6 @@
 package main.ast.nodes.declaration.struct;
 
+import main.ast.nodes.NodeKind;
 import main.ast.nodes.declaration.*;
 import main.ast.nodes.expression.*;
 import main.ast.nodes.statement.Statement;
@@ -32,6 +33,11 @@ public class StructDeclaration extends Declaration {
         return "StructDeclaration_" + structName.getName();
     }
 
+    @Override
+    public NodeKind getKind() {
+        return NodeKind.STRUCT_DECLARATION;
+    }
+
     @Override
     public <T> T accept(IVisitor<T> visitor) {
         return visitor.visit(this);
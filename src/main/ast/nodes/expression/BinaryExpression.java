@@ -1,5 +1,6 @@
 package main.ast.nodes.expression;
 
+import main.ast.nodes.NodeKind;
 import main.ast.nodes.expression.operators.BinaryOperator;
 import main.visitor.IVisitor;
 
@@ -40,6 +41,11 @@ public class BinaryExpression extends Expression {
     public String toString() {
         return "BinaryExpression_" + this.binaryOperator.name();
     }
+    @Override
+    public NodeKind getKind() {
+        return NodeKind.BINARY_EXPRESSION;
+    }
+
     @Override
     public <T> T accept(IVisitor<T> visitor) {
         return visitor.visit(this);
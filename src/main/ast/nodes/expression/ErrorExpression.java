@@ -0,0 +1,23 @@
+package main.ast.nodes.expression;
+
+import main.ast.nodes.NodeKind;
+import main.visitor.IVisitor;
+
+//Stands in for an expression the parser could not build, see TreeRepair. Analysis passes skip it.
+public class ErrorExpression extends Expression {
+
+    @Override
+    public String toString() {
+        return "ErrorExpression";
+    }
+
+    @Override
+    public NodeKind getKind() {
+        return NodeKind.ERROR_EXPRESSION;
+    }
+
+    @Override
+    public <T> T accept(IVisitor<T> visitor) {
+        return visitor.visit(this);
+    }
+}
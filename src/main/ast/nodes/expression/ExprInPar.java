@@ -1,4 +1,5 @@
 package main.ast.nodes.expression;
+import main.ast.nodes.NodeKind;
 import main.visitor.IVisitor;
 
 import java.util.*;
@@ -23,6 +24,11 @@ public class ExprInPar extends Expression {
         return "ExprInPar";
     }
 
+    @Override
+    public NodeKind getKind() {
+        return NodeKind.EXPR_IN_PAR;
+    }
+
     @Override
     public <T> T accept(IVisitor<T> visitor) {
         return visitor.visit(this);
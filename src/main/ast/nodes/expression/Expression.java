@@ -2,6 +2,35 @@ package main.ast.nodes.expression;
 
 
 import main.ast.nodes.Node;
+import main.ast.nodes.statement.LoopStmt;
+import main.ast.types.Type;
 
 public abstract class Expression extends Node {
+    //Filled by the type checker, so later passes do not have to infer the type again
+    private Type type;
+    //Outermost loop this expression does not change in, so its value can be computed once per run of that loop
+    private LoopStmt invariantIn;
+    //Earlier expression of the same basic block with the same value, which can be kept instead of computing this one
+    private Expression sameAs;
+
+    public Type getType() {
+        return type;
+    }
+    public void setType(Type type) {
+        this.type = type;
+    }
+
+    public LoopStmt getInvariantIn() {
+        return invariantIn;
+    }
+    public void setInvariantIn(LoopStmt invariantIn) {
+        this.invariantIn = invariantIn;
+    }
+
+    public Expression getSameAs() {
+        return sameAs;
+    }
+    public void setSameAs(Expression sameAs) {
+        this.sameAs = sameAs;
+    }
 }
@@ -1,5 +1,7 @@
 package main.ast.nodes.expression;
 
+import main.ast.nodes.NodeKind;
+import main.ast.nodes.declaration.FunctionDeclaration;
 import main.visitor.IVisitor;
 import java.util.*;
 
@@ -7,6 +9,7 @@ import java.util.*;
 public class FunctionCall extends Expression {
     private Expression instance;
     private ArrayList<Expression> args = new ArrayList<>();
+    private FunctionDeclaration[] targets;
 
     public FunctionCall(Expression instance) {
         this.instance = instance;
@@ -35,10 +38,24 @@ public class FunctionCall extends Expression {
         this.args.add(arg);
     }
 
+    //Every function a call through a function pointer can reach, as FptrDevirtualizer found them: one target
+    //can be called directly, two behind a guard on the first. Null when the call is by name or not bounded.
+    public FunctionDeclaration[] getTargets() {
+        return targets;
+    }
+    public void setTargets(FunctionDeclaration[] targets) {
+        this.targets = targets;
+    }
+
     @Override
     public String toString() {
         return "FunctionCall";
     }
+    @Override
+    public NodeKind getKind() {
+        return NodeKind.FUNCTION_CALL;
+    }
+
     @Override
     public <T> T accept(IVisitor<T> visitor) {
         return visitor.visit(this);
@@ -1,10 +1,17 @@
 package main.ast.nodes.expression;
 
+import main.ast.nodes.NodeKind;
+import main.symbolTable.items.SymbolTableItem;
 import main.visitor.IVisitor;
 
 //line -> IDENTIFIER
 public class Identifier extends Expression {
     private String name;
+    private SymbolTableItem symbol;
+    private int depth = UNRESOLVED;
+    private int slot = UNRESOLVED;
+
+    public static final int UNRESOLVED = -1;
 
     public Identifier(String name) {
         this.name = name;
@@ -18,11 +25,42 @@ public class Identifier extends Expression {
         this.name = name;
     }
 
+    //Variable or function item this identifier resolved to during type checking
+    public SymbolTableItem getSymbol() {
+        return symbol;
+    }
+
+    public void setSymbol(SymbolTableItem symbol) {
+        this.symbol = symbol;
+    }
+
+    //Frame coordinates assigned by SlotResolver
+    public int getDepth() {
+        return depth;
+    }
+
+    public void setDepth(int depth) {
+        this.depth = depth;
+    }
+
+    public int getSlot() {
+        return slot;
+    }
+
+    public void setSlot(int slot) {
+        this.slot = slot;
+    }
+
     @Override
     public String toString() {
         return "Identifier_" + this.name;
     }
 
+    @Override
+    public NodeKind getKind() {
+        return NodeKind.IDENTIFIER;
+    }
+
     @Override
     public <T> T accept(IVisitor<T> visitor) {
         return visitor.visit(this);
@@ -1,11 +1,13 @@
 package main.ast.nodes.expression;
 
+import main.ast.nodes.NodeKind;
 import main.visitor.IVisitor;
 
 //line -> LBRACK before index
 public class ListAccessByIndex extends Expression {
     private Expression instance;
     private Expression index;
+    private boolean checkFree = false;
 
     public ListAccessByIndex(Expression instance, Expression index) {
         this.instance = instance;
@@ -28,11 +30,25 @@ public class ListAccessByIndex extends Expression {
         this.index = index;
     }
 
+    //Set by BoundsCheckEliminator when the index is proven to be within the list, so no bounds check is needed
+    public boolean isCheckFree() {
+        return checkFree;
+    }
+
+    public void setCheckFree(boolean checkFree) {
+        this.checkFree = checkFree;
+    }
+
     @Override
     public String toString() {
         return "ListAccessByIndex";
     }
 
+    @Override
+    public NodeKind getKind() {
+        return NodeKind.LIST_ACCESS_BY_INDEX;
+    }
+
     @Override
     public <T> T accept(IVisitor<T> visitor) {
         return visitor.visit(this);
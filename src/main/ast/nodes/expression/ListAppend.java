@@ -1,5 +1,6 @@
 package main.ast.nodes.expression;
 
+import main.ast.nodes.NodeKind;
 import main.visitor.IVisitor;
 
 public class ListAppend extends Expression{
@@ -24,6 +25,11 @@ public class ListAppend extends Expression{
         return "ListAppend";
     }
 
+    @Override
+    public NodeKind getKind() {
+        return NodeKind.LIST_APPEND;
+    }
+
     @Override
     public <T> T accept(IVisitor<T> visitor) {
         return visitor.visit(this);
@@ -1,5 +1,6 @@
 package main.ast.nodes.expression;
 
+import main.ast.nodes.NodeKind;
 import main.visitor.IVisitor;
 
 //line -> SIZE
@@ -20,6 +21,11 @@ public class ListSize extends Expression {
         return "ListSize";
     }
 
+    @Override
+    public NodeKind getKind() {
+        return NodeKind.LIST_SIZE;
+    }
+
     @Override
     public <T> T accept(IVisitor<T> visitor) {
         return visitor.visit(this);
@@ -1,10 +1,16 @@
 package main.ast.nodes.expression;
 
+import main.ast.nodes.NodeKind;
+import main.symbolTable.items.StructSymbolTableItem;
+import main.symbolTable.items.VariableSymbolTableItem;
 import main.visitor.IVisitor;
 
 public class StructAccess extends Expression {
     private Expression instance;
     private Identifier element;
+    private StructSymbolTableItem struct;
+    private VariableSymbolTableItem member;
+    private int memberIndex = -1;
 
     public StructAccess(Expression instance, Identifier element) {
         this.instance = instance;
@@ -27,11 +33,42 @@ public class StructAccess extends Expression {
         this.element = element;
     }
 
+    //Struct and member this access resolved to during type checking
+    public StructSymbolTableItem getStruct() {
+        return struct;
+    }
+
+    public void setStruct(StructSymbolTableItem struct) {
+        this.struct = struct;
+    }
+
+    public VariableSymbolTableItem getMember() {
+        return member;
+    }
+
+    public void setMember(VariableSymbolTableItem member) {
+        this.member = member;
+    }
+
+    //Index of the member in the struct's StructLayout, -1 when it was not resolved through one
+    public int getMemberIndex() {
+        return memberIndex;
+    }
+
+    public void setMemberIndex(int memberIndex) {
+        this.memberIndex = memberIndex;
+    }
+
     @Override
     public String toString() {
         return "StructAccess";
     }
 
+    @Override
+    public NodeKind getKind() {
+        return NodeKind.STRUCT_ACCESS;
+    }
+
     @Override
     public <T> T accept(IVisitor<T> visitor) {
         return visitor.visit(this);
@@ -1,5 +1,6 @@
 package main.ast.nodes.expression;
 
+import main.ast.nodes.NodeKind;
 import main.ast.nodes.expression.operators.UnaryOperator;
 import main.visitor.IVisitor;
 
@@ -34,6 +35,11 @@ public class UnaryExpression extends Expression{
         return "UnaryExpression_" + this.operator.name();
     }
 
+    @Override
+    public NodeKind getKind() {
+        return NodeKind.UNARY_EXPRESSION;
+    }
+
     @Override
     public <T> T accept(IVisitor<T> visitor) {
         return visitor.visit(this);
@@ -1,5 +1,6 @@
 package main.ast.nodes.expression.values.primitive;
 
+import main.ast.nodes.NodeKind;
 import main.ast.nodes.expression.values.Value;
 import main.visitor.IVisitor;
 
@@ -22,6 +23,11 @@ public class IntValue extends Value {
     public String toString() {
         return "IntValue_" + this.constant;
     }
+    @Override
+    public NodeKind getKind() {
+        return NodeKind.INT_VALUE;
+    }
+
     @Override
     public <T> T accept(IVisitor<T> visitor) {
         return visitor.visit(this);
@@ -1,5 +1,6 @@
 package main.ast.nodes.statement;
 
+import main.ast.nodes.NodeKind;
 import main.ast.nodes.expression.Expression;
 import main.visitor.IVisitor;
 
@@ -34,6 +35,11 @@ public class AssignmentStmt extends Statement{
         return "AssignmentStmt";
     }
 
+    @Override
+    public NodeKind getKind() {
+        return NodeKind.ASSIGNMENT_STMT;
+    }
+
     @Override
     public <T> T accept(IVisitor<T> visitor) {
         return visitor.visit(this);
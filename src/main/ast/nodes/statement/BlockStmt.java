@@ -1,5 +1,6 @@
 package main.ast.nodes.statement;
 
+import main.ast.nodes.NodeKind;
 import main.visitor.IVisitor;
 
 import java.util.ArrayList;
@@ -22,6 +23,11 @@ public class BlockStmt extends Statement{
     public String toString() {
         return "BlockStmt";
     }
+    @Override
+    public NodeKind getKind() {
+        return NodeKind.BLOCK_STMT;
+    }
+
     @Override
     public <T> T accept(IVisitor<T> visitor) {
         return visitor.visit(this);
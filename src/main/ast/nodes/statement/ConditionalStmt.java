@@ -1,5 +1,6 @@
 package main.ast.nodes.statement;
 
+import main.ast.nodes.NodeKind;
 import main.ast.nodes.expression.Expression;
 import main.visitor.IVisitor;
 
@@ -42,6 +43,11 @@ public class ConditionalStmt extends Statement{
         return "ConditionalStmt";
     }
 
+    @Override
+    public NodeKind getKind() {
+        return NodeKind.CONDITIONAL_STMT;
+    }
+
     @Override
     public <T> T accept(IVisitor<T> visitor) {
         return visitor.visit(this);
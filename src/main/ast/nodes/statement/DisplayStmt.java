@@ -1,5 +1,6 @@
 package main.ast.nodes.statement;
 
+import main.ast.nodes.NodeKind;
 import main.ast.nodes.expression.Expression;
 import main.visitor.IVisitor;
 
@@ -24,6 +25,11 @@ public class DisplayStmt extends Statement{
         return "DisplayStmt";
     }
 
+    @Override
+    public NodeKind getKind() {
+        return NodeKind.DISPLAY_STMT;
+    }
+
     @Override
     public <T> T accept(IVisitor<T> visitor) {
         return visitor.visit(this);
@@ -0,0 +1,23 @@
+package main.ast.nodes.statement;
+
+import main.ast.nodes.NodeKind;
+import main.visitor.IVisitor;
+
+//Stands in for a statement the parser could not build, see TreeRepair. Analysis passes skip it.
+public class ErrorStatement extends Statement {
+
+    @Override
+    public String toString() {
+        return "ErrorStatement";
+    }
+
+    @Override
+    public NodeKind getKind() {
+        return NodeKind.ERROR_STATEMENT;
+    }
+
+    @Override
+    public <T> T accept(IVisitor<T> visitor) {
+        return visitor.visit(this);
+    }
+}
@@ -1,5 +1,6 @@
 package main.ast.nodes.statement;
 
+import main.ast.nodes.NodeKind;
 import main.ast.nodes.expression.FunctionCall;
 import main.visitor.IVisitor;
 
@@ -24,6 +25,11 @@ public class FunctionCallStmt extends Statement{
         return "FunctionCallStmt";
     }
 
+    @Override
+    public NodeKind getKind() {
+        return NodeKind.FUNCTION_CALL_STMT;
+    }
+
     @Override
     public <T> T accept(IVisitor<T> visitor) {
         return visitor.visit(this);
@@ -1,5 +1,6 @@
 package main.ast.nodes.statement;
 
+import main.ast.nodes.NodeKind;
 import main.ast.nodes.expression.Expression;
 import main.ast.nodes.expression.ListAppend;
 import main.visitor.IVisitor;
@@ -19,6 +20,11 @@ public class ListAppendStmt extends Statement{
         return "AppendStmt";
     }
 
+    @Override
+    public NodeKind getKind() {
+        return NodeKind.LIST_APPEND_STMT;
+    }
+
     @Override
     public <T> T accept(IVisitor<T> visitor) {
         return visitor.visit(this);
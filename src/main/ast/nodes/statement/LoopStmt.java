@@ -1,12 +1,17 @@
 package main.ast.nodes.statement;
 
+import main.ast.nodes.NodeKind;
 import main.ast.nodes.expression.Expression;
 import main.visitor.IVisitor;
 
+import java.util.ArrayList;
+
 //line -> in do...while : do  , in while : while
 public class LoopStmt extends Statement {
     private Expression condition;
     private Statement body;
+    private boolean doWhile = false;
+    private ArrayList<Expression> invariants = new ArrayList<>();
 
     public Expression getCondition() {
         return condition;
@@ -22,11 +27,32 @@ public class LoopStmt extends Statement {
         this.body = body;
     }
 
+    //True for do...while, whose body runs once before the condition is first evaluated
+    public boolean isDoWhile() {
+        return doWhile;
+    }
+    public void setDoWhile(boolean doWhile) {
+        this.doWhile = doWhile;
+    }
+
+    //Expressions of the condition and body whose value does not change while the loop runs, outermost first
+    public ArrayList<Expression> getInvariants() {
+        return invariants;
+    }
+    public void addInvariant(Expression invariant) {
+        this.invariants.add(invariant);
+    }
+
     @Override
     public String toString() {
         return "LoopStmt";
     }
 
+    @Override
+    public NodeKind getKind() {
+        return NodeKind.LOOP_STMT;
+    }
+
     @Override
     public <T> T accept(IVisitor<T> visitor) {
         return visitor.visit(this);
@@ -1,11 +1,13 @@
 package main.ast.nodes.statement;
 
+import main.ast.nodes.NodeKind;
 import main.ast.nodes.expression.Expression;
 import main.visitor.IVisitor;
 
 //line -> RETURN
 public class ReturnStmt extends Statement{
     private Expression returnedExpr;
+    private boolean tailCall = false;
 
     public ReturnStmt() {
     }
@@ -18,11 +20,25 @@ public class ReturnStmt extends Statement{
         this.returnedExpr = returnedExpr;
     }
 
+    //Set by TailCallMarker: returns a call to the enclosing function itself, which can run as a jump to its start
+    public boolean isTailCall() {
+        return tailCall;
+    }
+
+    public void setTailCall(boolean tailCall) {
+        this.tailCall = tailCall;
+    }
+
     @Override
     public String toString() {
         return "ReturnStmt";
     }
 
+    @Override
+    public NodeKind getKind() {
+        return NodeKind.RETURN_STMT;
+    }
+
     @Override
     public <T> T accept(IVisitor<T> visitor) {
             return visitor.visit(this);
@@ -1,5 +1,6 @@
 package main.ast.nodes.statement;
 
+import main.ast.nodes.NodeKind;
 import main.ast.nodes.declaration.VariableDeclaration;
 import main.ast.nodes.expression.Identifier;
 import main.ast.types.Type;
@@ -15,6 +16,8 @@ public class SetGetVarDeclaration extends Statement {
     private Statement setterBody;
     private Statement getterBody;
     private VariableDeclaration curVar;
+    private int setterFrameSize;
+    private int getterFrameSize;
 
     public Identifier getVarName() {
         return varName;
@@ -54,6 +57,20 @@ public class SetGetVarDeclaration extends Statement {
         this.getterBody = body;
     }
 
+    public int getSetterFrameSize() {
+        return setterFrameSize;
+    }
+    public void setSetterFrameSize(int setterFrameSize) {
+        this.setterFrameSize = setterFrameSize;
+    }
+
+    public int getGetterFrameSize() {
+        return getterFrameSize;
+    }
+    public void setGetterFrameSize(int getterFrameSize) {
+        this.getterFrameSize = getterFrameSize;
+    }
+
     public VariableDeclaration getVarDec() {
         if (curVar == null) {
             curVar = new VariableDeclaration(varName, varType);
@@ -67,6 +84,11 @@ public class SetGetVarDeclaration extends Statement {
         return "SetGetVarDeclaration_" + varName.getName();
     }
 
+    @Override
+    public NodeKind getKind() {
+        return NodeKind.SET_GET_VAR_DECLARATION;
+    }
+
     @Override
     public <T> T accept(IVisitor<T> visitor) {
         return visitor.visit(this);
@@ -1,5 +1,6 @@
 package main.ast.nodes.statement;
 
+import main.ast.nodes.NodeKind;
 import main.ast.nodes.declaration.*;
 import main.visitor.IVisitor;
 import java.util.ArrayList;
@@ -19,6 +20,11 @@ public class VarDecStmt extends Statement{
     public String toString() {
         return "VarDecStmt";
     }
+    @Override
+    public NodeKind getKind() {
+        return NodeKind.VAR_DEC_STMT;
+    }
+
     @Override
     public <T> T accept(IVisitor<T> visitor) {
         return visitor.visit(this);
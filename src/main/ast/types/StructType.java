@@ -1,9 +1,11 @@
 package main.ast.types;
 
 import main.ast.nodes.expression.Identifier;
+import main.symbolTable.StructLayout;
 
 public class StructType extends Type {
     private Identifier structName;
+    private StructLayout layout;
 
     public StructType(Identifier structName) {
         this.structName = structName;
@@ -14,6 +16,15 @@ public class StructType extends Type {
         this.structName = structName;
     }
 
+    //Layout of the named struct, cached by the first access through this type
+    public StructLayout getLayout() {
+        return layout;
+    }
+
+    public void setLayout(StructLayout layout) {
+        this.layout = layout;
+    }
+
     @Override
     public String toString() {
         return "StructType_" + this.structName.getName();
@@ -9,6 +9,15 @@ public class CompileError extends Exception {
         this.message = message;
     }
 
+    public int getLine() {
+        return line;
+    }
+
+    //The message without its line prefix
+    public String getDescription() {
+        return message;
+    }
+
     public String getMessage() {
         return "Line " + line + ": " + message;
     }
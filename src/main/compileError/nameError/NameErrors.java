@@ -0,0 +1,35 @@
+package main.compileError.nameError;
+
+import main.compileError.CompileError;
+
+//Callers build errors through here so that only CompileError appears in their signatures and stack maps.
+//The verifier then has no reason to load the error classes, and they load on the first error reported instead.
+public class NameErrors {
+    public static CompileError cyclicDependency(int line, String structName) {
+        return new CyclicDependency(line, structName);
+    }
+
+    public static CompileError duplicateFunction(int line, String functionName) {
+        return new DuplicateFunction(line, functionName);
+    }
+
+    public static CompileError duplicateStruct(int line, String structName) {
+        return new DuplicateStruct(line, structName);
+    }
+
+    public static CompileError duplicateVar(int line, String varName) {
+        return new DuplicateVar(line, varName);
+    }
+
+    public static CompileError functionStructConflict(int line, String functionName) {
+        return new FunctionStructConflict(line, functionName);
+    }
+
+    public static CompileError varFunctionConflict(int line, String varName) {
+        return new VarFunctionConflict(line, varName);
+    }
+
+    public static CompileError varStructConflict(int line, String varName) {
+        return new VarStructConflict(line, varName);
+    }
+}
@@ -0,0 +1,17 @@
+package main.compileError.syntaxError;
+
+import main.compileError.CompileError;
+
+//A syntax error collected by RecoveringParser, message as ANTLR words it
+public class SyntaxError extends CompileError {
+    private final int column;
+
+    public SyntaxError(int line, int column, String message) {
+        super(line, message);
+        this.column = column;
+    }
+
+    public int getColumn() {
+        return column;
+    }
+}
@@ -0,0 +1,87 @@
+package main.compileError.typeError;
+
+import main.compileError.CompileError;
+
+//Callers build errors through here so that only CompileError appears in their signatures and stack maps.
+//The verifier then has no reason to load the error classes, and they load on the first error reported instead.
+public class TypeErrors {
+    public static CompileError accessByIndexOnNonList(int line) {
+        return new AccessByIndexOnNonList(line);
+    }
+
+    public static CompileError accessOnNonStruct(int line) {
+        return new AccessOnNonStruct(line);
+    }
+
+    public static CompileError appendToNonList(int line) {
+        return new AppendToNonList(line);
+    }
+
+    public static CompileError argsInFunctionCallNotMatchDefinition(int line) {
+        return new ArgsInFunctionCallNotMatchDefinition(line);
+    }
+
+    public static CompileError callOnNoneFptrType(int line) {
+        return new CallOnNoneFptrType(line);
+    }
+
+    public static CompileError cannotUseDefineVar(int line) {
+        return new CannotUseDefineVar(line);
+    }
+
+    public static CompileError cannotUseReturn(int line) {
+        return new CannotUseReturn(line);
+    }
+
+    public static CompileError cantUseValueOfVoidFunction(int line) {
+        return new CantUseValueOfVoidFunction(line);
+    }
+
+    public static CompileError conditionNotBool(int line) {
+        return new ConditionNotBool(line);
+    }
+
+    public static CompileError getSizeOfNonList(int line) {
+        return new GetSizeOfNonList(line);
+    }
+
+    public static CompileError leftSideNotLvalue(int line) {
+        return new LeftSideNotLvalue(line);
+    }
+
+    public static CompileError listIndexNotInt(int line) {
+        return new ListIndexNotInt(line);
+    }
+
+    public static CompileError missingReturnStatement(int line, String functionName) {
+        return new MissingReturnStatement(line, functionName);
+    }
+
+    public static CompileError newElementTypeNotMatchListType(int line) {
+        return new NewElementTypeNotMatchListType(line);
+    }
+
+    public static CompileError returnValueNotMatchFunctionReturnType(int line) {
+        return new ReturnValueNotMatchFunctionReturnType(line);
+    }
+
+    public static CompileError structMemberNotFound(int line, String structName, String varName) {
+        return new StructMemberNotFound(line, structName, varName);
+    }
+
+    public static CompileError structNotDeclared(int line, String structName) {
+        return new StructNotDeclared(line, structName);
+    }
+
+    public static CompileError unsupportedOperandType(int line, String operatorName) {
+        return new UnsupportedOperandType(line, operatorName);
+    }
+
+    public static CompileError unsupportedTypeForDisplay(int line) {
+        return new UnsupportedTypeForDisplay(line);
+    }
+
+    public static CompileError varNotDeclared(int line, String varName) {
+        return new VarNotDeclared(line, varName);
+    }
+}
@@ -0,0 +1,47 @@
+package main.daemon;
+
+import java.io.*;
+import java.net.SocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+//Sends one file to a running CmmDaemon and behaves like main.Cmm would: same output, same exit status.
+//usage: CmmClient [port | unix:path] file
+public class CmmClient implements Closeable {
+    private final SocketChannel channel;
+    private final DataInputStream in;
+    private final DataOutputStream out;
+
+    public CmmClient(SocketAddress address) throws IOException {
+        channel = SocketChannel.open(address);
+        in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel)));
+        out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel)));
+    }
+
+    public DaemonProtocol.Response compile(String source) throws IOException {
+        DaemonProtocol.writeString(out, source);
+        out.flush();
+        return DaemonProtocol.Response.read(in);
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    public static void main(String[] args) throws IOException {
+        String target = args.length > 1 ? args[0] : String.valueOf(DaemonProtocol.DEFAULT_PORT);
+        String source = Files.readString(Path.of(args[args.length - 1]));
+        DaemonProtocol.Response response;
+        try (CmmClient client = new CmmClient(DaemonProtocol.address(target))) {
+            response = client.compile(source);
+        }
+        System.out.print(response.getOut());
+        System.err.print(response.getErr());
+        System.out.flush();
+        if (response.getExitStatus() != 0)
+            System.exit(response.getExitStatus());
+    }
+}
@@ -0,0 +1,117 @@
+package main.daemon;
+
+import main.CmmCompiler;
+import org.antlr.v4.runtime.CharStreams;
+
+import java.io.*;
+import java.net.SocketAddress;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+//Keeps one warmed-up JVM around and compiles whatever CmmClient sends it.
+//Every connection gets its own thread; ANTLR's DFA cache is shared by all parsers, so it stays warm across requests.
+//A request longer than the maximum source size closes its connection without being read.
+//usage: CmmDaemon [port | unix:path] [--max-source-bytes n] [--warmup file...]
+public class CmmDaemon {
+    private static final int WARMUP_ROUNDS = 20;
+    public static final int DEFAULT_MAX_SOURCE_BYTES = 16 << 20;
+
+    private final SocketAddress address;
+    private int maxSourceBytes = DEFAULT_MAX_SOURCE_BYTES;
+    private final ExecutorService connections = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "cmm-daemon-connection");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public CmmDaemon(SocketAddress address) {
+        this.address = address;
+    }
+
+    public static void main(String[] args) throws IOException {
+        String target = String.valueOf(DaemonProtocol.DEFAULT_PORT);
+        int i = 0;
+        if (i < args.length && !args[i].startsWith("--"))
+            target = args[i++];
+        CmmDaemon daemon = new CmmDaemon(DaemonProtocol.address(target));
+        if (i + 1 < args.length && args[i].equals("--max-source-bytes")) {
+            daemon.setMaxSourceBytes(Integer.parseInt(args[i + 1]));
+            i += 2;
+        }
+        if (i < args.length && args[i].equals("--warmup")) {
+            for (i += 1; i < args.length; i++)
+                daemon.warmup(Files.readString(Path.of(args[i])));
+        }
+        daemon.serve();
+    }
+
+    public int getMaxSourceBytes() {
+        return maxSourceBytes;
+    }
+
+    public void setMaxSourceBytes(int maxSourceBytes) {
+        this.maxSourceBytes = maxSourceBytes;
+    }
+
+    public void warmup(String source) {
+        for (int i = 0; i < WARMUP_ROUNDS; i++)
+            compile(source);
+    }
+
+    public static DaemonProtocol.Response compile(String source) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ByteArrayOutputStream err = new ByteArrayOutputStream();
+        int exitStatus;
+        try (PrintStream outStream = new PrintStream(out, false, StandardCharsets.UTF_8);
+             PrintStream errStream = new PrintStream(err, false, StandardCharsets.UTF_8)) {
+            try {
+                exitStatus = new CmmCompiler(outStream, errStream).compile(CharStreams.fromString(source));
+            } catch (RuntimeException e) {
+                e.printStackTrace(errStream);
+                exitStatus = 1;
+            }
+        }
+        return new DaemonProtocol.Response(exitStatus,
+                out.toString(StandardCharsets.UTF_8), err.toString(StandardCharsets.UTF_8));
+    }
+
+    public void serve() throws IOException {
+        boolean unix = address instanceof UnixDomainSocketAddress;
+        if (unix)
+            Files.deleteIfExists(((UnixDomainSocketAddress) address).getPath());
+        try (ServerSocketChannel server = ServerSocketChannel.open(unix ? StandardProtocolFamily.UNIX : StandardProtocolFamily.INET)) {
+            server.bind(address);
+            System.err.println("cmm daemon listening on " + address);
+            while (true) {
+                SocketChannel channel = server.accept();
+                connections.submit(() -> handle(channel));
+            }
+        }
+    }
+
+    private void handle(SocketChannel channel) {
+        try (channel;
+             DataInputStream in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel)));
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel)))) {
+            while (true) {
+                String source;
+                try {
+                    source = DaemonProtocol.readString(in, maxSourceBytes);
+                } catch (EOFException e) {
+                    return;
+                }
+                compile(source).write(out);
+            }
+        } catch (IOException e) {
+            System.err.println("cmm daemon: " + e.getMessage());
+        }
+    }
+}
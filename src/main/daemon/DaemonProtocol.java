@@ -0,0 +1,78 @@
+package main.daemon;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.UnixDomainSocketAddress;
+import java.nio.charset.StandardCharsets;
+
+//Length-prefixed frames over one connection, which may carry any number of compiles:
+//  request:  int length, UTF-8 source
+//  response: int exit status, int length, UTF-8 stdout, int length, UTF-8 stderr
+public class DaemonProtocol {
+    public static final int DEFAULT_PORT = 7391;
+
+    //"unix:<path>" for a Unix domain socket, otherwise a localhost TCP port
+    public static SocketAddress address(String target) {
+        if (target.startsWith("unix:"))
+            return UnixDomainSocketAddress.of(target.substring("unix:".length()));
+        return new InetSocketAddress(InetAddress.getLoopbackAddress(), Integer.parseInt(target));
+    }
+
+    public static void writeString(DataOutputStream out, String text) throws IOException {
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    //Rejects a length past maxLength before allocating, since it comes from the other end of the socket
+    public static String readString(DataInputStream in, int maxLength) throws IOException {
+        int length = in.readInt();
+        if (length < 0 || length > maxLength)
+            throw new IOException("frame length " + length + " is outside 0.." + maxLength);
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    public static class Response {
+        private final int exitStatus;
+        private final String out;
+        private final String err;
+
+        public Response(int exitStatus, String out, String err) {
+            this.exitStatus = exitStatus;
+            this.out = out;
+            this.err = err;
+        }
+
+        public int getExitStatus() {
+            return exitStatus;
+        }
+
+        public String getOut() {
+            return out;
+        }
+
+        public String getErr() {
+            return err;
+        }
+
+        public void write(DataOutputStream stream) throws IOException {
+            stream.writeInt(exitStatus);
+            writeString(stream, out);
+            writeString(stream, err);
+            stream.flush();
+        }
+
+        public static Response read(DataInputStream stream) throws IOException {
+            int exitStatus = stream.readInt();
+            String out = readString(stream, Integer.MAX_VALUE);
+            String err = readString(stream, Integer.MAX_VALUE);
+            return new Response(exitStatus, out, err);
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package main.diagnostics;
+
+import main.compileError.CompileError;
+
+//Where a compile's diagnostics go. Calls come in order: begin, any number of syntax and compile errors, then finish.
+public interface DiagnosticWriter {
+    void begin(String source);
+
+    void syntaxError(int line, int column, String message);
+
+    void error(CompileError error);
+
+    //stoppedEarly is set when the error cap ended analysis before the whole file was checked
+    void finish(boolean successful, boolean stoppedEarly);
+}
@@ -0,0 +1,8 @@
+package main.diagnostics;
+
+//Thrown out of a pass once the error cap is hit, to abandon the rest of the analysis
+public class ErrorLimitReached extends RuntimeException {
+    public ErrorLimitReached() {
+        super("error limit reached", null, false, false);
+    }
+}
@@ -0,0 +1,58 @@
+package main.diagnostics;
+
+import main.compileError.CompileError;
+import main.lsp.Json;
+
+import java.io.PrintStream;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+//One JSON object per line and per diagnostic: file, line, column (syntax errors only), severity, code, message
+public class JsonLinesDiagnosticWriter implements DiagnosticWriter {
+    private final PrintStream out;
+    private String source;
+
+    public JsonLinesDiagnosticWriter(PrintStream out) {
+        this.out = out;
+    }
+
+    @Override
+    public void begin(String source) {
+        this.source = source;
+    }
+
+    @Override
+    public void syntaxError(int line, int column, String message) {
+        write(line, column, "SyntaxError", message);
+    }
+
+    @Override
+    public void error(CompileError error) {
+        write(error.getLine(), -1, error.getClass().getSimpleName(), error.getDescription());
+    }
+
+    private void write(int line, int column, String code, String message) {
+        Map<String, Object> diagnostic = new LinkedHashMap<>();
+        diagnostic.put("file", source);
+        diagnostic.put("line", line);
+        if (column >= 0)
+            diagnostic.put("column", column + 1);
+        diagnostic.put("severity", "error");
+        diagnostic.put("code", code);
+        diagnostic.put("message", message);
+        out.println(Json.write(diagnostic));
+    }
+
+    @Override
+    public void finish(boolean successful, boolean stoppedEarly) {
+        if (stoppedEarly) {
+            Map<String, Object> note = new LinkedHashMap<>();
+            note.put("file", source);
+            note.put("severity", "note");
+            note.put("code", "ErrorLimitReached");
+            note.put("message", "too many errors, analysis stopped");
+            out.println(Json.write(note));
+        }
+        out.flush();
+    }
+}
@@ -0,0 +1,71 @@
+package main.diagnostics;
+
+import main.compileError.CompileError;
+import main.lsp.Json;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+//A SARIF 2.1.0 log with one run. Results are written as they arrive, so memory does not grow with the error count.
+public class SarifDiagnosticWriter implements DiagnosticWriter {
+    private final PrintStream out;
+    private String source;
+    private boolean firstResult = true;
+
+    public SarifDiagnosticWriter(PrintStream out) {
+        this.out = out;
+    }
+
+    @Override
+    public void begin(String source) {
+        this.source = source;
+        out.print("{\"$schema\":\"https://json.schemastore.org/sarif-2.1.0.json\",\"version\":\"2.1.0\",\"runs\":[{"
+                + "\"tool\":{\"driver\":{\"name\":\"cmm\"}},\"results\":[");
+    }
+
+    @Override
+    public void syntaxError(int line, int column, String message) {
+        write(line, column, "SyntaxError", message);
+    }
+
+    @Override
+    public void error(CompileError error) {
+        write(error.getLine(), -1, error.getClass().getSimpleName(), error.getDescription());
+    }
+
+    private void write(int line, int column, String code, String message) {
+        Map<String, Object> region = new LinkedHashMap<>();
+        region.put("startLine", Math.max(line, 1));
+        if (column >= 0)
+            region.put("startColumn", column + 1);
+        Map<String, Object> physicalLocation = new LinkedHashMap<>();
+        physicalLocation.put("artifactLocation", Map.of("uri", source));
+        physicalLocation.put("region", region);
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("ruleId", code);
+        result.put("level", "error");
+        result.put("message", Map.of("text", message));
+        result.put("locations", List.of(Map.of("physicalLocation", physicalLocation)));
+        if (!firstResult)
+            out.print(',');
+        firstResult = false;
+        out.print(Json.write(result));
+    }
+
+    @Override
+    public void finish(boolean successful, boolean stoppedEarly) {
+        Map<String, Object> invocation = new LinkedHashMap<>();
+        invocation.put("executionSuccessful", true);
+        List<Object> notifications = new ArrayList<>();
+        if (stoppedEarly) {
+            notifications.add(Map.of("level", "warning",
+                    "message", Map.of("text", "too many errors, analysis stopped")));
+        }
+        invocation.put("toolExecutionNotifications", notifications);
+        out.println("],\"invocations\":[" + Json.write(invocation) + "]}]}");
+        out.flush();
+    }
+}
@@ -0,0 +1,40 @@
+package main.diagnostics;
+
+import main.compileError.CompileError;
+
+import java.io.PrintStream;
+
+//The compiler's original output: "Line N: message" on out, ANTLR-style syntax errors on err
+public class TextDiagnosticWriter implements DiagnosticWriter {
+    private final PrintStream out;
+    private final PrintStream err;
+
+    public TextDiagnosticWriter(PrintStream out, PrintStream err) {
+        this.out = out;
+        this.err = err;
+    }
+
+    @Override
+    public void begin(String source) {
+    }
+
+    @Override
+    public void syntaxError(int line, int column, String message) {
+        err.println("line " + line + ":" + column + " " + message);
+    }
+
+    @Override
+    public void error(CompileError error) {
+        out.println(error.getMessage());
+    }
+
+    @Override
+    public void finish(boolean successful, boolean stoppedEarly) {
+        if (successful)
+            out.println("Compilation successful");
+        if (stoppedEarly)
+            err.println("too many errors, analysis stopped");
+        out.flush();
+        err.flush();
+    }
+}
@@ -248,7 +248,8 @@ whileLoopStatement returns [LoopStmt stmt]:
 
 
 doWhileLoopStatement returns [LoopStmt stmt]:
-    {$stmt = new LoopStmt();}
+    {$stmt = new LoopStmt();
+     $stmt.setDoWhile(true);}
     d = DO bd = body
     {$stmt.setBody($bd.bodyRet);
      $stmt.setLine($d.getLine());}
@@ -0,0 +1,454 @@
+package main.lsp;
+
+import main.ast.nodes.Node;
+import main.ast.nodes.Program;
+import main.ast.nodes.declaration.Declaration;
+import main.ast.nodes.declaration.FunctionDeclaration;
+import main.ast.nodes.declaration.MainDeclaration;
+import main.ast.nodes.declaration.VariableDeclaration;
+import main.ast.nodes.declaration.struct.StructDeclaration;
+import main.ast.nodes.expression.Identifier;
+import main.ast.nodes.statement.BlockStmt;
+import main.ast.types.*;
+import main.ast.types.primitives.BoolType;
+import main.ast.types.primitives.IntType;
+import main.ast.types.primitives.VoidType;
+import main.compileError.CompileError;
+import main.parse.DeclarationParser;
+import main.symbolTable.SymbolTable;
+import main.symbolTable.items.FunctionSymbolTableItem;
+import main.symbolTable.items.StructSymbolTableItem;
+import main.symbolTable.items.SymbolTableItem;
+import main.symbolTable.items.VariableSymbolTableItem;
+import main.visitor.FusedTraversal;
+import main.visitor.TraversalHook;
+import main.visitor.name.NameAnalyser;
+import main.visitor.type.TypeChecker;
+import org.antlr.v4.runtime.BaseErrorListener;
+import org.antlr.v4.runtime.RecognitionException;
+import org.antlr.v4.runtime.Recognizer;
+
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+//One open file. The text is split into top-level declarations, each parsed on its own and kept while its text is unchanged.
+//Only the bodies of changed declarations are analysed again, unless a struct or a function header changed,
+//in which case every body is. Lines inside a chunk are stored relative to where it was parsed, so moving it needs no reparse.
+public class CmmDocument {
+    private static final Pattern WORD = Pattern.compile("[A-Za-z_][A-Za-z0-9_]*");
+
+    public static class Diagnostic {
+        private final int line;
+        private final int column;
+        private final String message;
+
+        //line is 1-based as in the compiler, column is -1 when the error covers the whole line
+        public Diagnostic(int line, int column, String message) {
+            this.line = line;
+            this.column = column;
+            this.message = message;
+        }
+
+        public int getLine() {
+            return line;
+        }
+
+        public int getColumn() {
+            return column;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+    }
+
+    private static class Chunk {
+        private DeclarationParser.Kind kind;
+        private String text;
+        private String signature;
+        private int startLine;
+        private int parsedStartLine;
+        private Declaration declaration;
+        private String parsedName;
+        private final ArrayList<Diagnostic> syntaxErrors = new ArrayList<>();
+        private ArrayList<Diagnostic> nameErrors = new ArrayList<>();
+        //null until the chunk has been type checked against the current name analysis
+        private ArrayList<Diagnostic> typeErrors;
+        private boolean reusable = true;
+
+        private int toParsed(int line) {
+            return line - startLine + parsedStartLine;
+        }
+    }
+
+    private static class ErrorCollector implements TraversalHook {
+        private final ArrayList<CompileError> errors = new ArrayList<>();
+
+        @Override
+        public void pre(Node node) {
+            errors.addAll(node.flushErrors());
+        }
+    }
+
+    private static class IdentifierFinder implements TraversalHook {
+        private final int line;
+        private final String name;
+        private Identifier found;
+
+        IdentifierFinder(int line, String name) {
+            this.line = line;
+            this.name = name;
+        }
+
+        @Override
+        public void pre(Node node) {
+            if (found != null || !(node instanceof Identifier) || node.getLine() != line)
+                return;
+            Identifier identifier = (Identifier) node;
+            if (identifier.getName().equals(name) && identifier.getSymbol() != null)
+                found = identifier;
+        }
+    }
+
+    private String text = "";
+    private String[] lines = new String[]{""};
+    private ArrayList<Chunk> chunks = new ArrayList<>();
+    private List<String> signatures = Collections.emptyList();
+    private final ArrayList<Diagnostic> documentErrors = new ArrayList<>();
+    private int analysedBodies;
+
+    public String getText() {
+        return text;
+    }
+
+    //Number of function and main bodies the last update analysed again
+    public int getAnalysedBodies() {
+        return analysedBodies;
+    }
+
+    public void update(String text) {
+        this.text = text;
+        this.lines = text.split("\n", -1);
+        Map<String, ArrayDeque<Chunk>> previous = new HashMap<>();
+        for (Chunk chunk : chunks) {
+            if (chunk.reusable)
+                previous.computeIfAbsent(chunk.text, key -> new ArrayDeque<>()).add(chunk);
+        }
+
+        ArrayList<Chunk> next = new ArrayList<>();
+        Set<Chunk> changed = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (int[] range : DeclarationParser.split(lines)) {
+            int start = range[0];
+            int end = range[1];
+            String chunkText = String.join("\n", Arrays.asList(lines).subList(start, end)) + "\n";
+            ArrayDeque<Chunk> same = previous.get(chunkText);
+            Chunk chunk = same != null && !same.isEmpty() ? same.poll() : null;
+            if (chunk == null) {
+                chunk = parse(chunkText, start + 1);
+                changed.add(chunk);
+            }
+            chunk.startLine = start + 1;
+            if (!chunkText.isBlank())
+                next.add(chunk);
+        }
+        chunks = next;
+        analyse(changed);
+    }
+
+    private Chunk parse(String chunkText, int startLine) {
+        Chunk chunk = new Chunk();
+        chunk.text = chunkText;
+        chunk.parsedStartLine = startLine;
+        chunk.kind = DeclarationParser.kindOf(chunkText);
+        chunk.signature = chunk.kind == DeclarationParser.Kind.STRUCT ? chunkText : header(chunkText);
+
+        BaseErrorListener listener = new BaseErrorListener() {
+            @Override
+            public void syntaxError(Recognizer<?, ?> recognizer, Object offendingSymbol, int line,
+                                    int charPositionInLine, String msg, RecognitionException e) {
+                chunk.syntaxErrors.add(new Diagnostic(line, charPositionInLine, msg));
+            }
+        };
+        chunk.declaration = DeclarationParser.parse(chunkText, startLine, chunk.kind, listener);
+        chunk.parsedName = declarationName(chunk);
+        return chunk;
+    }
+
+    //A function's text up to the end of its argument list
+    private static String header(String chunkText) {
+        int depth = 0;
+        for (int i = 0; i < chunkText.length(); i++) {
+            char c = chunkText.charAt(i);
+            if (c == '(')
+                depth += 1;
+            else if (c == ')' && --depth == 0)
+                return chunkText.substring(0, i + 1);
+        }
+        return chunkText;
+    }
+
+    private void analyse(Set<Chunk> changed) {
+        documentErrors.clear();
+        Program program = new Program();
+        program.setLine(1);
+        Map<Declaration, Chunk> owners = new IdentityHashMap<>();
+        List<String> nextSignatures = new ArrayList<>();
+        DeclarationParser.Kind last = DeclarationParser.Kind.STRUCT;
+        for (Chunk chunk : chunks) {
+            if (!chunk.syntaxErrors.isEmpty() || chunk.declaration == null)
+                continue;
+            if (chunk.kind.ordinal() < last.ordinal() || last == DeclarationParser.Kind.MAIN) {
+                chunk.syntaxErrors.add(new Diagnostic(chunk.parsedStartLine, 0,
+                        "declarations must be structs, then functions, then main"));
+                chunk.reusable = false;
+                continue;
+            }
+            last = chunk.kind;
+            owners.put(chunk.declaration, chunk);
+            if (chunk.kind == DeclarationParser.Kind.STRUCT) {
+                program.addStruct((StructDeclaration) chunk.declaration);
+                nextSignatures.add(chunk.signature);
+            } else if (chunk.kind == DeclarationParser.Kind.FUNCTION) {
+                program.addFunction((FunctionDeclaration) chunk.declaration);
+                nextSignatures.add(chunk.signature);
+            } else {
+                program.setMain((MainDeclaration) chunk.declaration);
+            }
+        }
+        MainDeclaration placeholder = null;
+        //Program starts out with an empty main of its own, so whether one was added is told by last
+        if (last != DeclarationParser.Kind.MAIN) {
+            documentErrors.add(new Diagnostic(lines.length, -1, "missing main"));
+            placeholder = new MainDeclaration();
+            placeholder.setBody(new BlockStmt());
+            program.setMain(placeholder);
+        }
+
+        boolean globalsChanged = !nextSignatures.equals(signatures);
+        signatures = nextSignatures;
+        Set<Declaration> dirty = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (Map.Entry<Declaration, Chunk> owner : owners.entrySet()) {
+            if (globalsChanged || changed.contains(owner.getValue()))
+                dirty.add(owner.getKey());
+        }
+        if (placeholder != null)
+            dirty.add(placeholder);
+        analysedBodies = 0;
+        for (Declaration declaration : dirty)
+            analysedBodies += declaration instanceof StructDeclaration ? 0 : 1;
+
+        SymbolTable.reset();
+        try {
+            NameAnalyser nameAnalyser = new NameAnalyser();
+            nameAnalyser.setBodyFilter(dirty::contains);
+            program.accept(nameAnalyser);
+            boolean nameErrors = false;
+            for (Map.Entry<Declaration, Chunk> owner : owners.entrySet()) {
+                Chunk chunk = owner.getValue();
+                if (dirty.contains(owner.getKey()) || chunk.kind == DeclarationParser.Kind.STRUCT) {
+                    chunk.nameErrors = collect(owner.getKey());
+                    chunk.typeErrors = null;
+                } else {
+                    //A skipped body only got the global phase's errors, which match the ones kept from before
+                    owner.getKey().flushErrors();
+                }
+                if (chunk.parsedName != null && !chunk.parsedName.equals(declarationName(chunk)))
+                    chunk.reusable = false;
+                nameErrors |= !chunk.nameErrors.isEmpty();
+            }
+            if (nameErrors)
+                return;
+
+            TypeChecker typeChecker = new TypeChecker();
+            Set<Declaration> typeDirty = Collections.newSetFromMap(new IdentityHashMap<>());
+            for (Map.Entry<Declaration, Chunk> owner : owners.entrySet()) {
+                if (dirty.contains(owner.getKey()) || owner.getValue().typeErrors == null)
+                    typeDirty.add(owner.getKey());
+            }
+            if (placeholder != null)
+                typeDirty.add(placeholder);
+            typeChecker.setBodyFilter(typeDirty::contains);
+            program.accept(typeChecker);
+            for (Map.Entry<Declaration, Chunk> owner : owners.entrySet()) {
+                Chunk chunk = owner.getValue();
+                if (typeDirty.contains(owner.getKey()) || chunk.kind == DeclarationParser.Kind.STRUCT)
+                    chunk.typeErrors = collect(owner.getKey());
+            }
+        } finally {
+            SymbolTable.reset();
+        }
+    }
+
+    private static String declarationName(Chunk chunk) {
+        Identifier name = null;
+        if (chunk.declaration instanceof StructDeclaration)
+            name = ((StructDeclaration) chunk.declaration).getStructName();
+        if (chunk.declaration instanceof FunctionDeclaration)
+            name = ((FunctionDeclaration) chunk.declaration).getFunctionName();
+        return name == null ? null : name.getName();
+    }
+
+    private static ArrayList<Diagnostic> collect(Declaration declaration) {
+        ErrorCollector collector = new ErrorCollector();
+        FusedTraversal traversal = new FusedTraversal();
+        traversal.addHook(collector);
+        traversal.run(declaration);
+        ArrayList<Diagnostic> diagnostics = new ArrayList<>();
+        for (CompileError error : collector.errors)
+            diagnostics.add(new Diagnostic(error.getLine(), -1, error.getDescription()));
+        return diagnostics;
+    }
+
+    //Every diagnostic of the document, with lines of the current text
+    public ArrayList<Diagnostic> getDiagnostics() {
+        ArrayList<Diagnostic> diagnostics = new ArrayList<>(documentErrors);
+        boolean nameErrors = false;
+        for (Chunk chunk : chunks)
+            nameErrors |= !chunk.nameErrors.isEmpty();
+        for (Chunk chunk : chunks) {
+            int shift = chunk.startLine - chunk.parsedStartLine;
+            List<Diagnostic> semantic = nameErrors ? chunk.nameErrors : chunk.typeErrors;
+            for (List<Diagnostic> errors : Arrays.asList(chunk.syntaxErrors, semantic)) {
+                if (errors == null)
+                    continue;
+                for (Diagnostic error : errors)
+                    diagnostics.add(new Diagnostic(error.getLine() + shift, error.getColumn(), error.getMessage()));
+            }
+        }
+        return diagnostics;
+    }
+
+    public String getLine(int line) {
+        return line >= 1 && line <= lines.length ? lines[line - 1] : "";
+    }
+
+    //The identifier under a 1-based line and 0-based column, or null
+    public String wordAt(int line, int column) {
+        Matcher matcher = WORD.matcher(getLine(line));
+        while (matcher.find()) {
+            if (matcher.start() <= column && column <= matcher.end())
+                return matcher.group();
+        }
+        return null;
+    }
+
+    private Chunk chunkAt(int line) {
+        Chunk found = null;
+        for (Chunk chunk : chunks) {
+            if (chunk.startLine <= line)
+                found = chunk;
+        }
+        return found;
+    }
+
+    private Chunk owner(Declaration declaration) {
+        for (Chunk chunk : chunks) {
+            if (chunk.declaration == declaration)
+                return chunk;
+        }
+        return null;
+    }
+
+    private SymbolTableItem symbolAt(int line, int column) {
+        String word = wordAt(line, column);
+        Chunk chunk = chunkAt(line);
+        if (word == null || chunk == null || chunk.declaration == null)
+            return null;
+        IdentifierFinder finder = new IdentifierFinder(chunk.toParsed(line), word);
+        FusedTraversal traversal = new FusedTraversal();
+        traversal.addHook(finder);
+        traversal.run(chunk.declaration);
+        if (finder.found != null)
+            return finder.found.getSymbol();
+        for (Chunk candidate : chunks) {
+            if (word.equals(candidate.parsedName) && candidate.declaration instanceof StructDeclaration)
+                return new StructSymbolTableItem((StructDeclaration) candidate.declaration);
+            if (word.equals(candidate.parsedName) && candidate.declaration instanceof FunctionDeclaration)
+                return new FunctionSymbolTableItem((FunctionDeclaration) candidate.declaration);
+        }
+        return null;
+    }
+
+    //1-based line and 0-based column of the declaration of the symbol under the cursor, or null
+    public int[] definition(int line, int column) {
+        SymbolTableItem symbol = symbolAt(line, column);
+        if (symbol == null)
+            return null;
+        Identifier name = null;
+        Chunk chunk = null;
+        if (symbol instanceof StructSymbolTableItem) {
+            StructDeclaration declaration = ((StructSymbolTableItem) symbol).getStructDeclaration();
+            name = declaration.getStructName();
+            chunk = owner(declaration);
+        } else if (symbol instanceof FunctionSymbolTableItem) {
+            FunctionDeclaration declaration = ((FunctionSymbolTableItem) symbol).getFunctionDeclaration();
+            name = declaration.getFunctionName();
+            chunk = owner(declaration);
+        } else if (symbol instanceof VariableSymbolTableItem) {
+            name = ((VariableSymbolTableItem) symbol).getIdentifier();
+            chunk = declaringChunk(name, chunkAt(line));
+        }
+        if (name == null || chunk == null)
+            return null;
+        int definitionLine = name.getLine() - chunk.parsedStartLine + chunk.startLine;
+        Matcher matcher = Pattern.compile("\\b" + Pattern.quote(symbol.getName()) + "\\b").matcher(getLine(definitionLine));
+        return new int[]{definitionLine, matcher.find() ? matcher.start() : 0};
+    }
+
+    //Locals live in the chunk being looked at, struct members in their struct
+    private Chunk declaringChunk(Identifier name, Chunk current) {
+        for (Chunk chunk : chunks) {
+            if (chunk.declaration == null)
+                continue;
+            boolean[] contains = {false};
+            FusedTraversal traversal = new FusedTraversal();
+            traversal.addHook(new TraversalHook() {
+                @Override
+                public void pre(Node node) {
+                    contains[0] |= node == name;
+                }
+            });
+            traversal.run(chunk.declaration);
+            if (contains[0])
+                return chunk;
+        }
+        return current;
+    }
+
+    public String hover(int line, int column) {
+        SymbolTableItem symbol = symbolAt(line, column);
+        if (symbol instanceof VariableSymbolTableItem)
+            return symbol.getName() + ": " + describe(((VariableSymbolTableItem) symbol).getType());
+        if (symbol instanceof StructSymbolTableItem)
+            return "struct " + symbol.getName();
+        if (symbol instanceof FunctionSymbolTableItem) {
+            FunctionDeclaration function = ((FunctionSymbolTableItem) symbol).getFunctionDeclaration();
+            StringJoiner args = new StringJoiner(", ", "(", ")");
+            for (VariableDeclaration arg : function.getArgs())
+                args.add(describe(arg.getVarType()) + " " + arg.getVarName().getName());
+            return describe(function.getReturnType()) + " " + function.getFunctionName().getName() + args;
+        }
+        return null;
+    }
+
+    private static String describe(Type type) {
+        if (type instanceof IntType)
+            return "int";
+        if (type instanceof BoolType)
+            return "bool";
+        if (type instanceof VoidType)
+            return "void";
+        if (type instanceof ListType)
+            return "list # " + describe(((ListType) type).getType());
+        if (type instanceof StructType)
+            return "struct " + ((StructType) type).getStructName().getName();
+        if (type instanceof FptrType) {
+            StringJoiner args = new StringJoiner(", ");
+            for (Type arg : ((FptrType) type).getArgsType())
+                args.add(describe(arg));
+            return "fptr < " + (args.length() == 0 ? "void" : args.toString()) + " -> " + describe(((FptrType) type).getReturnType()) + " >";
+        }
+        return "unknown";
+    }
+}
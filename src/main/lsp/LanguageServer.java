@@ -0,0 +1,201 @@
+package main.lsp;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+//Language server over stdio: JSON-RPC messages framed by Content-Length headers, as the LSP spec describes.
+//Supports full-text sync, published diagnostics, hover and go-to-definition. Everything runs on the reading thread.
+//usage: LanguageServer
+public class LanguageServer {
+    private static final int FULL_SYNC = 1;
+    private static final int ERROR_SEVERITY = 1;
+    private static final int METHOD_NOT_FOUND = -32601;
+
+    private final InputStream in;
+    private final OutputStream out;
+    private final Map<String, CmmDocument> documents = new HashMap<>();
+    private boolean shutdown = false;
+
+    public LanguageServer(InputStream in, OutputStream out) {
+        this.in = new BufferedInputStream(in);
+        this.out = new BufferedOutputStream(out);
+    }
+
+    public static void main(String[] args) throws IOException {
+        //Anything printed by mistake would corrupt the protocol stream
+        PrintStream protocol = System.out;
+        System.setOut(System.err);
+        int status = new LanguageServer(System.in, protocol).run();
+        System.exit(status);
+    }
+
+    //Returns the exit code the spec asks for: 0 after shutdown, 1 otherwise
+    public int run() throws IOException {
+        while (true) {
+            String message = read();
+            if (message == null)
+                return shutdown ? 0 : 1;
+            @SuppressWarnings("unchecked")
+            Map<String, Object> request = (Map<String, Object>) Json.parse(message);
+            String method = (String) request.get("method");
+            if ("exit".equals(method))
+                return shutdown ? 0 : 1;
+            handle(request, method);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void handle(Map<String, Object> request, String method) throws IOException {
+        Object id = request.get("id");
+        Map<String, Object> params = (Map<String, Object>) request.get("params");
+        switch (method == null ? "" : method) {
+            case "initialize":
+                respond(id, map("capabilities", map(
+                        "textDocumentSync", FULL_SYNC,
+                        "hoverProvider", true,
+                        "definitionProvider", true)));
+                break;
+            case "shutdown":
+                shutdown = true;
+                respond(id, null);
+                break;
+            case "textDocument/didOpen": {
+                Map<String, Object> textDocument = (Map<String, Object>) params.get("textDocument");
+                String uri = (String) textDocument.get("uri");
+                CmmDocument document = new CmmDocument();
+                documents.put(uri, document);
+                document.update((String) textDocument.get("text"));
+                publishDiagnostics(uri, document);
+                break;
+            }
+            case "textDocument/didChange": {
+                String uri = uri(params);
+                CmmDocument document = documents.get(uri);
+                List<Object> changes = (List<Object>) params.get("contentChanges");
+                if (document == null || changes.isEmpty())
+                    break;
+                Map<String, Object> change = (Map<String, Object>) changes.get(changes.size() - 1);
+                document.update((String) change.get("text"));
+                publishDiagnostics(uri, document);
+                break;
+            }
+            case "textDocument/didClose": {
+                String uri = uri(params);
+                documents.remove(uri);
+                notify("textDocument/publishDiagnostics", map("uri", uri, "diagnostics", new ArrayList<>()));
+                break;
+            }
+            case "textDocument/hover": {
+                CmmDocument document = documents.get(uri(params));
+                Map<String, Object> position = (Map<String, Object>) params.get("position");
+                String hover = document == null ? null :
+                        document.hover(line(position) + 1, character(position));
+                respond(id, hover == null ? null : map("contents", map("kind", "plaintext", "value", hover)));
+                break;
+            }
+            case "textDocument/definition": {
+                String uri = uri(params);
+                CmmDocument document = documents.get(uri);
+                Map<String, Object> position = (Map<String, Object>) params.get("position");
+                int[] definition = document == null ? null :
+                        document.definition(line(position) + 1, character(position));
+                respond(id, definition == null ? null : map("uri", uri, "range",
+                        range(definition[0] - 1, definition[1], definition[1])));
+                break;
+            }
+            default:
+                //Notifications we do not know are ignored, requests get an error
+                if (id != null)
+                    send(map("jsonrpc", "2.0", "id", id, "error",
+                            map("code", METHOD_NOT_FOUND, "message", "unsupported method " + method)));
+        }
+    }
+
+    private void publishDiagnostics(String uri, CmmDocument document) throws IOException {
+        List<Object> diagnostics = new ArrayList<>();
+        for (CmmDocument.Diagnostic diagnostic : document.getDiagnostics()) {
+            int line = Math.max(diagnostic.getLine(), 1);
+            int length = document.getLine(line).length();
+            int start = diagnostic.getColumn() < 0 ? 0 : diagnostic.getColumn();
+            int end = diagnostic.getColumn() < 0 ? length : Math.max(start, Math.min(length, start + 1));
+            diagnostics.add(map("range", range(line - 1, start, end), "severity", ERROR_SEVERITY,
+                    "source", "cmm", "message", diagnostic.getMessage()));
+        }
+        notify("textDocument/publishDiagnostics", map("uri", uri, "diagnostics", diagnostics));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static String uri(Map<String, Object> params) {
+        return (String) ((Map<String, Object>) params.get("textDocument")).get("uri");
+    }
+
+    private static int line(Map<String, Object> position) {
+        return ((Number) position.get("line")).intValue();
+    }
+
+    private static int character(Map<String, Object> position) {
+        return ((Number) position.get("character")).intValue();
+    }
+
+    private static Map<String, Object> range(int line, int start, int end) {
+        return map("start", map("line", line, "character", start), "end", map("line", line, "character", end));
+    }
+
+    private static Map<String, Object> map(Object... entries) {
+        Map<String, Object> map = new LinkedHashMap<>();
+        for (int i = 0; i < entries.length; i += 2)
+            map.put((String) entries[i], entries[i + 1]);
+        return map;
+    }
+
+    private void respond(Object id, Object result) throws IOException {
+        Map<String, Object> response = map("jsonrpc", "2.0", "id", id);
+        response.put("result", result);
+        send(response);
+    }
+
+    private void notify(String method, Object params) throws IOException {
+        send(map("jsonrpc", "2.0", "method", method, "params", params));
+    }
+
+    private void send(Map<String, Object> message) throws IOException {
+        byte[] body = Json.write(message).getBytes(StandardCharsets.UTF_8);
+        out.write(("Content-Length: " + body.length + "\r\n\r\n").getBytes(StandardCharsets.US_ASCII));
+        out.write(body);
+        out.flush();
+    }
+
+    //One message body, or null at end of input
+    private String read() throws IOException {
+        int length = -1;
+        while (true) {
+            String header = readHeaderLine();
+            if (header == null)
+                return null;
+            if (header.isEmpty())
+                break;
+            if (header.toLowerCase(Locale.ROOT).startsWith("content-length:"))
+                length = Integer.parseInt(header.substring("content-length:".length()).trim());
+        }
+        if (length < 0)
+            throw new IOException("message without Content-Length");
+        byte[] body = in.readNBytes(length);
+        if (body.length < length)
+            return null;
+        return new String(body, StandardCharsets.UTF_8);
+    }
+
+    private String readHeaderLine() throws IOException {
+        StringBuilder line = new StringBuilder();
+        while (true) {
+            int c = in.read();
+            if (c == -1)
+                return null;
+            if (c == '\n')
+                return line.toString();
+            if (c != '\r')
+                line.append((char) c);
+        }
+    }
+}
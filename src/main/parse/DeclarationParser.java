@@ -0,0 +1,114 @@
+package main.parse;
+
+import main.ast.nodes.declaration.Declaration;
+import org.antlr.v4.runtime.*;
+import parsers.CmmLexer;
+import parsers.CmmParser;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+//Parses top-level declarations one at a time, so a syntax error cannot run on into the declarations around it.
+//A declaration starts at a line beginning with a type keyword, struct or main, which is how the samples are laid out.
+public class DeclarationParser {
+    private static final String[] DECLARATION_KEYWORDS = {"struct", "int", "bool", "void", "list", "fptr", "main"};
+    private static final Pattern STRUCT_START = Pattern.compile("^struct\\s+[A-Za-z_][A-Za-z0-9_]*\\s*(begin)?\\s*$");
+
+    public enum Kind {STRUCT, FUNCTION, MAIN}
+
+    //Start and end (exclusive) line index of each declaration; lines before the first one join it
+    public static List<int[]> split(String[] lines) {
+        List<int[]> ranges = new ArrayList<>();
+        int start = 0;
+        while (start < lines.length) {
+            int end = start + 1;
+            while (end < lines.length && !startsDeclaration(lines[end], 0))
+                end += 1;
+            ranges.add(new int[]{start, end});
+            start = end;
+        }
+        return ranges;
+    }
+
+    //Whether the line starting at lineStart opens with a declaration keyword, as a whole word
+    public static boolean startsDeclaration(String text, int lineStart) {
+        for (String keyword : DECLARATION_KEYWORDS) {
+            if (!text.startsWith(keyword, lineStart))
+                continue;
+            int after = lineStart + keyword.length();
+            if (after == text.length() || !isWordPart(text.charAt(after)))
+                return true;
+        }
+        return false;
+    }
+
+    private static boolean isWordPart(char c) {
+        return c >= 'a' && c <= 'z' || c >= 'A' && c <= 'Z' || c >= '0' && c <= '9' || c == '_';
+    }
+
+    //The kind is told by the first line that is not blank
+    public static Kind kindOf(String text) {
+        for (String line : text.split("\n")) {
+            if (line.isBlank())
+                continue;
+            if (line.startsWith("main"))
+                return Kind.MAIN;
+            if (STRUCT_START.matcher(line).matches())
+                return Kind.STRUCT;
+            break;
+        }
+        return Kind.FUNCTION;
+    }
+
+    //Parses text whose first line is line startLine of the file. Syntax errors, including tokens left over
+    //after the declaration, go to listener. Returns null when there is nothing but comments and blank lines,
+    //or when the grammar actions failed on what ANTLR recovered; the errors explaining why are reported either way.
+    public static Declaration parse(String text, int startLine, Kind kind, ANTLRErrorListener listener) {
+        CmmLexer lexer = new CmmLexer(CharStreams.fromString(text));
+        lexer.setLine(startLine);
+        lexer.removeErrorListeners();
+        lexer.addErrorListener(listener);
+        CommonTokenStream tokens = new CommonTokenStream(lexer);
+        skipNewlines(tokens);
+        if (tokens.LA(1) == Token.EOF)
+            return null;
+
+        CmmParser parser = new CmmParser(tokens);
+        parser.removeErrorListeners();
+        parser.addErrorListener(listener);
+        Declaration declaration;
+        try {
+            switch (kind) {
+                case STRUCT:
+                    declaration = parser.structDeclaration().structDeclarationRet;
+                    break;
+                case MAIN:
+                    declaration = parser.main().mainRet;
+                    break;
+                default:
+                    declaration = parser.functionDeclaration().functionDeclarationRet;
+            }
+        } catch (RuntimeException e) {
+            //Actions dereference the results of sub-rules, which are null where ANTLR gave up on a sub-rule
+            if (parser.getNumberOfSyntaxErrors() == 0) {
+                Token token = tokens.LT(1);
+                listener.syntaxError(parser, token, token.getLine(), token.getCharPositionInLine(),
+                        "cannot parse declaration", null);
+            }
+            return null;
+        }
+        skipNewlines(tokens);
+        if (tokens.LA(1) != Token.EOF) {
+            Token token = tokens.LT(1);
+            listener.syntaxError(parser, token, token.getLine(), token.getCharPositionInLine(),
+                    "extraneous input '" + token.getText() + "'", null);
+        }
+        return declaration;
+    }
+
+    private static void skipNewlines(CommonTokenStream tokens) {
+        while (tokens.LA(1) == CmmParser.NEWLINE)
+            tokens.consume();
+    }
+}
@@ -0,0 +1,137 @@
+package main.parse;
+
+import main.ast.nodes.Program;
+import main.ast.nodes.declaration.Declaration;
+import main.ast.nodes.declaration.FunctionDeclaration;
+import main.ast.nodes.declaration.MainDeclaration;
+import main.ast.nodes.declaration.struct.StructDeclaration;
+import org.antlr.v4.runtime.*;
+
+import java.util.ArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+//Parses the top-level declarations of a file on several threads and stitches them into one Program.
+//A pre-scan splits the text where a line starts with a declaration keyword, and each piece goes through
+//DeclarationParser with its lexer starting at the right line, so line numbers match a serial parse.
+//parse returns null whenever the split cannot be trusted: a comment crossing a boundary, declarations
+//out of order or no main, or any syntax error at all. The caller then parses serially, which also gives
+//the syntax errors exactly as the grammar reports them.
+public class ParallelParser {
+    private final int threads;
+
+    private static class Chunk {
+        private final int start;
+        private final int end;
+        private final int line;
+        private DeclarationParser.Kind kind;
+        private Declaration declaration;
+
+        Chunk(int start, int end, int line) {
+            this.start = start;
+            this.end = end;
+            this.line = line;
+        }
+    }
+
+    public ParallelParser(int threads) {
+        this.threads = threads;
+    }
+
+    public Program parse(String text) {
+        ArrayList<Chunk> chunks = split(text);
+        if (chunks == null)
+            return null;
+
+        AtomicBoolean failed = new AtomicBoolean(false);
+        BaseErrorListener listener = new BaseErrorListener() {
+            @Override
+            public void syntaxError(Recognizer<?, ?> recognizer, Object offendingSymbol, int line,
+                                    int charPositionInLine, String msg, RecognitionException e) {
+                failed.set(true);
+            }
+        };
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(threads, chunks.size()));
+        try {
+            ArrayList<Future<?>> futures = new ArrayList<>();
+            for (Chunk chunk : chunks)
+                futures.add(executor.submit(() -> {
+                    if (!failed.get())
+                        chunk.declaration = DeclarationParser.parse(text.substring(chunk.start, chunk.end),
+                                chunk.line, chunk.kind, listener);
+                }));
+            for (Future<?> future : futures)
+                future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException(e.getCause());
+        } finally {
+            executor.shutdown();
+        }
+        if (failed.get())
+            return null;
+
+        Program program = new Program();
+        program.setLine(1);
+        for (Chunk chunk : chunks) {
+            if (chunk.declaration == null)
+                continue;
+            if (chunk.kind == DeclarationParser.Kind.STRUCT)
+                program.addStruct((StructDeclaration) chunk.declaration);
+            else if (chunk.kind == DeclarationParser.Kind.FUNCTION)
+                program.addFunction((FunctionDeclaration) chunk.declaration);
+            else
+                program.setMain((MainDeclaration) chunk.declaration);
+        }
+        return program;
+    }
+
+    //Pieces of the text in order, or null when the split looks ambiguous
+    private static ArrayList<Chunk> split(String text) {
+        ArrayList<Chunk> chunks = new ArrayList<>();
+        int start = 0;
+        int startLine = 1;
+        int line = 1;
+        boolean inComment = false;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '/' && !inComment && i + 1 < text.length() && text.charAt(i + 1) == '*') {
+                inComment = true;
+                i += 1;
+            } else if (c == '*' && inComment && i + 1 < text.length() && text.charAt(i + 1) == '/') {
+                inComment = false;
+                i += 1;
+            } else if (c == '\n') {
+                line += 1;
+                if (i + 1 < text.length() && DeclarationParser.startsDeclaration(text, i + 1)) {
+                    //A keyword at the start of a line inside a comment is no boundary
+                    if (inComment)
+                        return null;
+                    chunks.add(new Chunk(start, i + 1, startLine));
+                    start = i + 1;
+                    startLine = line;
+                }
+            }
+        }
+        if (inComment)
+            return null;
+        chunks.add(new Chunk(start, text.length(), startLine));
+
+        //Blank lines before the first declaration make a piece of their own
+        if (text.substring(chunks.get(0).start, chunks.get(0).end).isBlank())
+            chunks.remove(0);
+        DeclarationParser.Kind last = DeclarationParser.Kind.STRUCT;
+        for (Chunk chunk : chunks) {
+            chunk.kind = DeclarationParser.kindOf(text.substring(chunk.start, Math.min(chunk.end, chunk.start + 200)));
+            if (chunk.kind.ordinal() < last.ordinal() || last == DeclarationParser.Kind.MAIN)
+                return null;
+            last = chunk.kind;
+        }
+        return last == DeclarationParser.Kind.MAIN ? chunks : null;
+    }
+}
@@ -0,0 +1,90 @@
+package main.recovery;
+
+import main.ast.nodes.Program;
+import main.ast.nodes.declaration.Declaration;
+import main.ast.nodes.declaration.FunctionDeclaration;
+import main.ast.nodes.declaration.MainDeclaration;
+import main.ast.nodes.declaration.struct.StructDeclaration;
+import main.ast.nodes.statement.BlockStmt;
+import main.ast.nodes.statement.ErrorStatement;
+import main.compileError.syntaxError.SyntaxError;
+import main.parse.DeclarationParser;
+import org.antlr.v4.runtime.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+//Builds a Program from a file with syntax errors in it. Each top-level declaration is parsed on its own
+//with DeclarationParser and patched with TreeRepair; declarations that are out of order, or that come out
+//without a name, are left out. A missing main is replaced by an empty one so the passes have one to visit.
+//Every syntax error is collected rather than printed, in the order of the file.
+public class RecoveringParser {
+    private final ArrayList<SyntaxError> syntaxErrors = new ArrayList<>();
+
+    public ArrayList<SyntaxError> getSyntaxErrors() {
+        return syntaxErrors;
+    }
+
+    public Program parse(String text) {
+        syntaxErrors.clear();
+        BaseErrorListener listener = new BaseErrorListener() {
+            @Override
+            public void syntaxError(Recognizer<?, ?> recognizer, Object offendingSymbol, int line,
+                                    int charPositionInLine, String msg, RecognitionException e) {
+                syntaxErrors.add(new SyntaxError(line, charPositionInLine, msg));
+            }
+        };
+        TreeRepair treeRepair = new TreeRepair();
+        Program program = new Program();
+        program.setLine(1);
+        String[] lines = text.split("\n", -1);
+        DeclarationParser.Kind last = DeclarationParser.Kind.STRUCT;
+        boolean mainSeen = false;
+        MainDeclaration main = null;
+        for (int[] range : DeclarationParser.split(lines)) {
+            List<String> chunk = Arrays.asList(lines).subList(range[0], range[1]);
+            String chunkText = String.join("\n", chunk) + "\n";
+            DeclarationParser.Kind kind = DeclarationParser.kindOf(chunkText);
+            mainSeen |= kind == DeclarationParser.Kind.MAIN;
+            int errorsBefore = syntaxErrors.size();
+            Declaration declaration = DeclarationParser.parse(chunkText, range[0] + 1, kind, listener);
+            if (declaration == null || !treeRepair.repair(declaration))
+                continue;
+            if (syntaxErrors.size() > errorsBefore && declaration instanceof FunctionDeclaration)
+                markLostStatements((FunctionDeclaration) declaration, syntaxErrors.get(errorsBefore).getLine());
+            if (kind.ordinal() < last.ordinal() || main != null) {
+                listener.syntaxError(null, null, declaration.getLine(), 0,
+                        "declarations must be structs, then functions, then main", null);
+                continue;
+            }
+            last = kind;
+            if (kind == DeclarationParser.Kind.STRUCT)
+                program.addStruct((StructDeclaration) declaration);
+            else if (kind == DeclarationParser.Kind.FUNCTION)
+                program.addFunction((FunctionDeclaration) declaration);
+            else
+                main = (MainDeclaration) declaration;
+        }
+        if (main == null) {
+            //A main that did not parse has its errors reported already
+            if (!mainSeen)
+                listener.syntaxError(null, null, lines.length, 0, "missing main", null);
+            main = new MainDeclaration();
+            main.setLine(lines.length);
+            main.setBody(new BlockStmt());
+        }
+        program.setMain(main);
+        return program;
+    }
+
+    //ANTLR drops the tokens it resynchronises over, so a body with errors may be missing statements,
+    //its return among them. An ErrorStatement stands for them, which keeps TypeChecker from asking for a return.
+    private static void markLostStatements(FunctionDeclaration function, int line) {
+        if (!(function.getBody() instanceof BlockStmt))
+            return;
+        ErrorStatement lost = new ErrorStatement();
+        lost.setLine(line);
+        ((BlockStmt) function.getBody()).addStatement(lost);
+    }
+}
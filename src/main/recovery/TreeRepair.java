@@ -0,0 +1,298 @@
+package main.recovery;
+
+import main.ast.nodes.Node;
+import main.ast.nodes.declaration.FunctionDeclaration;
+import main.ast.nodes.declaration.MainDeclaration;
+import main.ast.nodes.declaration.VariableDeclaration;
+import main.ast.nodes.declaration.struct.StructDeclaration;
+import main.ast.nodes.expression.*;
+import main.ast.nodes.expression.values.primitive.BoolValue;
+import main.ast.nodes.expression.values.primitive.IntValue;
+import main.ast.nodes.statement.*;
+import main.ast.types.FptrType;
+import main.ast.types.ListType;
+import main.ast.types.NoType;
+import main.ast.types.StructType;
+import main.ast.types.Type;
+import main.visitor.Visitor;
+
+import java.util.ArrayList;
+
+//Fills the holes ANTLR's error recovery leaves in a declaration, so analysis passes can walk it without null checks.
+//A missing statement or expression becomes an ErrorStatement or ErrorExpression, a missing type becomes NoType,
+//and a missing list becomes an empty one. Each visit returns false when the node itself cannot be kept,
+//for example an identifier without a name; its parent then swaps it for an error node.
+public class TreeRepair extends Visitor<Boolean> {
+
+    //False when the declaration has no name, which leaves nothing to analyse it under
+    public boolean repair(Node declaration) {
+        return declaration.accept(this);
+    }
+
+    private Statement statement(Statement statement, Node parent) {
+        if (statement != null && statement.accept(this))
+            return statement;
+        return errorStatement(statement == null ? parent : statement);
+    }
+
+    private Expression expression(Expression expression, Node parent) {
+        if (expression != null && expression.accept(this))
+            return expression;
+        return errorExpression(expression == null ? parent : expression);
+    }
+
+    private static ErrorStatement errorStatement(Node at) {
+        ErrorStatement errorStatement = new ErrorStatement();
+        errorStatement.setLine(at.getLine());
+        return errorStatement;
+    }
+
+    private static ErrorExpression errorExpression(Node at) {
+        ErrorExpression errorExpression = new ErrorExpression();
+        errorExpression.setLine(at.getLine());
+        return errorExpression;
+    }
+
+    //ANTLR names the tokens it conjures up "<missing IDENTIFIER>", which no declaration should be known by
+    private static boolean named(Identifier identifier) {
+        return identifier != null && identifier.getName() != null && !identifier.getName().startsWith("<missing");
+    }
+
+    private Type type(Type type) {
+        if (type == null)
+            return new NoType();
+        if (type instanceof StructType && !named(((StructType) type).getStructName()))
+            return new NoType();
+        if (type instanceof ListType) {
+            ListType listType = (ListType) type;
+            listType.setType(type(listType.getType()));
+        }
+        if (type instanceof FptrType) {
+            FptrType fptrType = (FptrType) type;
+            ArrayList<Type> argsType = new ArrayList<>();
+            if (fptrType.getArgsType() != null) {
+                for (Type argType : fptrType.getArgsType())
+                    argsType.add(type(argType));
+            }
+            fptrType.setArgsType(argsType);
+            fptrType.setReturnType(type(fptrType.getReturnType()));
+        }
+        return type;
+    }
+
+    private ArrayList<VariableDeclaration> variables(ArrayList<VariableDeclaration> variables) {
+        ArrayList<VariableDeclaration> repaired = new ArrayList<>();
+        if (variables == null)
+            return repaired;
+        for (VariableDeclaration variable : variables) {
+            if (variable != null && variable.accept(this))
+                repaired.add(variable);
+        }
+        return repaired;
+    }
+
+    private ArrayList<Expression> expressions(ArrayList<Expression> expressions, Node parent) {
+        ArrayList<Expression> repaired = new ArrayList<>();
+        if (expressions == null)
+            return repaired;
+        for (Expression expression : expressions)
+            repaired.add(expression(expression, parent));
+        return repaired;
+    }
+
+    @Override
+    public Boolean visit(FunctionDeclaration functionDeclaration) {
+        if (!named(functionDeclaration.getFunctionName()))
+            return false;
+        functionDeclaration.setReturnType(type(functionDeclaration.getReturnType()));
+        functionDeclaration.setArgs(variables(functionDeclaration.getArgs()));
+        functionDeclaration.setBody(statement(functionDeclaration.getBody(), functionDeclaration));
+        return true;
+    }
+
+    @Override
+    public Boolean visit(MainDeclaration mainDeclaration) {
+        mainDeclaration.setBody(statement(mainDeclaration.getBody(), mainDeclaration));
+        return true;
+    }
+
+    @Override
+    public Boolean visit(VariableDeclaration variableDeclaration) {
+        if (!named(variableDeclaration.getVarName()))
+            return false;
+        variableDeclaration.setVarType(type(variableDeclaration.getVarType()));
+        if (variableDeclaration.getDefaultValue() != null)
+            variableDeclaration.setDefaultValue(expression(variableDeclaration.getDefaultValue(), variableDeclaration));
+        return true;
+    }
+
+    @Override
+    public Boolean visit(StructDeclaration structDeclaration) {
+        if (!named(structDeclaration.getStructName()))
+            return false;
+        //Members are declarations, which an ErrorStatement in their place would hide from name analysis
+        if (structDeclaration.getBody() == null || !structDeclaration.getBody().accept(this))
+            structDeclaration.setBody(new BlockStmt());
+        return true;
+    }
+
+    @Override
+    public Boolean visit(SetGetVarDeclaration setGetVarDeclaration) {
+        if (!named(setGetVarDeclaration.getVarName()))
+            return false;
+        setGetVarDeclaration.setVarType(type(setGetVarDeclaration.getVarType()));
+        setGetVarDeclaration.setArgs(variables(setGetVarDeclaration.getArgs()));
+        setGetVarDeclaration.setSetterBody(statement(setGetVarDeclaration.getSetterBody(), setGetVarDeclaration));
+        setGetVarDeclaration.setGetterBody(statement(setGetVarDeclaration.getGetterBody(), setGetVarDeclaration));
+        return true;
+    }
+
+    @Override
+    public Boolean visit(AssignmentStmt assignmentStmt) {
+        assignmentStmt.setLValue(expression(assignmentStmt.getLValue(), assignmentStmt));
+        assignmentStmt.setRValue(expression(assignmentStmt.getRValue(), assignmentStmt));
+        return true;
+    }
+
+    @Override
+    public Boolean visit(BlockStmt blockStmt) {
+        ArrayList<Statement> statements = new ArrayList<>();
+        if (blockStmt.getStatements() != null) {
+            for (Statement statement : blockStmt.getStatements())
+                statements.add(statement(statement, blockStmt));
+        }
+        blockStmt.setStatements(statements);
+        return true;
+    }
+
+    @Override
+    public Boolean visit(ConditionalStmt conditionalStmt) {
+        conditionalStmt.setCondition(expression(conditionalStmt.getCondition(), conditionalStmt));
+        conditionalStmt.setThenBody(statement(conditionalStmt.getThenBody(), conditionalStmt));
+        if (conditionalStmt.getElseBody() != null)
+            conditionalStmt.setElseBody(statement(conditionalStmt.getElseBody(), conditionalStmt));
+        return true;
+    }
+
+    @Override
+    public Boolean visit(FunctionCallStmt functionCallStmt) {
+        return functionCallStmt.getFunctionCall() != null && functionCallStmt.getFunctionCall().accept(this);
+    }
+
+    @Override
+    public Boolean visit(DisplayStmt displayStmt) {
+        displayStmt.setArg(expression(displayStmt.getArg(), displayStmt));
+        return true;
+    }
+
+    @Override
+    public Boolean visit(ReturnStmt returnStmt) {
+        if (returnStmt.getReturnedExpr() != null)
+            returnStmt.setReturnedExpr(expression(returnStmt.getReturnedExpr(), returnStmt));
+        return true;
+    }
+
+    @Override
+    public Boolean visit(LoopStmt loopStmt) {
+        loopStmt.setCondition(expression(loopStmt.getCondition(), loopStmt));
+        loopStmt.setBody(statement(loopStmt.getBody(), loopStmt));
+        return true;
+    }
+
+    @Override
+    public Boolean visit(VarDecStmt varDecStmt) {
+        varDecStmt.setVars(variables(varDecStmt.getVars()));
+        return true;
+    }
+
+    @Override
+    public Boolean visit(ListAppendStmt listAppendStmt) {
+        return listAppendStmt.getListAppendExpr() != null && listAppendStmt.getListAppendExpr().accept(this);
+    }
+
+    @Override
+    public Boolean visit(ListSizeStmt listSizeStmt) {
+        return listSizeStmt.getListSizeExpr() != null && listSizeStmt.getListSizeExpr().accept(this);
+    }
+
+    @Override
+    public Boolean visit(ErrorStatement errorStatement) {
+        return true;
+    }
+
+    @Override
+    public Boolean visit(BinaryExpression binaryExpression) {
+        binaryExpression.setFirstOperand(expression(binaryExpression.getFirstOperand(), binaryExpression));
+        binaryExpression.setSecondOperand(expression(binaryExpression.getSecondOperand(), binaryExpression));
+        return binaryExpression.getBinaryOperator() != null;
+    }
+
+    @Override
+    public Boolean visit(UnaryExpression unaryExpression) {
+        unaryExpression.setOperand(expression(unaryExpression.getOperand(), unaryExpression));
+        return unaryExpression.getOperator() != null;
+    }
+
+    @Override
+    public Boolean visit(FunctionCall functionCall) {
+        functionCall.setInstance(expression(functionCall.getInstance(), functionCall));
+        functionCall.setArgs(expressions(functionCall.getArgs(), functionCall));
+        return true;
+    }
+
+    @Override
+    public Boolean visit(Identifier identifier) {
+        return named(identifier);
+    }
+
+    @Override
+    public Boolean visit(ListAccessByIndex listAccessByIndex) {
+        listAccessByIndex.setInstance(expression(listAccessByIndex.getInstance(), listAccessByIndex));
+        listAccessByIndex.setIndex(expression(listAccessByIndex.getIndex(), listAccessByIndex));
+        return true;
+    }
+
+    @Override
+    public Boolean visit(StructAccess structAccess) {
+        structAccess.setInstance(expression(structAccess.getInstance(), structAccess));
+        return named(structAccess.getElement());
+    }
+
+    @Override
+    public Boolean visit(ListSize listSize) {
+        listSize.setArg(expression(listSize.getArg(), listSize));
+        return true;
+    }
+
+    @Override
+    public Boolean visit(ListAppend listAppend) {
+        listAppend.setListArg(expression(listAppend.getListArg(), listAppend));
+        listAppend.setElementArg(expression(listAppend.getElementArg(), listAppend));
+        return true;
+    }
+
+    @Override
+    public Boolean visit(ExprInPar exprInPar) {
+        ArrayList<Expression> inputs = expressions(exprInPar.getInputs(), exprInPar);
+        if (inputs.isEmpty())
+            inputs.add(errorExpression(exprInPar));
+        exprInPar.setInputs(inputs);
+        return true;
+    }
+
+    @Override
+    public Boolean visit(ErrorExpression errorExpression) {
+        return true;
+    }
+
+    //Values always come out whole
+    @Override
+    public Boolean visit(IntValue intValue) {
+        return true;
+    }
+
+    @Override
+    public Boolean visit(BoolValue boolValue) {
+        return true;
+    }
+}
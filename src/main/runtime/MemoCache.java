@@ -0,0 +1,145 @@
+package main.runtime;
+
+//Bounded memo table for one pure function whose arguments and result are ints or bools (bools as 0 and 1).
+//Entries live in flat arrays with open addressing and linear probing, keyed by the argument values themselves, so
+//a lookup allocates nothing. The table is at most half full; past maxEntries, a clock hand sweeps the entries,
+//clearing the used bit of each one found since its last pass, and evicts the first one whose bit is already clear.
+//Removal shifts the rest of the probe run back, so there are no tombstones.
+public class MemoCache {
+    private final int arity;
+    private final int maxEntries;
+    private final int mask;
+    private final int[] keys;
+    private final int[] values;
+    private final boolean[] full;
+    private final boolean[] used;
+    private int size = 0;
+    private int hand = 0;
+    private long hits = 0;
+    private long misses = 0;
+    private long evictions = 0;
+
+    public MemoCache(int arity, int maxEntries) {
+        this.arity = arity;
+        this.maxEntries = Math.max(1, maxEntries);
+        int capacity = Integer.highestOneBit(this.maxEntries) << 2;
+        mask = capacity - 1;
+        keys = new int[capacity * arity];
+        values = new int[capacity];
+        full = new boolean[capacity];
+        used = new boolean[capacity];
+    }
+
+    //Slot holding the result for args, or -1; counts a hit or a miss
+    public int find(int[] args) {
+        for (int slot = hash(args) & mask; full[slot]; slot = (slot + 1) & mask) {
+            if (matches(slot, args)) {
+                used[slot] = true;
+                hits += 1;
+                return slot;
+            }
+        }
+        misses += 1;
+        return -1;
+    }
+
+    public int valueAt(int slot) {
+        return values[slot];
+    }
+
+    //Records the result for args, which must not be in the table; evicts one entry if it is full
+    public void put(int[] args, int value) {
+        if (size == maxEntries)
+            evict();
+        int slot = hash(args) & mask;
+        while (full[slot])
+            slot = (slot + 1) & mask;
+        System.arraycopy(args, 0, keys, slot * arity, arity);
+        values[slot] = value;
+        full[slot] = true;
+        used[slot] = false;
+        size += 1;
+    }
+
+    private void evict() {
+        while (true) {
+            if (full[hand] && !used[hand]) {
+                remove(hand);
+                evictions += 1;
+                hand = (hand + 1) & mask;
+                return;
+            }
+            used[hand] = false;
+            hand = (hand + 1) & mask;
+        }
+    }
+
+    //Empties a slot and moves back any later entry of the run that would no longer be found past the gap
+    private void remove(int slot) {
+        full[slot] = false;
+        size -= 1;
+        int gap = slot;
+        for (int next = (slot + 1) & mask; full[next]; next = (next + 1) & mask) {
+            int home = hashAt(next) & mask;
+            //Move the entry if its home is not cyclically within (gap, next]
+            if (((next - home) & mask) >= ((next - gap) & mask)) {
+                System.arraycopy(keys, next * arity, keys, gap * arity, arity);
+                values[gap] = values[next];
+                used[gap] = used[next];
+                full[gap] = true;
+                full[next] = false;
+                gap = next;
+            }
+        }
+    }
+
+    private boolean matches(int slot, int[] args) {
+        int base = slot * arity;
+        for (int i = 0; i < arity; i++)
+            if (keys[base + i] != args[i])
+                return false;
+        return true;
+    }
+
+    private int hash(int[] args) {
+        int h = arity;
+        for (int i = 0; i < arity; i++)
+            h = h * 0x9E3779B1 + args[i];
+        return mix(h);
+    }
+
+    private int hashAt(int slot) {
+        int h = arity;
+        int base = slot * arity;
+        for (int i = 0; i < arity; i++)
+            h = h * 0x9E3779B1 + keys[base + i];
+        return mix(h);
+    }
+
+    private static int mix(int h) {
+        h ^= h >>> 16;
+        h *= 0x85EBCA6B;
+        h ^= h >>> 13;
+        return h;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    public long getMisses() {
+        return misses;
+    }
+
+    public long getEvictions() {
+        return evictions;
+    }
+
+    public double hitRate() {
+        return hits + misses == 0 ? 0 : (double) hits / (hits + misses);
+    }
+}
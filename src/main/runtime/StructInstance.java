@@ -0,0 +1,51 @@
+package main.runtime;
+
+//One struct value laid out by its StructShape. Members are addressed by layout index; the kind of the member
+//is not checked, the type checker has already made sure an int member is only read as an int.
+public class StructInstance {
+    private static final int[] NO_WORDS = new int[0];
+    private static final Object[] NO_REFS = new Object[0];
+
+    private final StructShape shape;
+    private final int[] slab;
+    private final Object[] refs;
+
+    StructInstance(StructShape shape) {
+        this.shape = shape;
+        this.slab = shape.getSlabWords() == 0 ? NO_WORDS : new int[shape.getSlabWords()];
+        this.refs = shape.getRefs() == 0 ? NO_REFS : new Object[shape.getRefs()];
+    }
+
+    public StructShape getShape() {
+        return shape;
+    }
+
+    public int getInt(int member) {
+        return slab[shape.getOffset(member)];
+    }
+
+    public void setInt(int member, int value) {
+        slab[shape.getOffset(member)] = value;
+    }
+
+    public boolean getBool(int member) {
+        int bit = shape.getOffset(member);
+        return (slab[bit >>> 5] & (1 << bit)) != 0;
+    }
+
+    public void setBool(int member, boolean value) {
+        int bit = shape.getOffset(member);
+        if (value)
+            slab[bit >>> 5] |= 1 << bit;
+        else
+            slab[bit >>> 5] &= ~(1 << bit);
+    }
+
+    public Object getRef(int member) {
+        return refs[shape.getOffset(member)];
+    }
+
+    public void setRef(int member, Object value) {
+        refs[shape.getOffset(member)] = value;
+    }
+}
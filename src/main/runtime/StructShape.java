@@ -0,0 +1,104 @@
+package main.runtime;
+
+import main.ast.nodes.Program;
+import main.ast.nodes.declaration.struct.StructDeclaration;
+import main.ast.types.Type;
+import main.ast.types.primitives.BoolType;
+import main.ast.types.primitives.IntType;
+import main.symbolTable.StructLayout;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+
+//Storage plan of one struct for the runtime, made from the members in StructLayout order, so a member is
+//addressed by the index StructAccess.getMemberIndex() gives. An instance holds its int members unboxed
+//one per word of an int[] slab, its bool members packed 32 to a word after them, and everything else
+//(lists, structs, function pointers) in an Object[].
+public class StructShape {
+    public static final byte INT = 0;
+    public static final byte BOOL = 1;
+    public static final byte REF = 2;
+
+    private final String name;
+    private final String[] members;
+    private final byte[] kinds;
+    //Word of the slab for INT, bit of the packed bool words for BOOL, slot of the reference array for REF
+    private final int[] offsets;
+    private final int ints;
+    private final int slabWords;
+    private final int refs;
+
+    public StructShape(StructDeclaration structDec) {
+        this.name = structDec.getStructName().getName();
+        Map<String, Type> types = StructLayout.declaredTypes(structDec);
+        members = types.keySet().toArray(new String[0]);
+        kinds = new byte[members.length];
+        offsets = new int[members.length];
+        int ints = 0, bools = 0, refs = 0;
+        for (int i = 0; i < members.length; i++) {
+            Type type = types.get(members[i]);
+            if (type instanceof IntType) {
+                kinds[i] = INT;
+                offsets[i] = ints++;
+            } else if (type instanceof BoolType) {
+                kinds[i] = BOOL;
+                offsets[i] = bools++;
+            } else {
+                kinds[i] = REF;
+                offsets[i] = refs++;
+            }
+        }
+        for (int i = 0; i < members.length; i++) {
+            if (kinds[i] == BOOL)
+                offsets[i] += ints * 32;
+        }
+        this.ints = ints;
+        this.slabWords = ints + (bools + 31) / 32;
+        this.refs = refs;
+    }
+
+    //Shapes of every struct of a program, by struct name
+    public static HashMap<String, StructShape> of(Program program) {
+        HashMap<String, StructShape> shapes = new HashMap<>();
+        for (StructDeclaration structDec : program.getStructs())
+            shapes.putIfAbsent(structDec.getStructName().getName(), new StructShape(structDec));
+        return shapes;
+    }
+
+    public StructInstance newInstance() {
+        return new StructInstance(this);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int size() {
+        return members.length;
+    }
+
+    public String getMember(int member) {
+        return members[member];
+    }
+
+    public byte getKind(int member) {
+        return kinds[member];
+    }
+
+    public int getOffset(int member) {
+        return offsets[member];
+    }
+
+    public int getInts() {
+        return ints;
+    }
+
+    public int getSlabWords() {
+        return slabWords;
+    }
+
+    public int getRefs() {
+        return refs;
+    }
+}
@@ -0,0 +1,282 @@
+package main.scanner;
+
+import org.antlr.v4.runtime.ANTLRErrorListener;
+import parsers.CmmLexer;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+//Hand-written scanner for the tokens of Cmm.g4, over the UTF-8 bytes of a file. It gives the same tokens as
+//CmmLexer (see ScannerConformance) without the ATN simulation or a Token object per token:
+//tokens are packed into one int array, STRIDE ints each, holding kind and length, byte offset and line.
+//ScannerTokenSource turns them into tokens for CmmParser.
+public class CmmScanner {
+    public static final int STRIDE = 3;
+    private static final int KIND_BITS = 8;
+    private static final int KIND_MASK = (1 << KIND_BITS) - 1;
+
+    private static final String[] KEYWORDS = {"main", "return", "void", "size", "display", "append", "if", "else",
+            "true", "false", "begin", "end", "int", "bool", "list", "struct", "fptr", "get", "set", "while", "do"};
+    private static final int[] KEYWORD_KINDS = {CmmLexer.MAIN, CmmLexer.RETURN, CmmLexer.VOID, CmmLexer.SIZE,
+            CmmLexer.DISPLAY, CmmLexer.APPEND, CmmLexer.IF, CmmLexer.ELSE, CmmLexer.TRUE, CmmLexer.FALSE,
+            CmmLexer.BEGIN, CmmLexer.END, CmmLexer.INT, CmmLexer.BOOL, CmmLexer.LIST, CmmLexer.STRUCT,
+            CmmLexer.FPTR, CmmLexer.GET, CmmLexer.SET, CmmLexer.WHILE, CmmLexer.DO};
+    //Text of every token kind with a fixed spelling, so those tokens need no string of their own
+    private static final String[] LITERALS = new String[CmmLexer.VOCABULARY.getMaxTokenType() + 1];
+
+    static {
+        for (int kind = 1; kind < LITERALS.length; kind++) {
+            String literal = CmmLexer.VOCABULARY.getLiteralName(kind);
+            if (literal != null)
+                LITERALS[kind] = literal.substring(1, literal.length() - 1).replace("\\n", "\n");
+        }
+    }
+
+    private final byte[] input;
+    private final String sourceName;
+    private ANTLRErrorListener errorListener;
+    private int[] tokens;
+    private int count;
+    //Byte offset where each line starts, line 1 first
+    private int[] lineStarts;
+    private int lines;
+    //Once a comment is found unclosed, every later one is too
+    private int unclosedFrom;
+    //Without multi-byte characters a column is just the distance from the line start
+    private boolean ascii;
+
+    public CmmScanner(byte[] input, String sourceName) {
+        this.input = input;
+        this.sourceName = sourceName;
+    }
+
+    public static CmmScanner fromFile(Path path) throws IOException {
+        return new CmmScanner(Files.readAllBytes(path), path.toString());
+    }
+
+    //Characters no token starts with are reported here, as CmmLexer reports them, and skipped
+    public void setErrorListener(ANTLRErrorListener errorListener) {
+        this.errorListener = errorListener;
+    }
+
+    public String getSourceName() {
+        return sourceName;
+    }
+
+    public byte[] getInput() {
+        return input;
+    }
+
+    //Scans the whole input and returns the number of tokens, the closing EOF token included
+    public int scan() {
+        tokens = new int[Math.max(64, input.length / 4) * STRIDE];
+        count = 0;
+        lineStarts = new int[Math.max(16, input.length / 16)];
+        lines = 1;
+        unclosedFrom = Integer.MAX_VALUE;
+        ascii = true;
+        int pos = 0;
+        int line = 1;
+        int end = input.length;
+        while (pos < end) {
+            int c = input[pos];
+            int start = pos;
+            int kind;
+            switch (c) {
+                case ' ': case '\t': case '\r':
+                    pos += 1;
+                    continue;
+                case '\n':
+                    add(CmmLexer.NEWLINE, start, 1, line);
+                    line += 1;
+                    pos += 1;
+                    addLine(pos);
+                    continue;
+                case '/':
+                    if (pos + 1 < end && input[pos + 1] == '*') {
+                        int close = commentEnd(pos + 2);
+                        if (close >= 0) {
+                            //Comments are skipped, but the lines in them still count
+                            for (int i = pos + 2; i < close; i++) {
+                                if (input[i] == '\n') {
+                                    line += 1;
+                                    addLine(i + 1);
+                                } else if (input[i] < 0) {
+                                    ascii = false;
+                                }
+                            }
+                            pos = close;
+                            continue;
+                        }
+                    }
+                    kind = CmmLexer.DIVIDE;
+                    break;
+                case '+': kind = CmmLexer.PLUS; break;
+                case '*': kind = CmmLexer.MULT; break;
+                case '-':
+                    kind = pos + 1 < end && input[pos + 1] == '>' ? CmmLexer.ARROW : CmmLexer.MINUS;
+                    break;
+                case '=':
+                    kind = pos + 1 < end && input[pos + 1] == '=' ? CmmLexer.EQUAL : CmmLexer.ASSIGN;
+                    break;
+                case '>': kind = CmmLexer.GREATER_THAN; break;
+                case '<': kind = CmmLexer.LESS_THAN; break;
+                case '&': kind = CmmLexer.AND; break;
+                case '|': kind = CmmLexer.OR; break;
+                case '~': kind = CmmLexer.NOT; break;
+                case '#': kind = CmmLexer.SHARP; break;
+                case '(': kind = CmmLexer.LPAR; break;
+                case ')': kind = CmmLexer.RPAR; break;
+                case '[': kind = CmmLexer.LBRACK; break;
+                case ']': kind = CmmLexer.RBRACK; break;
+                case ',': kind = CmmLexer.COMMA; break;
+                case '.': kind = CmmLexer.DOT; break;
+                case ';': kind = CmmLexer.SEMICOLON; break;
+                default:
+                    if (c == '0') {
+                        //INT_VALUE is '0' | [1-9][0-9]*, so a leading zero is a token of its own
+                        add(CmmLexer.INT_VALUE, start, 1, line);
+                        pos += 1;
+                    } else if (c >= '1' && c <= '9') {
+                        pos += 1;
+                        while (pos < end && input[pos] >= '0' && input[pos] <= '9')
+                            pos += 1;
+                        add(CmmLexer.INT_VALUE, start, pos - start, line);
+                    } else if (isIdentifierStart(c)) {
+                        pos += 1;
+                        while (pos < end && isIdentifierPart(input[pos]))
+                            pos += 1;
+                        add(keyword(start, pos - start), start, pos - start, line);
+                    } else {
+                        ascii &= c >= 0;
+                        pos += codePointLength(c, pos);
+                        error(start, pos, line);
+                    }
+                    continue;
+            }
+            int length = kind == CmmLexer.ARROW || kind == CmmLexer.EQUAL ? 2 : 1;
+            add(kind, start, length, line);
+            pos += length;
+        }
+        add(CmmLexer.EOF & KIND_MASK, end, 0, line);
+        return count;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    //The packed tokens themselves, for callers that walk them without the accessors
+    public int[] getTokens() {
+        return tokens;
+    }
+
+    public int kind(int token) {
+        int kind = tokens[token * STRIDE] & KIND_MASK;
+        return kind == (CmmLexer.EOF & KIND_MASK) ? CmmLexer.EOF : kind;
+    }
+
+    public int length(int token) {
+        return tokens[token * STRIDE] >>> KIND_BITS;
+    }
+
+    public int offset(int token) {
+        return tokens[token * STRIDE + 1];
+    }
+
+    public int line(int token) {
+        return tokens[token * STRIDE + 2];
+    }
+
+    //Counted in code points from the start of the line, as CmmLexer counts them
+    public int column(int token) {
+        int lineStart = lineStarts[line(token) - 1];
+        return ascii ? offset(token) - lineStart : codePoints(lineStart, offset(token));
+    }
+
+    public String text(int token) {
+        int kind = kind(token);
+        if (kind == CmmLexer.EOF)
+            return "<EOF>";
+        if (LITERALS[kind] != null)
+            return LITERALS[kind];
+        return new String(input, offset(token), length(token), StandardCharsets.ISO_8859_1);
+    }
+
+    private void add(int kind, int offset, int length, int line) {
+        if (count * STRIDE == tokens.length)
+            tokens = Arrays.copyOf(tokens, tokens.length * 2);
+        int at = count * STRIDE;
+        tokens[at] = kind | length << KIND_BITS;
+        tokens[at + 1] = offset;
+        tokens[at + 2] = line;
+        count += 1;
+    }
+
+    private void addLine(int start) {
+        if (lines == lineStarts.length)
+            lineStarts = Arrays.copyOf(lineStarts, lineStarts.length * 2);
+        lineStarts[lines++] = start;
+    }
+
+    //Offset just past the "*/" closing a comment whose text starts at from, or -1 if it is never closed
+    private int commentEnd(int from) {
+        if (from >= unclosedFrom)
+            return -1;
+        for (int i = from; i + 1 < input.length; i++) {
+            if (input[i] == '*' && input[i + 1] == '/')
+                return i + 2;
+        }
+        unclosedFrom = from;
+        return -1;
+    }
+
+    private int keyword(int start, int length) {
+        for (int i = 0; i < KEYWORDS.length; i++) {
+            String keyword = KEYWORDS[i];
+            if (keyword.length() != length)
+                continue;
+            int j = 0;
+            while (j < length && input[start + j] == keyword.charAt(j))
+                j += 1;
+            if (j == length)
+                return KEYWORD_KINDS[i];
+        }
+        return CmmLexer.IDENTIFIER;
+    }
+
+    private static boolean isIdentifierStart(int c) {
+        return c >= 'a' && c <= 'z' || c >= 'A' && c <= 'Z' || c == '_';
+    }
+
+    private static boolean isIdentifierPart(int c) {
+        return isIdentifierStart(c) || c >= '0' && c <= '9';
+    }
+
+    //Bytes in the UTF-8 sequence starting with lead, cut short at the end of the input
+    private int codePointLength(int lead, int pos) {
+        int length = (lead & 0xE0) == 0xC0 ? 2 : (lead & 0xF0) == 0xE0 ? 3 : (lead & 0xF8) == 0xF0 ? 4 : 1;
+        return Math.min(length, input.length - pos);
+    }
+
+    private int codePoints(int from, int to) {
+        int codePoints = 0;
+        for (int i = from; i < to; i++) {
+            if ((input[i] & 0xC0) != 0x80)
+                codePoints += 1;
+        }
+        return codePoints;
+    }
+
+    private void error(int start, int end, int line) {
+        if (errorListener == null)
+            return;
+        String text = new String(input, start, end - start, StandardCharsets.UTF_8)
+                .replace("\n", "\\n").replace("\r", "\\r").replace("\t", "\\t");
+        errorListener.syntaxError(null, null, line, codePoints(lineStarts[line - 1], start),
+                "token recognition error at: '" + text + "'", null);
+    }
+}
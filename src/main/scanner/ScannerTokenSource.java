@@ -0,0 +1,81 @@
+package main.scanner;
+
+import org.antlr.v4.runtime.*;
+import org.antlr.v4.runtime.misc.Pair;
+
+//Feeds CmmScanner's packed tokens to CmmParser through a CommonTokenStream. A CommonToken is made only
+//as the stream asks for the next one; start and stop indexes are byte offsets rather than code point ones.
+public class ScannerTokenSource implements TokenSource {
+    //Text is read from the scanner's bytes when first asked for, as CmmLexer's tokens read it from their CharStream
+    private static class PackedToken extends CommonToken {
+        private final CmmScanner scanner;
+        private final int token;
+
+        PackedToken(Pair<TokenSource, CharStream> source, CmmScanner scanner, int token) {
+            super(source, scanner.kind(token), Token.DEFAULT_CHANNEL, scanner.offset(token),
+                    scanner.offset(token) + scanner.length(token) - 1);
+            this.scanner = scanner;
+            this.token = token;
+        }
+
+        @Override
+        public String getText() {
+            if (text == null)
+                text = scanner.text(token);
+            return text;
+        }
+    }
+
+    private final CmmScanner scanner;
+    private final Pair<TokenSource, CharStream> source;
+    private TokenFactory<?> tokenFactory = CommonTokenFactory.DEFAULT;
+    private int next = 0;
+
+    //Scans the input now if that has not been done yet
+    public ScannerTokenSource(CmmScanner scanner) {
+        this.scanner = scanner;
+        this.source = new Pair<>(this, null);
+        if (scanner.getTokens() == null)
+            scanner.scan();
+    }
+
+    @Override
+    public Token nextToken() {
+        int token = Math.min(next, scanner.getCount() - 1);
+        next += 1;
+        PackedToken packedToken = new PackedToken(source, scanner, token);
+        packedToken.setLine(scanner.line(token));
+        packedToken.setCharPositionInLine(scanner.column(token));
+        return packedToken;
+    }
+
+    @Override
+    public int getLine() {
+        return scanner.line(Math.min(next, scanner.getCount() - 1));
+    }
+
+    @Override
+    public int getCharPositionInLine() {
+        return scanner.column(Math.min(next, scanner.getCount() - 1));
+    }
+
+    @Override
+    public CharStream getInputStream() {
+        return null;
+    }
+
+    @Override
+    public String getSourceName() {
+        return scanner.getSourceName();
+    }
+
+    @Override
+    public void setTokenFactory(TokenFactory<?> factory) {
+        this.tokenFactory = factory;
+    }
+
+    @Override
+    public TokenFactory<?> getTokenFactory() {
+        return tokenFactory;
+    }
+}
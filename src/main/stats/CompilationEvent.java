@@ -0,0 +1,22 @@
+package main.stats;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+//Counters of one whole compile, recorded only while a JFR recording has cmm.Compilation enabled
+@Name("cmm.Compilation")
+@Label("Compilation")
+@Category("Cmm")
+@Description("AST size and symbol table activity of one compile")
+public class CompilationEvent extends jdk.jfr.Event {
+    @Label("AST Nodes")
+    long nodes;
+
+    @Label("Symbol Table Lookups")
+    long lookups;
+
+    @Label("Scope Pushes")
+    long scopePushes;
+}
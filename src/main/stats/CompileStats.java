@@ -0,0 +1,158 @@
+package main.stats;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Locale;
+
+//Wall time, CPU time and allocated bytes of each compiler phase, plus a few counters over the whole compile.
+//Phases are measured on the compiling thread only; work handed to other threads is not included.
+public class CompileStats {
+    //Held apart so that a disabled CompileStats never loads the management or JFR classes
+    private static class Threads {
+        private static final com.sun.management.ThreadMXBean bean =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    }
+
+    public static class PhaseStats {
+        private final String name;
+        private final long wallNanos;
+        private final long cpuNanos;
+        private final long allocatedBytes;
+
+        public PhaseStats(String name, long wallNanos, long cpuNanos, long allocatedBytes) {
+            this.name = name;
+            this.wallNanos = wallNanos;
+            this.cpuNanos = cpuNanos;
+            this.allocatedBytes = allocatedBytes;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public long getWallNanos() {
+            return wallNanos;
+        }
+
+        public long getCpuNanos() {
+            return cpuNanos;
+        }
+
+        public long getAllocatedBytes() {
+            return allocatedBytes;
+        }
+    }
+
+    private final boolean enabled;
+    private final ArrayList<PhaseStats> phases = new ArrayList<>();
+    private String phase;
+    private PhaseEvent event;
+    private long startWall, startCpu, startBytes;
+    private long nodes;
+    private long lookups;
+    private long scopePushes;
+
+    public CompileStats() {
+        this(true);
+    }
+
+    public CompileStats(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void startPhase(String name) {
+        if (!enabled)
+            return;
+        phase = name;
+        event = new PhaseEvent();
+        event.phase = name;
+        event.begin();
+        long thread = Thread.currentThread().getId();
+        startBytes = Threads.bean.getThreadAllocatedBytes(thread);
+        startCpu = Threads.bean.getThreadCpuTime(thread);
+        startWall = System.nanoTime();
+    }
+
+    public void endPhase() {
+        if (!enabled)
+            return;
+        long wall = System.nanoTime() - startWall;
+        long thread = Thread.currentThread().getId();
+        long cpu = Threads.bean.getThreadCpuTime(thread) - startCpu;
+        long bytes = Threads.bean.getThreadAllocatedBytes(thread) - startBytes;
+        event.end();
+        if (event.shouldCommit()) {
+            event.cpuTime = cpu;
+            event.allocated = bytes;
+            event.commit();
+        }
+        phases.add(new PhaseStats(phase, wall, cpu, bytes));
+        phase = null;
+        event = null;
+    }
+
+    //For a phase that ran nested inside others and was only timed on the wall clock
+    public void addNestedPhase(String name, long wallNanos) {
+        if (!enabled)
+            return;
+        phases.add(new PhaseStats(name, wallNanos, -1, -1));
+    }
+
+    public ArrayList<PhaseStats> getPhases() {
+        return phases;
+    }
+
+    public long getNodes() {
+        return nodes;
+    }
+
+    public void setNodes(long nodes) {
+        this.nodes = nodes;
+    }
+
+    public long getLookups() {
+        return lookups;
+    }
+
+    public void setLookups(long lookups) {
+        this.lookups = lookups;
+    }
+
+    public long getScopePushes() {
+        return scopePushes;
+    }
+
+    public void setScopePushes(long scopePushes) {
+        this.scopePushes = scopePushes;
+    }
+
+    public void commitEvent() {
+        if (!enabled)
+            return;
+        CompilationEvent compilation = new CompilationEvent();
+        if (!compilation.shouldCommit())
+            return;
+        compilation.nodes = nodes;
+        compilation.lookups = lookups;
+        compilation.scopePushes = scopePushes;
+        compilation.commit();
+    }
+
+    public String toJson() {
+        StringBuilder json = new StringBuilder("{\"phases\":[");
+        for (int i = 0; i < phases.size(); i++) {
+            PhaseStats stats = phases.get(i);
+            if (i > 0)
+                json.append(',');
+            json.append(String.format(Locale.ROOT, "{\"name\":\"%s\",\"wallNanos\":%d,\"cpuNanos\":%d,\"allocatedBytes\":%d}",
+                    stats.getName(), stats.getWallNanos(), stats.getCpuNanos(), stats.getAllocatedBytes()));
+        }
+        json.append(String.format(Locale.ROOT, "],\"nodes\":%d,\"lookups\":%d,\"scopePushes\":%d}",
+                nodes, lookups, scopePushes));
+        return json.toString();
+    }
+}
@@ -0,0 +1,26 @@
+package main.stats;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+//One compiler phase, recorded only while a JFR recording has cmm.Phase enabled
+@Name("cmm.Phase")
+@Label("Compiler Phase")
+@Category("Cmm")
+@Description("Duration, CPU time and allocation of one compiler phase")
+public class PhaseEvent extends jdk.jfr.Event {
+    @Label("Phase")
+    String phase;
+
+    @Label("CPU Time")
+    @Timespan
+    long cpuTime;
+
+    @Label("Allocated")
+    @DataAmount
+    long allocated;
+}
@@ -0,0 +1,60 @@
+package main.symbolTable;
+
+//What running a function, getter or setter body can do, counting everything it calls. Lists and structs are
+//not told apart by instance: writing one list element counts as writing every list.
+public class EffectSummary {
+    public static final int READS_LISTS = 1;
+    public static final int READS_STRUCTS = 2;
+    public static final int WRITES_LISTS = 4;
+    public static final int WRITES_STRUCTS = 8;
+    public static final int DISPLAYS = 16;
+    public static final int ALL = READS_LISTS | READS_STRUCTS | WRITES_LISTS | WRITES_STRUCTS | DISPLAYS;
+
+    //For a call whose target is not known
+    public static final EffectSummary UNKNOWN = new EffectSummary(ALL);
+    public static final EffectSummary NONE = new EffectSummary(0);
+
+    private static final String[] NAMES = {"reads lists", "reads structs", "writes lists", "writes structs", "displays"};
+
+    private final int effects;
+
+    public EffectSummary(int effects) {
+        this.effects = effects;
+    }
+
+    public int getEffects() {
+        return effects;
+    }
+
+    public boolean has(int effect) {
+        return (effects & effect) != 0;
+    }
+
+    //Pure bodies may still read lists and structs; their result then depends on the heap as well as the arguments
+    public boolean isPure() {
+        return !has(WRITES_LISTS | WRITES_STRUCTS | DISPLAYS);
+    }
+
+    public boolean readsHeap() {
+        return has(READS_LISTS | READS_STRUCTS);
+    }
+
+    public EffectSummary union(EffectSummary other) {
+        return (effects | other.effects) == effects ? this : new EffectSummary(effects | other.effects);
+    }
+
+    @Override
+    public String toString() {
+        if (effects == 0)
+            return "none";
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < NAMES.length; i++) {
+            if (!has(1 << i))
+                continue;
+            if (text.length() > 0)
+                text.append(", ");
+            text.append(NAMES[i]);
+        }
+        return text.toString();
+    }
+}
@@ -0,0 +1,94 @@
+package main.symbolTable;
+
+import main.ast.nodes.declaration.VariableDeclaration;
+import main.ast.nodes.declaration.struct.StructDeclaration;
+import main.ast.nodes.statement.BlockStmt;
+import main.ast.nodes.statement.SetGetVarDeclaration;
+import main.ast.nodes.statement.Statement;
+import main.ast.nodes.statement.VarDecStmt;
+import main.ast.types.Type;
+import main.symbolTable.items.StructSymbolTableItem;
+import main.symbolTable.items.VariableSymbolTableItem;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+
+//Members of one struct frozen after type checking, in declaration order, each at a dense index.
+//The index of a member is also its slot in SlotResolver's depth 1, so it can serve as a field offset.
+//A layout belongs to the root SymbolTable it was built under, so one kept from an earlier compile is never used.
+public class StructLayout {
+    private final StructSymbolTableItem struct;
+    private final SymbolTable root;
+    private final String[] names;
+    private final VariableSymbolTableItem[] members;
+    private final HashMap<String, Integer> indices = new HashMap<>();
+
+    public StructLayout(StructSymbolTableItem struct, SymbolTable root, ArrayList<VariableSymbolTableItem> members) {
+        this.struct = struct;
+        this.root = root;
+        this.members = members.toArray(new VariableSymbolTableItem[0]);
+        this.names = new String[this.members.length];
+        for (int i = 0; i < this.members.length; i++) {
+            names[i] = this.members[i].getName();
+            indices.put(names[i], i);
+        }
+    }
+
+    //Member names in declaration order; a name declared twice keeps its first place
+    public static ArrayList<String> memberNames(StructDeclaration structDec) {
+        return new ArrayList<>(declaredTypes(structDec).keySet());
+    }
+
+    //Type each member stores, in the same order. For a setter and getter that is the type of its value,
+    //where the symbol table item holds the function pointer type used to call it.
+    public static LinkedHashMap<String, Type> declaredTypes(StructDeclaration structDec) {
+        ArrayList<Statement> statements = new ArrayList<>();
+        if (structDec.getBody() instanceof BlockStmt)
+            statements.addAll(((BlockStmt) structDec.getBody()).getStatements());
+        else
+            statements.add(structDec.getBody());
+        LinkedHashMap<String, Type> types = new LinkedHashMap<>();
+        for (Statement statement : statements) {
+            if (statement instanceof VarDecStmt) {
+                for (VariableDeclaration var : ((VarDecStmt) statement).getVars())
+                    types.putIfAbsent(var.getVarName().getName(), var.getVarType());
+            }
+            if (statement instanceof SetGetVarDeclaration) {
+                SetGetVarDeclaration setGet = (SetGetVarDeclaration) statement;
+                types.putIfAbsent(setGet.getVarName().getName(), setGet.getVarType());
+            }
+        }
+        return types;
+    }
+
+    public StructSymbolTableItem getStruct() {
+        return struct;
+    }
+
+    public SymbolTable getRoot() {
+        return root;
+    }
+
+    public int size() {
+        return members.length;
+    }
+
+    //-1 when the struct has no member of that name
+    public int indexOf(String name) {
+        Integer index = indices.get(name);
+        return index == null ? -1 : index;
+    }
+
+    public String getName(int index) {
+        return names[index];
+    }
+
+    public VariableSymbolTableItem getMember(int index) {
+        return members[index];
+    }
+
+    public Type getType(int index) {
+        return members[index].getType();
+    }
+}
@@ -11,6 +11,7 @@ import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
 
 
 
@@ -18,18 +19,55 @@ public class SymbolTable {
 
     //Start of static members
 
-    public static SymbolTable top;
-    public static SymbolTable root;
-    private static Stack<SymbolTable> stack = new Stack<>();
+    //The scope chain is thread-confined so that independent bodies, and independent compiles, can run in parallel
+    private static final ThreadLocal<ScopeChain> scopeChain = ThreadLocal.withInitial(ScopeChain::new);
+
+    private static class ScopeChain {
+        private SymbolTable root;
+        private SymbolTable top;
+        private final Stack<SymbolTable> stack = new Stack<>();
+    }
+
+    //Process-wide counters read by CompileStats, so concurrent compiles see each other's activity
+    private static final LongAdder lookups = new LongAdder();
+    private static final LongAdder pushes = new LongAdder();
+
+    public static long getLookups() {
+        return lookups.sum();
+    }
+
+    public static long getPushes() {
+        return pushes.sum();
+    }
+
+    public static SymbolTable root() {
+        return scopeChain.get().root;
+    }
+
+    public static void setRoot(SymbolTable root) {
+        scopeChain.get().root = root;
+    }
+
+    //Drops this thread's root and scope chain, so a long-lived thread does not keep an old program reachable
+    public static void reset() {
+        scopeChain.remove();
+    }
+
+    public static SymbolTable top() {
+        return scopeChain.get().top;
+    }
 
     public static void push(SymbolTable symbolTable) {
-        if (top != null)
-            stack.push(top);
-        top = symbolTable;
+        pushes.increment();
+        ScopeChain chain = scopeChain.get();
+        if (chain.top != null)
+            chain.stack.push(chain.top);
+        chain.top = symbolTable;
     }
 
     public static void pop() {
-        top = stack.pop();
+        ScopeChain chain = scopeChain.get();
+        chain.top = chain.stack.pop();
     }
 
     //End of static members
@@ -53,6 +91,7 @@ public class SymbolTable {
     }
 
     public SymbolTableItem getItem(String key) throws ItemNotFoundException {
+        lookups.increment();
         Set<SymbolTable> visitedSymbolTables = new HashSet<>();
         SymbolTable currentSymbolTable = this;
         while((currentSymbolTable != null) && (!visitedSymbolTables.contains(currentSymbolTable))) {
@@ -3,6 +3,7 @@ package main.symbolTable.items;
 
 import main.ast.nodes.declaration.*;
 import main.ast.types.Type;
+import main.symbolTable.EffectSummary;
 import main.symbolTable.SymbolTable;
 
 import java.util.ArrayList;
@@ -13,6 +14,9 @@ public class FunctionSymbolTableItem extends SymbolTableItem {
     private Type returnType;
     private ArrayList<Type> argTypes = new ArrayList<>();
     private SymbolTable FunctionSymbolTable;
+    //Set by EffectAnalyser; for a setter and getter member these are the getter's, and the setter's are kept apart
+    private EffectSummary effects;
+    private EffectSummary setterEffects;
 
     public FunctionSymbolTableItem(FunctionDeclaration FunctionDeclaration) {
         this.FunctionDeclaration = FunctionDeclaration;
@@ -55,6 +59,22 @@ public class FunctionSymbolTableItem extends SymbolTableItem {
         this.FunctionSymbolTable = FunctionSymbolTable;
     }
 
+    public EffectSummary getEffects() {
+        return effects;
+    }
+
+    public void setEffects(EffectSummary effects) {
+        this.effects = effects;
+    }
+
+    public EffectSummary getSetterEffects() {
+        return setterEffects;
+    }
+
+    public void setSetterEffects(EffectSummary setterEffects) {
+        this.setterEffects = setterEffects;
+    }
+
     @Override
     public String getKey() {
         return START_KEY + this.name;
@@ -10,6 +10,7 @@ public class StructSymbolTableItem extends SymbolTableItem {
     public static final String START_KEY = "Struct_";
     private SymbolTable StructSymbolTable;
     private StructDeclaration structDeclaration;
+    private StructLayout layout;
 
     public StructSymbolTableItem(StructDeclaration structDeclaration) {
         this.structDeclaration = structDeclaration;
@@ -22,6 +23,10 @@ public class StructSymbolTableItem extends SymbolTableItem {
     public StructDeclaration getStructDeclaration() { return structDeclaration; }
     public void setStructDeclaration(StructDeclaration structDeclaration) { this.structDeclaration = structDeclaration; }
 
+    //Set once the struct's members are type checked
+    public StructLayout getLayout() { return layout; }
+    public void setLayout(StructLayout layout) { this.layout = layout; }
+
     @Override
     public String getKey() {
         return START_KEY + this.name;
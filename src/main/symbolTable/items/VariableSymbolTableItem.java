@@ -6,9 +6,15 @@ import main.ast.types.Type;
 public class VariableSymbolTableItem extends SymbolTableItem {
     public static String START_KEY = "Var_";
     protected Type type;
+    private final Identifier identifier;
 
     public VariableSymbolTableItem(Identifier id) {
         this.name = id.getName();
+        this.identifier = id;
+    }
+
+    public Identifier getIdentifier() {
+        return identifier;
     }
 
     public Type getType() {
@@ -11,18 +11,61 @@ import main.ast.nodes.expression.values.primitive.BoolValue;
 import main.ast.nodes.expression.values.primitive.IntValue;
 import main.ast.nodes.statement.*;
 import main.compileError.CompileError;
+import main.diagnostics.DiagnosticWriter;
+import main.diagnostics.ErrorLimitReached;
+import main.diagnostics.TextDiagnosticWriter;
 
+import java.io.PrintStream;
 import java.util.ArrayList;
 
-public class ErrorReporter extends Visitor<Integer> {
+public class ErrorReporter extends Visitor<Integer> implements TraversalHook {
+    public static final int NO_LIMIT = Integer.MAX_VALUE;
+
+    private int numberOfErrors = 0;
+    private int reported = 0;
+    private int maxErrors = NO_LIMIT;
+    private final DiagnosticWriter writer;
+
+    public ErrorReporter() {
+        this(System.out);
+    }
+
+    public ErrorReporter(PrintStream out) {
+        this(new TextDiagnosticWriter(out, System.err));
+    }
+
+    public ErrorReporter(DiagnosticWriter writer) {
+        this.writer = writer;
+    }
+
+    //Reporting the maxErrors-th error throws ErrorLimitReached, which ends the pass that found it
+    public void setMaxErrors(int maxErrors) {
+        this.maxErrors = maxErrors;
+    }
+
     private int printErrors(Node node) {
         ArrayList<CompileError> errors = node.flushErrors();
         for(CompileError compileErrorException : errors) {
-            System.out.println(compileErrorException.getMessage());
+            writer.error(compileErrorException);
+            reported += 1;
+            if (reported >= maxErrors)
+                throw new ErrorLimitReached();
         }
         return errors.size();
     }
 
+    //Used when reporting is fused into another walk, see FusedTraversal
+    @Override
+    public void pre(Node node) {
+        numberOfErrors += printErrors(node);
+    }
+
+    public int flushNumberOfErrors() {
+        int numberOfErrors = this.numberOfErrors;
+        this.numberOfErrors = 0;
+        return numberOfErrors;
+    }
+
     @Override
     public Integer visit(Program program) {
         int numOfErrors = printErrors(program);
@@ -158,6 +201,11 @@ public class ErrorReporter extends Visitor<Integer> {
         return numOfErrors;
     }
 
+    @Override
+    public Integer visit(ErrorStatement errorStatement) {
+        return printErrors(errorStatement);
+    }
+
     @Override
     public Integer visit(BinaryExpression binaryExpression) {
        int numOfErrors = printErrors(binaryExpression);
@@ -226,6 +274,11 @@ public class ErrorReporter extends Visitor<Integer> {
         return numOfErrors;
     }
 
+    @Override
+    public Integer visit(ErrorExpression errorExpression) {
+        return printErrors(errorExpression);
+    }
+
     @Override
     public Integer visit(IntValue intValue) {
         return printErrors(intValue);
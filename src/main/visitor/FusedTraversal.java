@@ -0,0 +1,309 @@
+package main.visitor;
+
+import main.ast.nodes.Node;
+import main.ast.nodes.Program;
+import main.ast.nodes.declaration.FunctionDeclaration;
+import main.ast.nodes.declaration.MainDeclaration;
+import main.ast.nodes.declaration.VariableDeclaration;
+import main.ast.nodes.declaration.struct.StructDeclaration;
+import main.ast.nodes.expression.*;
+import main.ast.nodes.expression.values.primitive.BoolValue;
+import main.ast.nodes.expression.values.primitive.IntValue;
+import main.ast.nodes.statement.*;
+
+import java.util.ArrayList;
+
+//Walks a subtree once and runs the pre and post hooks of every registered pass at each node.
+//Pre hooks run in registration order and post hooks in reverse, so passes nest like separate walks would.
+public class FusedTraversal extends KindSwitchVisitor<Void> {
+    private final ArrayList<TraversalHook> hooks = new ArrayList<>();
+    private int traversals = 0;
+    private long nanos = 0;
+
+    public void addHook(TraversalHook hook) {
+        hooks.add(hook);
+    }
+
+    public void run(Node node) {
+        traversals += 1;
+        long start = System.nanoTime();
+        dispatch(node);
+        nanos += System.nanoTime() - start;
+    }
+
+    public int getTraversals() {
+        return traversals;
+    }
+
+    //Wall time spent inside run, for phases that are folded into another pass
+    public long getNanos() {
+        return nanos;
+    }
+
+    public void enter(Node node) {
+        for (TraversalHook hook : hooks)
+            hook.pre(node);
+    }
+
+    public void exit(Node node) {
+        for (int i = hooks.size() - 1; i >= 0; i--)
+            hooks.get(i).post(node);
+    }
+
+    @Override
+    public Void visit(Program program) {
+        enter(program);
+        for (StructDeclaration structDeclaration : program.getStructs())
+            dispatch(structDeclaration);
+        for (FunctionDeclaration functionDeclaration : program.getFunctions())
+            dispatch(functionDeclaration);
+        dispatch(program.getMain());
+        exit(program);
+        return null;
+    }
+
+    @Override
+    public Void visit(FunctionDeclaration functionDec) {
+        enter(functionDec);
+        dispatch(functionDec.getFunctionName());
+        for (VariableDeclaration arg : functionDec.getArgs())
+            dispatch(arg);
+        dispatch(functionDec.getBody());
+        exit(functionDec);
+        return null;
+    }
+
+    @Override
+    public Void visit(MainDeclaration mainDec) {
+        enter(mainDec);
+        dispatch(mainDec.getBody());
+        exit(mainDec);
+        return null;
+    }
+
+    @Override
+    public Void visit(VariableDeclaration variableDec) {
+        enter(variableDec);
+        dispatch(variableDec.getVarName());
+        if (variableDec.getDefaultValue() != null)
+            dispatch(variableDec.getDefaultValue());
+        exit(variableDec);
+        return null;
+    }
+
+    @Override
+    public Void visit(StructDeclaration structDec) {
+        enter(structDec);
+        dispatch(structDec.getStructName());
+        dispatch(structDec.getBody());
+        exit(structDec);
+        return null;
+    }
+
+    @Override
+    public Void visit(SetGetVarDeclaration setGetVarDec) {
+        enter(setGetVarDec);
+        dispatch(setGetVarDec.getVarDec());
+        dispatch(setGetVarDec.getVarName());
+        for (VariableDeclaration varDec : setGetVarDec.getArgs())
+            dispatch(varDec);
+        dispatch(setGetVarDec.getSetterBody());
+        dispatch(setGetVarDec.getGetterBody());
+        exit(setGetVarDec);
+        return null;
+    }
+
+    @Override
+    public Void visit(AssignmentStmt assignmentStmt) {
+        enter(assignmentStmt);
+        dispatch(assignmentStmt.getLValue());
+        dispatch(assignmentStmt.getRValue());
+        exit(assignmentStmt);
+        return null;
+    }
+
+    @Override
+    public Void visit(BlockStmt blockStmt) {
+        enter(blockStmt);
+        for (Statement stmt : blockStmt.getStatements())
+            dispatch(stmt);
+        exit(blockStmt);
+        return null;
+    }
+
+    @Override
+    public Void visit(ConditionalStmt conditionalStmt) {
+        enter(conditionalStmt);
+        dispatch(conditionalStmt.getCondition());
+        dispatch(conditionalStmt.getThenBody());
+        if (conditionalStmt.getElseBody() != null)
+            dispatch(conditionalStmt.getElseBody());
+        exit(conditionalStmt);
+        return null;
+    }
+
+    @Override
+    public Void visit(FunctionCallStmt functionCallStmt) {
+        enter(functionCallStmt);
+        dispatch(functionCallStmt.getFunctionCall());
+        exit(functionCallStmt);
+        return null;
+    }
+
+    @Override
+    public Void visit(DisplayStmt displayStmt) {
+        enter(displayStmt);
+        dispatch(displayStmt.getArg());
+        exit(displayStmt);
+        return null;
+    }
+
+    @Override
+    public Void visit(ReturnStmt returnStmt) {
+        enter(returnStmt);
+        if (returnStmt.getReturnedExpr() != null)
+            dispatch(returnStmt.getReturnedExpr());
+        exit(returnStmt);
+        return null;
+    }
+
+    @Override
+    public Void visit(LoopStmt loopStmt) {
+        enter(loopStmt);
+        dispatch(loopStmt.getCondition());
+        dispatch(loopStmt.getBody());
+        exit(loopStmt);
+        return null;
+    }
+
+    @Override
+    public Void visit(VarDecStmt varDecStmt) {
+        enter(varDecStmt);
+        for (VariableDeclaration varDec : varDecStmt.getVars())
+            dispatch(varDec);
+        exit(varDecStmt);
+        return null;
+    }
+
+    @Override
+    public Void visit(ListAppendStmt listAppendStmt) {
+        enter(listAppendStmt);
+        dispatch(listAppendStmt.getListAppendExpr());
+        exit(listAppendStmt);
+        return null;
+    }
+
+    @Override
+    public Void visit(ListSizeStmt listSizeStmt) {
+        enter(listSizeStmt);
+        dispatch(listSizeStmt.getListSizeExpr());
+        exit(listSizeStmt);
+        return null;
+    }
+
+    @Override
+    public Void visit(ErrorStatement errorStatement) {
+        enter(errorStatement);
+        exit(errorStatement);
+        return null;
+    }
+
+    @Override
+    public Void visit(BinaryExpression binaryExpression) {
+        enter(binaryExpression);
+        dispatch(binaryExpression.getFirstOperand());
+        dispatch(binaryExpression.getSecondOperand());
+        exit(binaryExpression);
+        return null;
+    }
+
+    @Override
+    public Void visit(UnaryExpression unaryExpression) {
+        enter(unaryExpression);
+        dispatch(unaryExpression.getOperand());
+        exit(unaryExpression);
+        return null;
+    }
+
+    @Override
+    public Void visit(FunctionCall funcCall) {
+        enter(funcCall);
+        dispatch(funcCall.getInstance());
+        for (Expression arg : funcCall.getArgs())
+            dispatch(arg);
+        exit(funcCall);
+        return null;
+    }
+
+    @Override
+    public Void visit(Identifier identifier) {
+        enter(identifier);
+        exit(identifier);
+        return null;
+    }
+
+    @Override
+    public Void visit(ListAccessByIndex listAccessByIndex) {
+        enter(listAccessByIndex);
+        dispatch(listAccessByIndex.getInstance());
+        dispatch(listAccessByIndex.getIndex());
+        exit(listAccessByIndex);
+        return null;
+    }
+
+    @Override
+    public Void visit(StructAccess structAccess) {
+        enter(structAccess);
+        dispatch(structAccess.getInstance());
+        dispatch(structAccess.getElement());
+        exit(structAccess);
+        return null;
+    }
+
+    @Override
+    public Void visit(ListSize listSize) {
+        enter(listSize);
+        dispatch(listSize.getArg());
+        exit(listSize);
+        return null;
+    }
+
+    @Override
+    public Void visit(ListAppend listAppend) {
+        enter(listAppend);
+        dispatch(listAppend.getListArg());
+        dispatch(listAppend.getElementArg());
+        exit(listAppend);
+        return null;
+    }
+
+    @Override
+    public Void visit(ExprInPar exprInPar) {
+        enter(exprInPar);
+        for (Expression expression : exprInPar.getInputs())
+            dispatch(expression);
+        exit(exprInPar);
+        return null;
+    }
+
+    @Override
+    public Void visit(ErrorExpression errorExpression) {
+        enter(errorExpression);
+        exit(errorExpression);
+        return null;
+    }
+
+    @Override
+    public Void visit(IntValue intValue) {
+        enter(intValue);
+        exit(intValue);
+        return null;
+    }
+
+    @Override
+    public Void visit(BoolValue boolValue) {
+        enter(boolValue);
+        exit(boolValue);
+        return null;
+    }
+}
@@ -27,6 +27,7 @@ public interface IVisitor<T> {
     T visit(VarDecStmt varDecStmt);
     T visit(ListAppendStmt listAppendStmt);
     T visit(ListSizeStmt listSizeStmt);
+    T visit(ErrorStatement errorStatement);
 
     T visit(BinaryExpression binaryExpression);
     T visit(UnaryExpression unaryExpression);
@@ -37,6 +38,7 @@ public interface IVisitor<T> {
     T visit(ListSize listSize);
     T visit(ListAppend listAppend);
     T visit(ExprInPar exprInPar);
+    T visit(ErrorExpression errorExpression);
 
     T visit(IntValue intValue);
     T visit(BoolValue boolValue);
@@ -0,0 +1,17 @@
+package main.visitor;
+
+import main.ast.nodes.Node;
+
+//Counts the nodes a FusedTraversal walks over
+public class NodeCounter implements TraversalHook {
+    private long count = 0;
+
+    @Override
+    public void pre(Node node) {
+        count += 1;
+    }
+
+    public long getCount() {
+        return count;
+    }
+}
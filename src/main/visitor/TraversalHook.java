@@ -0,0 +1,12 @@
+package main.visitor;
+
+import main.ast.nodes.Node;
+
+//A pass that only needs to see every node once, before and/or after its children, and can share a walk with others
+public interface TraversalHook {
+    default void pre(Node node) {
+    }
+
+    default void post(Node node) {
+    }
+}
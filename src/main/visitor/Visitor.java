@@ -89,6 +89,11 @@ public class Visitor<T> implements IVisitor<T> {
         return null;
     }
 
+    @Override
+    public T visit(ErrorStatement errorStatement) {
+        return null;
+    }
+
     @Override
     public T visit(BinaryExpression binaryExpression) {
         return null;
@@ -143,4 +148,9 @@ public class Visitor<T> implements IVisitor<T> {
     public T visit(ExprInPar exprInPar) {
         return null;
     }
+
+    @Override
+    public T visit(ErrorExpression errorExpression) {
+        return null;
+    }
 }
@@ -150,6 +150,12 @@ public class ASTTreePrinter extends Visitor<Void> {
         return null;
     }
 
+    @Override
+    public Void visit(ErrorStatement errorStatement) {
+        messagePrinter(errorStatement.getLine(), errorStatement.toString());
+        return null;
+    }
+
     @Override
     public Void visit(BinaryExpression binaryExpression) {
         messagePrinter(binaryExpression.getLine(), binaryExpression.toString());
@@ -219,6 +225,12 @@ public class ASTTreePrinter extends Visitor<Void> {
         return null;
     }
 
+    @Override
+    public Void visit(ErrorExpression errorExpression) {
+        messagePrinter(errorExpression.getLine(), errorExpression.toString());
+        return null;
+    }
+
     @Override
     public Void visit(IntValue intValue) {
         messagePrinter(intValue.getLine(), intValue.toString());
@@ -5,33 +5,63 @@ import main.ast.nodes.declaration.struct.*;
 import main.ast.nodes.expression.*;
 import main.ast.nodes.statement.*;
 import main.ast.types.StructType;
+import main.compileError.CompileError;
 import main.compileError.nameError.*;
 import main.symbolTable.SymbolTable;
 import main.symbolTable.exceptions.*;
 import main.symbolTable.items.*;
 
 import main.symbolTable.utils.graph.Graph;
+import main.visitor.FusedTraversal;
 import main.visitor.Visitor;
 
 import java.util.ArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Predicate;
 
 public class NameAnalyser extends Visitor<Void> {
 
+    //Renaming only happens in the sequential global phase, so the generated names do not depend on thread count
     private int newId = 1;
+    private final int threads;
+    private FusedTraversal declarationTraversal;
+    private Predicate<Declaration> bodyFilter = body -> true;
     private boolean firstVisit = true;
     private boolean isInStruct = false;
     private String curStructName;
     private final Graph<String> structHierarchy = new Graph<>();
 
+    public NameAnalyser() {
+        this(1);
+    }
+
+    public NameAnalyser(int threads) {
+        this.threads = threads;
+    }
+
+    //The traversal runs over each top-level declaration as soon as name analysis of it is complete
+    public void setDeclarationTraversal(FusedTraversal declarationTraversal) {
+        this.declarationTraversal = declarationTraversal;
+    }
+
+    //Function and main bodies the filter rejects are skipped; structs and the global phase always run.
+    //Bodies only depend on globals, so one whose text and globals are unchanged can keep its earlier results.
+    public void setBodyFilter(Predicate<Declaration> bodyFilter) {
+        this.bodyFilter = bodyFilter;
+    }
+
     private void createStructSymbolTable(StructDeclaration structDec) {
         SymbolTable newSymbolTable = new SymbolTable();
         StructSymbolTableItem newSymbolTableItem = new StructSymbolTableItem(structDec);
         newSymbolTableItem.setStructSymbolTable(newSymbolTable);
         try {
-            SymbolTable.root.put(newSymbolTableItem);
+            SymbolTable.root().put(newSymbolTableItem);
 
         } catch (ItemAlreadyExistsException e) {
-            DuplicateStruct exception = new DuplicateStruct(structDec.getLine(), structDec.getStructName().getName());
+            CompileError exception = NameErrors.duplicateStruct(structDec.getLine(), structDec.getStructName().getName());
             structDec.addError(exception);
             String newName = newId + "@";
             newId += 1;
@@ -39,7 +69,7 @@ public class NameAnalyser extends Visitor<Void> {
             try {
                 StructSymbolTableItem newStructSym = new StructSymbolTableItem(structDec);
                 newStructSym.setStructSymbolTable(newSymbolTable);
-                SymbolTable.root.put(newStructSym);
+                SymbolTable.root().put(newStructSym);
             } catch (ItemAlreadyExistsException e1) { //Unreachable
             }
         }
@@ -48,17 +78,17 @@ public class NameAnalyser extends Visitor<Void> {
     private void createFunctionSymbolTable(FunctionDeclaration funcDec) {
         FunctionSymbolTableItem newSymbolTableItem = new FunctionSymbolTableItem(funcDec);
         try {
-            SymbolTable.root.put(newSymbolTableItem);
+            SymbolTable.root().put(newSymbolTableItem);
 
         } catch (ItemAlreadyExistsException e) {
-            DuplicateFunction exception = new DuplicateFunction(funcDec.getLine(), funcDec.getFunctionName().getName());
+            CompileError exception = NameErrors.duplicateFunction(funcDec.getLine(), funcDec.getFunctionName().getName());
             funcDec.addError(exception);
             String newName = newId + "@";
             newId += 1;
             funcDec.setFunctionName(new Identifier(newName));
             try {
                 FunctionSymbolTableItem newFuncSym = new FunctionSymbolTableItem(funcDec);
-                SymbolTable.root.put(newFuncSym);
+                SymbolTable.root().put(newFuncSym);
             } catch (ItemAlreadyExistsException e1) { //Unreachable
             }
         }
@@ -66,7 +96,7 @@ public class NameAnalyser extends Visitor<Void> {
 
     private boolean hasConflict(String key) {
         try {
-            SymbolTable.root.getItem(key);
+            SymbolTable.root().getItem(key);
             return true;
         } catch (ItemNotFoundException exception) {
             return false;
@@ -77,7 +107,7 @@ public class NameAnalyser extends Visitor<Void> {
         for(StructDeclaration struct : structs){
             String structName = struct.getStructName().getName();
             if(structHierarchy.isSecondNodeAncestorOf(structName, structName)){
-                CyclicDependency exception = new CyclicDependency(struct.getLine(), structName);
+                CompileError exception = NameErrors.cyclicDependency(struct.getLine(), structName);
                 struct.addError(exception);
             }
         }
@@ -85,8 +115,10 @@ public class NameAnalyser extends Visitor<Void> {
 
     @Override
     public Void visit(Program program) {
+        if (declarationTraversal != null)
+            declarationTraversal.enter(program);
         SymbolTable root = new SymbolTable();
-        SymbolTable.root = root;
+        SymbolTable.setRoot(root);
         SymbolTable.push(root);
         for (StructDeclaration structDec : program.getStructs()) {
             createStructSymbolTable(structDec);
@@ -99,7 +131,7 @@ public class NameAnalyser extends Visitor<Void> {
 
         for (FunctionDeclaration funcDec : program.getFunctions()) {
             if (hasConflict(StructSymbolTableItem.START_KEY + funcDec.getFunctionName().getName())) {
-                FunctionStructConflict exception = new FunctionStructConflict(funcDec.getLine(), funcDec.getFunctionName().getName());
+                CompileError exception = NameErrors.functionStructConflict(funcDec.getLine(), funcDec.getFunctionName().getName());
                 funcDec.addError(exception);
             }
             createFunctionSymbolTable(funcDec);
@@ -108,7 +140,7 @@ public class NameAnalyser extends Visitor<Void> {
         for (StructDeclaration structDec : program.getStructs()) {
             try {
                 String key = StructSymbolTableItem.START_KEY + structDec.getStructName().getName();
-                StructSymbolTableItem structSymbolTableItem = (StructSymbolTableItem) SymbolTable.root.getItem(key);
+                StructSymbolTableItem structSymbolTableItem = (StructSymbolTableItem) SymbolTable.root().getItem(key);
                 SymbolTable.push(structSymbolTableItem.getStructSymbolTable());
                 isInStruct = true;
                 curStructName = structDec.getStructName().getName();
@@ -120,18 +152,60 @@ public class NameAnalyser extends Visitor<Void> {
         }
 
         checkCycle(program.getStructs());
+        for (StructDeclaration structDec : program.getStructs())
+            declarationDone(structDec);
 
-        for (FunctionDeclaration funcDec : program.getFunctions()) {
-            SymbolTable.push(new SymbolTable());
-            funcDec.accept(this);
-            SymbolTable.pop();
+        ArrayList<Declaration> bodies = new ArrayList<>(program.getFunctions());
+        bodies.add(program.getMain());
+        bodies.removeIf(bodyFilter.negate());
+        if (threads > 1) {
+            analyseBodiesInParallel(bodies);
+            for (Declaration body : bodies)
+                declarationDone(body);
+        } else {
+            for (Declaration body : bodies) {
+                analyseBody(body);
+                declarationDone(body);
+            }
         }
 
+        if (declarationTraversal != null)
+            declarationTraversal.exit(program);
+        return null;
+    }
+
+    private void declarationDone(Declaration declaration) {
+        if (declarationTraversal != null)
+            declarationTraversal.run(declaration);
+    }
+
+    //Global structs and functions are fixed by now, so a body only reads root and writes its own scopes
+    private void analyseBody(Declaration declaration) {
         SymbolTable.push(new SymbolTable());
-        program.getMain().accept(this);
+        declaration.accept(this);
         SymbolTable.pop();
+    }
 
-        return null;
+    private void analyseBodiesInParallel(ArrayList<Declaration> bodies) {
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(threads, bodies.size()));
+        SymbolTable root = SymbolTable.root();
+        try {
+            ArrayList<Future<?>> futures = new ArrayList<>();
+            for (Declaration body : bodies)
+                futures.add(executor.submit(() -> {
+                    SymbolTable.setRoot(root);
+                    analyseBody(body);
+                }));
+            for (Future<?> future : futures)
+                future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException(e.getCause());
+        } finally {
+            executor.shutdown();
+        }
     }
 
     @Override
@@ -170,12 +244,12 @@ public class NameAnalyser extends Visitor<Void> {
 
     @Override
     public Void visit(ConditionalStmt conditionalStmt) {
-        SymbolTable ifScope = new SymbolTable(SymbolTable.top);
+        SymbolTable ifScope = new SymbolTable(SymbolTable.top());
         SymbolTable.push(ifScope);
         conditionalStmt.getThenBody().accept(this);
         SymbolTable.pop();
         if (conditionalStmt.getElseBody() != null) {
-            SymbolTable elseScope = new SymbolTable(SymbolTable.top);
+            SymbolTable elseScope = new SymbolTable(SymbolTable.top());
             SymbolTable.push(elseScope);
             conditionalStmt.getElseBody().accept(this);
             SymbolTable.pop();
@@ -185,7 +259,7 @@ public class NameAnalyser extends Visitor<Void> {
 
     @Override
     public Void visit(LoopStmt loopStmt) {
-        SymbolTable loopScope = new SymbolTable(SymbolTable.top);
+        SymbolTable loopScope = new SymbolTable(SymbolTable.top());
         SymbolTable.push(loopScope);
         loopStmt.getBody().accept(this);
         SymbolTable.pop();
@@ -214,7 +288,7 @@ public class NameAnalyser extends Visitor<Void> {
             FunctionSymbolTableItem newItem = new FunctionSymbolTableItem(funcDec);
             newItem.setFunctionSymbolTable(newSym);
             try {
-                SymbolTable.top.put(newItem);
+                SymbolTable.top().put(newItem);
             } catch (ItemAlreadyExistsException e) {
                 setGetVarDeclaration.setVarName(new Identifier(name + "@" + newId));
                 funcDec.setFunctionName(new Identifier(name + "@" + newId));
@@ -222,7 +296,7 @@ public class NameAnalyser extends Visitor<Void> {
                 FunctionSymbolTableItem fSym = new FunctionSymbolTableItem(funcDec);
                 fSym.setFunctionSymbolTable(newSym);
                 try{
-                    SymbolTable.top.put(fSym);
+                    SymbolTable.top().put(fSym);
                 }catch (ItemAlreadyExistsException e2) {//unreachable
                 }
             }
@@ -230,9 +304,9 @@ public class NameAnalyser extends Visitor<Void> {
         else {
             try {
                 String key = FunctionSymbolTableItem.START_KEY + name;
-                FunctionSymbolTableItem fItem = (FunctionSymbolTableItem) SymbolTable.top.getItem(key);
+                FunctionSymbolTableItem fItem = (FunctionSymbolTableItem) SymbolTable.top().getItem(key);
                 SymbolTable sym = fItem.getFunctionSymbolTable();
-                sym.pre = SymbolTable.top;
+                sym.pre = SymbolTable.top();
                 SymbolTable.push(sym);
                 for (VariableDeclaration arg : setGetVarDeclaration.getArgs())
                     arg.accept(this);
@@ -257,23 +331,23 @@ public class NameAnalyser extends Visitor<Void> {
         }
 
         if (hasConflict(StructSymbolTableItem.START_KEY + name)) {
-            VarStructConflict exception = new VarStructConflict(variableDeclaration.getLine(), name);
+            CompileError exception = NameErrors.varStructConflict(variableDeclaration.getLine(), name);
             variableDeclaration.addError(exception);
         }
 
         if (hasConflict(FunctionSymbolTableItem.START_KEY + name)) {
-            VarFunctionConflict exception = new VarFunctionConflict(variableDeclaration.getLine(), name);
+            CompileError exception = NameErrors.varFunctionConflict(variableDeclaration.getLine(), name);
             variableDeclaration.addError(exception);
         }
 
         VariableSymbolTableItem variableSymbolTableItem = new VariableSymbolTableItem(variableDeclaration.getVarName());
         try {
-            SymbolTable.top.getItem(variableSymbolTableItem.getKey());
-            DuplicateVar exception = new DuplicateVar(variableDeclaration.getLine(), name);
+            SymbolTable.top().getItem(variableSymbolTableItem.getKey());
+            CompileError exception = NameErrors.duplicateVar(variableDeclaration.getLine(), name);
             variableDeclaration.addError(exception);
         } catch (ItemNotFoundException exception2) {
             try {
-                SymbolTable.top.put(variableSymbolTableItem);
+                SymbolTable.top().put(variableSymbolTableItem);
             } catch (ItemAlreadyExistsException exception3) { //unreachable
             }
         }
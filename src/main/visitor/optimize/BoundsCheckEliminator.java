@@ -0,0 +1,244 @@
+package main.visitor.optimize;
+
+import main.ast.nodes.Node;
+import main.ast.nodes.declaration.FunctionDeclaration;
+import main.ast.nodes.declaration.MainDeclaration;
+import main.ast.nodes.expression.*;
+import main.ast.nodes.expression.operators.BinaryOperator;
+import main.ast.nodes.expression.operators.UnaryOperator;
+import main.ast.nodes.expression.values.primitive.IntValue;
+import main.ast.nodes.statement.AssignmentStmt;
+import main.ast.nodes.statement.LoopStmt;
+import main.ast.types.ListType;
+import main.symbolTable.items.VariableSymbolTableItem;
+import main.visitor.FusedTraversal;
+import main.visitor.TraversalHook;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+
+//Marks l[i] as needing no bounds check inside while loops whose condition has both i < size(l) and a lower bound
+//i > -1, -1 < i or ~(i < 0) among its & conjuncts (-1 may also be written 0 - 1), where:
+//- i is a local, so the condition proves 0 <= i < size(l) at the start of each iteration;
+//- the access comes before any statement of the iteration assigns to i or to l, in source order, which is execution
+//  order since the body has no jumps. Appending to l only makes it longer, so it does not matter;
+//- no loop nested in the body assigns to i or l, since its iterations would repeat the access after the assignment,
+//  and no assignment to them is buried inside an expression, where evaluation order would matter.
+//Runs per function and main; do...while loops are skipped, their first iteration runs before the condition.
+public class BoundsCheckEliminator implements TraversalHook {
+    private int loopAccesses = 0;
+    private int checkFree = 0;
+
+    @Override
+    public void post(Node node) {
+        if (node instanceof FunctionDeclaration || node instanceof MainDeclaration)
+            analyse(node);
+    }
+
+    private void analyse(Node declaration) {
+        ArrayList<Node> nodes = nodesOf(declaration);
+        IdentityHashMap<Node, Boolean> inLoops = new IdentityHashMap<>();
+        for (Node node : nodes) {
+            if (node instanceof LoopStmt)
+                for (Node bodyNode : nodesOf(((LoopStmt) node).getBody()))
+                    if (bodyNode instanceof ListAccessByIndex)
+                        inLoops.put(bodyNode, true);
+            if (!(node instanceof LoopStmt) || ((LoopStmt) node).isDoWhile())
+                continue;
+            LoopStmt loop = (LoopStmt) node;
+            ArrayList<Node> body = nodesOf(loop.getBody());
+            ArrayList<Expression> conjuncts = new ArrayList<>();
+            conjunctsOf(loop.getCondition(), conjuncts);
+            for (Expression conjunct : conjuncts) {
+                Identifier[] bound = boundOf(conjunct);
+                if (bound == null || !hasLowerBound(conjuncts, bound[0]))
+                    continue;
+                if (assigns(nodesOf(loop.getCondition()), bound) || assignsInNestedLoop(body, bound)
+                        || assignsInExpression(body, bound))
+                    continue;
+                markAccesses(body, bound);
+            }
+        }
+        loopAccesses += inLoops.size();
+    }
+
+    //Marks l[i] accesses up to the first statement assigning to i or l
+    private void markAccesses(ArrayList<Node> body, Identifier[] bound) {
+        for (Node node : body) {
+            Expression[] assignment = assignmentOf(node);
+            if (assignment != null && isOneOf(symbolOf(assignment[0]), bound))
+                return;
+            if (node instanceof ListAccessByIndex) {
+                ListAccessByIndex access = (ListAccessByIndex) node;
+                if (!access.isCheckFree() && symbolOf(access.getInstance()) == bound[1] && symbolOf(access.getIndex()) == bound[0]) {
+                    access.setCheckFree(true);
+                    checkFree += 1;
+                }
+            }
+        }
+    }
+
+    private boolean assignsInNestedLoop(ArrayList<Node> body, Identifier[] bound) {
+        for (Node node : body)
+            if (node instanceof LoopStmt && assigns(nodesOf(node), bound))
+                return true;
+        return false;
+    }
+
+    private static boolean assignsInExpression(ArrayList<Node> body, Identifier[] bound) {
+        for (Node node : body)
+            if (node instanceof BinaryExpression && assignmentOf(node) != null && isOneOf(symbolOf(assignmentOf(node)[0]), bound))
+                return true;
+        return false;
+    }
+
+    private static boolean assigns(ArrayList<Node> nodes, Identifier[] bound) {
+        for (Node node : nodes) {
+            Expression[] assignment = assignmentOf(node);
+            if (assignment != null && isOneOf(symbolOf(assignment[0]), bound))
+                return true;
+        }
+        return false;
+    }
+
+    private static boolean isOneOf(Identifier symbol, Identifier[] bound) {
+        return symbol != null && (symbol == bound[0] || symbol == bound[1]);
+    }
+
+    //{i, l} for a condition i < size(l) or size(l) > i, keyed by declaring identifiers
+    private static Identifier[] boundOf(Expression condition) {
+        if (!(condition instanceof BinaryExpression))
+            return null;
+        BinaryExpression binary = (BinaryExpression) condition;
+        Expression index, size;
+        if (binary.getBinaryOperator() == BinaryOperator.lt) {
+            index = binary.getFirstOperand();
+            size = binary.getSecondOperand();
+        } else if (binary.getBinaryOperator() == BinaryOperator.gt) {
+            index = binary.getSecondOperand();
+            size = binary.getFirstOperand();
+        } else {
+            return null;
+        }
+        if (!(size instanceof ListSize))
+            return null;
+        Expression list = ((ListSize) size).getArg();
+        if (symbolOf(index) == null || symbolOf(list) == null
+                || !(((VariableSymbolTableItem) ((Identifier) list).getSymbol()).getType() instanceof ListType))
+            return null;
+        return new Identifier[]{symbolOf(index), symbolOf(list)};
+    }
+
+    private static void conjunctsOf(Expression condition, ArrayList<Expression> conjuncts) {
+        if (condition instanceof BinaryExpression && ((BinaryExpression) condition).getBinaryOperator() == BinaryOperator.and) {
+            conjunctsOf(((BinaryExpression) condition).getFirstOperand(), conjuncts);
+            conjunctsOf(((BinaryExpression) condition).getSecondOperand(), conjuncts);
+        } else {
+            conjuncts.add(condition);
+        }
+    }
+
+    private static boolean hasLowerBound(ArrayList<Expression> conjuncts, Identifier index) {
+        for (Expression conjunct : conjuncts)
+            if (isLowerBound(conjunct, index))
+                return true;
+        return false;
+    }
+
+    //i > c, c < i with a constant c <= -1, or ~(i < 0), ~(0 > i)
+    private static boolean isLowerBound(Expression condition, Identifier index) {
+        condition = unwrap(condition);
+        if (condition instanceof UnaryExpression && ((UnaryExpression) condition).getOperator() == UnaryOperator.not) {
+            Expression negated = unwrap(((UnaryExpression) condition).getOperand());
+            if (!(negated instanceof BinaryExpression))
+                return false;
+            BinaryExpression binary = (BinaryExpression) negated;
+            Expression first = binary.getFirstOperand();
+            Expression second = binary.getSecondOperand();
+            return (binary.getBinaryOperator() == BinaryOperator.lt && symbolOf(first) == index && isConstant(second, 0))
+                    || (binary.getBinaryOperator() == BinaryOperator.gt && isConstant(first, 0) && symbolOf(second) == index);
+        }
+        if (!(condition instanceof BinaryExpression))
+            return false;
+        BinaryExpression binary = (BinaryExpression) condition;
+        Expression variable, limit;
+        if (binary.getBinaryOperator() == BinaryOperator.gt) {
+            variable = binary.getFirstOperand();
+            limit = binary.getSecondOperand();
+        } else if (binary.getBinaryOperator() == BinaryOperator.lt) {
+            variable = binary.getSecondOperand();
+            limit = binary.getFirstOperand();
+        } else {
+            return false;
+        }
+        Integer constant = constantOf(limit);
+        return symbolOf(variable) == index && constant != null && constant <= -1;
+    }
+
+    private static boolean isConstant(Expression expression, int value) {
+        Integer constant = constantOf(expression);
+        return constant != null && constant == value;
+    }
+
+    //Value of an int literal, -literal or literal - literal, or null
+    private static Integer constantOf(Expression expression) {
+        expression = unwrap(expression);
+        if (expression instanceof IntValue)
+            return ((IntValue) expression).getConstant();
+        if (expression instanceof UnaryExpression && ((UnaryExpression) expression).getOperator() == UnaryOperator.minus) {
+            Integer operand = constantOf(((UnaryExpression) expression).getOperand());
+            return operand == null ? null : -operand;
+        }
+        if (expression instanceof BinaryExpression && ((BinaryExpression) expression).getBinaryOperator() == BinaryOperator.sub) {
+            Integer first = constantOf(((BinaryExpression) expression).getFirstOperand());
+            Integer second = constantOf(((BinaryExpression) expression).getSecondOperand());
+            return first == null || second == null ? null : first - second;
+        }
+        return null;
+    }
+
+    private static Expression unwrap(Expression expression) {
+        while (expression instanceof ExprInPar && ((ExprInPar) expression).getInputs().size() == 1)
+            expression = ((ExprInPar) expression).getInputs().get(0);
+        return expression;
+    }
+
+    //{lValue, rValue} of an assignment statement or expression
+    static Expression[] assignmentOf(Node node) {
+        if (node instanceof AssignmentStmt)
+            return new Expression[]{((AssignmentStmt) node).getLValue(), ((AssignmentStmt) node).getRValue()};
+        if (node instanceof BinaryExpression && ((BinaryExpression) node).getBinaryOperator() == BinaryOperator.assign)
+            return new Expression[]{((BinaryExpression) node).getFirstOperand(), ((BinaryExpression) node).getSecondOperand()};
+        return null;
+    }
+
+    //Declaring identifier of the local or parameter an identifier names, or null
+    static Identifier symbolOf(Expression expression) {
+        if (expression instanceof Identifier && ((Identifier) expression).getSymbol() instanceof VariableSymbolTableItem)
+            return ((VariableSymbolTableItem) ((Identifier) expression).getSymbol()).getIdentifier();
+        return null;
+    }
+
+    //Every node of a subtree, in source order
+    static ArrayList<Node> nodesOf(Node root) {
+        ArrayList<Node> nodes = new ArrayList<>();
+        FusedTraversal traversal = new FusedTraversal();
+        traversal.addHook(new TraversalHook() {
+            @Override
+            public void pre(Node node) {
+                nodes.add(node);
+            }
+        });
+        traversal.run(root);
+        return nodes;
+    }
+
+    //List accesses inside loop bodies, and how many of them need no bounds check
+    public int getLoopAccesses() {
+        return loopAccesses;
+    }
+
+    public int getCheckFree() {
+        return checkFree;
+    }
+}
@@ -0,0 +1,347 @@
+package main.visitor.optimize;
+
+import main.ast.nodes.Node;
+import main.ast.nodes.Program;
+import main.ast.nodes.declaration.FunctionDeclaration;
+import main.ast.nodes.declaration.MainDeclaration;
+import main.ast.nodes.declaration.VariableDeclaration;
+import main.ast.nodes.expression.*;
+import main.ast.nodes.expression.operators.BinaryOperator;
+import main.ast.nodes.expression.values.primitive.BoolValue;
+import main.ast.nodes.expression.values.primitive.IntValue;
+import main.ast.nodes.statement.*;
+import main.symbolTable.EffectSummary;
+import main.symbolTable.items.FunctionSymbolTableItem;
+import main.visitor.TraversalHook;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+
+//Value numbering within basic blocks of functions and main. Every expression gets a number, equal for expressions
+//known to have the same value; a binary, unary, member, list index or size expression whose operator and operand
+//numbers were seen earlier in the block gets Expression.getSameAs() pointing at the first one. Operands are
+//interned to their numbers, so each lookup hashes a few ints and the pass is linear.
+//- A local has a number until it is assigned, and then takes the assigned value's, so copies are seen through.
+//- Member reads are keyed by the member too, and assigning to a member gives it a new key, for every instance;
+//  list reads are keyed by a list generation, which any list element assignment or append moves on.
+//- Calls invalidate what their EffectSummary says they write; getters and setters run as calls and are not numbered.
+//- The right operand of & and | may not run, so nothing first computed there is kept, and a local assigned there
+//  gets a new number.
+//A block ends at an if, a loop or a return; a while loop's condition joins its body's block, as does a do...while's,
+//evaluated after it. Operands are taken left to right, the target of an assignment before its value.
+public class CommonSubexpressionEliminator implements TraversalHook {
+    private static final int INT = 0;
+    private static final int BOOL = 1;
+    private static final int FUNCTION = 2;
+    private static final int MEMBER = 3;
+    private static final int INDEX = 4;
+    private static final int SIZE = 5;
+    private static final int UNARY = 6;
+    private static final int BINARY = UNARY + 8;
+
+    private static final class Key {
+        private final int operator;
+        private final int first;
+        private final int second;
+        private final int third;
+
+        Key(int operator, int first, int second, int third) {
+            this.operator = operator;
+            this.first = first;
+            this.second = second;
+            this.third = third;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof Key))
+                return false;
+            Key key = (Key) other;
+            return operator == key.operator && first == key.first && second == key.second && third == key.third;
+        }
+
+        @Override
+        public int hashCode() {
+            return ((operator * 31 + first) * 31 + second) * 31 + third;
+        }
+    }
+
+    private static final class Entry {
+        private final int number;
+        private final Expression first;
+
+        Entry(int number, Expression first) {
+            this.number = number;
+            this.first = first;
+        }
+    }
+
+    private final EffectAnalyser effectAnalyser;
+    private final ArrayList<Node> declarations = new ArrayList<>();
+    private HashMap<Key, Entry> available = new HashMap<>();
+    private IdentityHashMap<Identifier, Integer> variables = new IdentityHashMap<>();
+    private IdentityHashMap<Identifier, Integer> members = new IdentityHashMap<>();
+    private final IdentityHashMap<FunctionSymbolTableItem, Integer> functions = new IdentityHashMap<>();
+    private int numbers = 0;
+    private int listGeneration = 0;
+    private int unrecorded = 0;
+    private int candidates = 0;
+    private int repeated = 0;
+    private int operations = 0;
+
+    //The analyser has to see the same walk and finish before this pass does; see EffectAnalyser
+    public CommonSubexpressionEliminator(EffectAnalyser effectAnalyser) {
+        this.effectAnalyser = effectAnalyser;
+    }
+
+    @Override
+    public void post(Node node) {
+        if (node instanceof FunctionDeclaration || node instanceof MainDeclaration)
+            declarations.add(node);
+        if (node instanceof Program) {
+            for (Node declaration : declarations) {
+                newBlock();
+                statement(declaration instanceof FunctionDeclaration ? ((FunctionDeclaration) declaration).getBody()
+                        : ((MainDeclaration) declaration).getBody());
+                count(declaration);
+            }
+            newBlock();
+            declarations.clear();
+        }
+    }
+
+    //New maps rather than clear(), which costs the capacity the largest block left behind
+    private void newBlock() {
+        available = new HashMap<>();
+        variables = new IdentityHashMap<>();
+        members = new IdentityHashMap<>();
+    }
+
+    private int fresh() {
+        return numbers++;
+    }
+
+    private void statement(Statement statement) {
+        if (statement instanceof BlockStmt) {
+            for (Statement inner : ((BlockStmt) statement).getStatements())
+                statement(inner);
+        } else if (statement instanceof AssignmentStmt) {
+            AssignmentStmt assignment = (AssignmentStmt) statement;
+            target(assignment.getLValue());
+            write(assignment.getLValue(), number(assignment.getRValue()));
+        } else if (statement instanceof VarDecStmt) {
+            for (VariableDeclaration var : ((VarDecStmt) statement).getVars())
+                variables.put(var.getVarName(), var.getDefaultValue() == null ? fresh() : number(var.getDefaultValue()));
+        } else if (statement instanceof ConditionalStmt) {
+            ConditionalStmt conditional = (ConditionalStmt) statement;
+            number(conditional.getCondition());
+            newBlock();
+            statement(conditional.getThenBody());
+            newBlock();
+            statement(conditional.getElseBody());
+            newBlock();
+        } else if (statement instanceof LoopStmt) {
+            LoopStmt loop = (LoopStmt) statement;
+            newBlock();
+            if (loop.isDoWhile()) {
+                statement(loop.getBody());
+                number(loop.getCondition());
+            } else {
+                number(loop.getCondition());
+                statement(loop.getBody());
+            }
+            newBlock();
+        } else if (statement instanceof ReturnStmt) {
+            number(((ReturnStmt) statement).getReturnedExpr());
+            newBlock();
+        } else if (statement instanceof DisplayStmt) {
+            number(((DisplayStmt) statement).getArg());
+        } else if (statement instanceof FunctionCallStmt) {
+            number(((FunctionCallStmt) statement).getFunctionCall());
+        } else if (statement instanceof ListAppendStmt) {
+            number(((ListAppendStmt) statement).getListAppendExpr());
+        } else if (statement instanceof ListSizeStmt) {
+            number(((ListSizeStmt) statement).getListSizeExpr());
+        }
+    }
+
+    private int number(Expression expression) {
+        if (expression instanceof IntValue)
+            return lookup(null, INT, ((IntValue) expression).getConstant(), 0, 0);
+        if (expression instanceof BoolValue)
+            return lookup(null, BOOL, ((BoolValue) expression).getConstant() ? 1 : 0, 0, 0);
+        if (expression instanceof Identifier) {
+            Identifier identifier = (Identifier) expression;
+            Identifier variable = BoundsCheckEliminator.symbolOf(identifier);
+            if (variable != null)
+                return variables.computeIfAbsent(variable, key -> fresh());
+            if (identifier.getSymbol() instanceof FunctionSymbolTableItem)
+                return lookup(null, FUNCTION, functions.computeIfAbsent((FunctionSymbolTableItem) identifier.getSymbol(),
+                        key -> functions.size()), 0, 0);
+            return fresh();
+        }
+        if (expression instanceof ExprInPar) {
+            ArrayList<Expression> inputs = ((ExprInPar) expression).getInputs();
+            int number = fresh();
+            for (Expression input : inputs)
+                number = number(input);
+            return inputs.size() == 1 ? number : fresh();
+        }
+        if (expression instanceof UnaryExpression) {
+            UnaryExpression unary = (UnaryExpression) expression;
+            return lookup(unary, UNARY + unary.getOperator().ordinal(), number(unary.getOperand()), 0, 0);
+        }
+        if (expression instanceof BinaryExpression) {
+            BinaryExpression binary = (BinaryExpression) expression;
+            BinaryOperator operator = binary.getBinaryOperator();
+            if (operator == BinaryOperator.assign) {
+                target(binary.getFirstOperand());
+                int value = number(binary.getSecondOperand());
+                write(binary.getFirstOperand(), value);
+                return value;
+            }
+            int first = number(binary.getFirstOperand());
+            boolean conditional = operator == BinaryOperator.and || operator == BinaryOperator.or;
+            if (conditional)
+                unrecorded += 1;
+            int second = number(binary.getSecondOperand());
+            if (conditional)
+                unrecorded -= 1;
+            return lookup(binary, BINARY + operator.ordinal(), first, second, 0);
+        }
+        if (expression instanceof StructAccess) {
+            StructAccess access = (StructAccess) expression;
+            int instance = number(access.getInstance());
+            if (access.getMember() == null)
+                return fresh();
+            Identifier member = access.getMember().getIdentifier();
+            EffectSummary getter = effectAnalyser.effectsOfRead(member);
+            if (getter != null) {
+                invalidate(getter);
+                return fresh();
+            }
+            return lookup(access, MEMBER, instance, members.computeIfAbsent(member, key -> fresh()), 0);
+        }
+        if (expression instanceof ListAccessByIndex) {
+            ListAccessByIndex access = (ListAccessByIndex) expression;
+            int instance = number(access.getInstance());
+            return lookup(access, INDEX, instance, number(access.getIndex()), listGeneration);
+        }
+        if (expression instanceof ListSize)
+            return lookup(expression, SIZE, number(((ListSize) expression).getArg()), 0, listGeneration);
+        if (expression instanceof ListAppend) {
+            number(((ListAppend) expression).getListArg());
+            number(((ListAppend) expression).getElementArg());
+            listGeneration = fresh();
+            return fresh();
+        }
+        if (expression instanceof FunctionCall) {
+            FunctionCall call = (FunctionCall) expression;
+            //The member a setter call goes through is not read
+            if (call.getInstance() instanceof StructAccess)
+                number(((StructAccess) call.getInstance()).getInstance());
+            else
+                number(call.getInstance());
+            for (Expression arg : call.getArgs())
+                number(arg);
+            invalidate(effectAnalyser.effectsOf(call));
+            return fresh();
+        }
+        return fresh();
+    }
+
+    //Number of the value an operator gives for operands with these numbers; a repeat is marked on the expression
+    private int lookup(Expression expression, int operator, int first, int second, int third) {
+        Key key = new Key(operator, first, second, third);
+        Entry entry = available.get(key);
+        if (expression != null)
+            candidates += 1;
+        if (entry != null) {
+            if (expression != null)
+                expression.setSameAs(entry.first);
+            return entry.number;
+        }
+        int number = fresh();
+        if (unrecorded == 0)
+            available.put(key, new Entry(number, expression));
+        return number;
+    }
+
+    //Expressions an assignment reads to find where to write
+    private void target(Expression lValue) {
+        if (lValue instanceof StructAccess) {
+            number(((StructAccess) lValue).getInstance());
+        } else if (lValue instanceof ListAccessByIndex) {
+            number(((ListAccessByIndex) lValue).getInstance());
+            number(((ListAccessByIndex) lValue).getIndex());
+        }
+    }
+
+    private void write(Expression lValue, int value) {
+        Identifier variable = BoundsCheckEliminator.symbolOf(lValue);
+        if (variable != null) {
+            //An assignment that may not run leaves the local with one value or the other
+            variables.put(variable, unrecorded == 0 ? value : fresh());
+        } else if (lValue instanceof StructAccess && ((StructAccess) lValue).getMember() != null) {
+            Identifier member = ((StructAccess) lValue).getMember().getIdentifier();
+            members.remove(member);
+            EffectSummary setter = effectAnalyser.effectsOfWrite(member);
+            if (setter != null)
+                invalidate(setter);
+        } else if (lValue instanceof ListAccessByIndex) {
+            listGeneration = fresh();
+        } else {
+            invalidate(EffectSummary.UNKNOWN);
+        }
+    }
+
+    private void invalidate(EffectSummary effects) {
+        if (effects.has(EffectSummary.WRITES_LISTS))
+            listGeneration = fresh();
+        if (effects.has(EffectSummary.WRITES_STRUCTS))
+            members = new IdentityHashMap<>();
+    }
+
+    //Counts each outermost repeat; the repeats inside it are never computed, so their marks are dropped
+    private void count(Node declaration) {
+        for (Node node : BoundsCheckEliminator.nodesOf(declaration))
+            if (node instanceof Statement)
+                for (Expression root : LoopInvariantHoister.rootsOf((Statement) node))
+                    count(root);
+    }
+
+    private void count(Expression expression) {
+        if (expression == null)
+            return;
+        if (expression.getSameAs() != null) {
+            repeated += 1;
+            operations += subsume(expression);
+            return;
+        }
+        for (Expression child : LoopInvariantHoister.readsOf(expression))
+            count(child);
+    }
+
+    private static int subsume(Expression expression) {
+        int count = LoopInvariantHoister.isOperation(expression) ? 1 : 0;
+        for (Expression child : LoopInvariantHoister.readsOf(expression)) {
+            child.setSameAs(null);
+            count += subsume(child);
+        }
+        return count;
+    }
+
+    //Expressions numbered by operator, how many repeat an earlier one, and the operations those repeats save
+    public int getCandidates() {
+        return candidates;
+    }
+
+    public int getRepeated() {
+        return repeated;
+    }
+
+    public int getOperations() {
+        return operations;
+    }
+}
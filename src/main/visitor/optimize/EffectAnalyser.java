@@ -0,0 +1,394 @@
+package main.visitor.optimize;
+
+import main.ast.nodes.Node;
+import main.ast.nodes.Program;
+import main.ast.nodes.declaration.FunctionDeclaration;
+import main.ast.nodes.declaration.struct.StructDeclaration;
+import main.ast.nodes.expression.*;
+import main.ast.nodes.statement.DisplayStmt;
+import main.ast.nodes.statement.SetGetVarDeclaration;
+import main.symbolTable.EffectSummary;
+import main.symbolTable.SymbolTable;
+import main.symbolTable.exceptions.ItemNotFoundException;
+import main.symbolTable.items.FunctionSymbolTableItem;
+import main.symbolTable.items.StructSymbolTableItem;
+import main.symbolTable.items.VariableSymbolTableItem;
+import main.visitor.TraversalHook;
+import main.visitor.resolve.SlotResolver;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+
+//Computes an EffectSummary for every function and every setter and getter body, through the call graph, and keeps
+//it on the body's FunctionSymbolTableItem. One walk collects what each body does itself; each call is then resolved
+//to the bodies it runs: a function named directly, the setter of a setter call, the getter of a member read, or the
+//targets FptrDevirtualizer found for a call through a function pointer. Any other call may do anything.
+//The strongly connected components of that graph are summed callees first (Tarjan), so mutually recursive bodies
+//share one summary, and every body and call is looked at a constant number of times.
+//Runs after SlotResolver, at the end of the program. Post hooks run in reverse, so a FusedTraversal should get it
+//before FptrDevirtualizer, and after any pass that reads the summaries at the end of the program.
+public class EffectAnalyser implements TraversalHook {
+    private static class Body {
+        private final FunctionSymbolTableItem item;
+        private final boolean setter;
+        private int local = 0;
+        private final ArrayList<FunctionDeclaration> callees = new ArrayList<>();
+        private final ArrayList<FunctionCall> calls = new ArrayList<>();
+        private final ArrayList<Identifier> memberReads = new ArrayList<>();
+        private final ArrayList<Identifier> memberWrites = new ArrayList<>();
+        private final ArrayList<Body> edges = new ArrayList<>();
+        private int index = -1;
+        private int lowLink;
+        private int nextEdge = 0;
+        private boolean onStack = false;
+        private boolean recursive = false;
+        private EffectSummary summary;
+
+        Body(FunctionSymbolTableItem item, boolean setter) {
+            this.item = item;
+            this.setter = setter;
+        }
+    }
+
+    private final ArrayList<Body> bodies = new ArrayList<>();
+    private final IdentityHashMap<FunctionDeclaration, Body> functions = new IdentityHashMap<>();
+    //Keyed by the member's name, which is what the symbol of every access points back to
+    private final IdentityHashMap<Identifier, Body> getters = new IdentityHashMap<>();
+    private final IdentityHashMap<Identifier, Body> setters = new IdentityHashMap<>();
+    //A setter called by name inside its struct resolves to the member's function item
+    private final IdentityHashMap<FunctionSymbolTableItem, Body> setterItems = new IdentityHashMap<>();
+    private final IdentityHashMap<Expression, Boolean> callInstances = new IdentityHashMap<>();
+    //Member names of accesses, which are recorded with the access itself
+    private final IdentityHashMap<Identifier, Boolean> elements = new IdentityHashMap<>();
+    private final ArrayList<Body> stack = new ArrayList<>();
+    private StructSymbolTableItem struct;
+    private SetGetVarDeclaration setGet;
+    private Body current;
+    private int counter = 0;
+    private int components = 0;
+    private int recursive = 0;
+    private int pure = 0;
+
+    @Override
+    public void pre(Node node) {
+        if (node instanceof StructDeclaration) {
+            struct = (StructSymbolTableItem) itemOf(SymbolTable.root(),
+                    StructSymbolTableItem.START_KEY + ((StructDeclaration) node).getStructName().getName());
+        } else if (node instanceof FunctionDeclaration) {
+            FunctionDeclaration functionDec = (FunctionDeclaration) node;
+            FunctionSymbolTableItem item = (FunctionSymbolTableItem) itemOf(SymbolTable.root(),
+                    FunctionSymbolTableItem.START_KEY + functionDec.getFunctionName().getName());
+            current = addBody(item != null && item.getFunctionDeclaration() == functionDec ? item : null, false);
+            functions.put(functionDec, current);
+        } else if (node instanceof SetGetVarDeclaration) {
+            setGet = (SetGetVarDeclaration) node;
+        } else if (setGet != null && (node == setGet.getSetterBody() || node == setGet.getGetterBody())) {
+            FunctionSymbolTableItem item = struct == null ? null : (FunctionSymbolTableItem) itemOf(struct.getStructSymbolTable(),
+                    FunctionSymbolTableItem.START_KEY + setGet.getVarName().getName());
+            boolean setter = node == setGet.getSetterBody();
+            current = addBody(item, setter);
+            if (setter) {
+                setters.put(setGet.getVarName(), current);
+                if (item != null)
+                    setterItems.put(item, current);
+            } else {
+                getters.put(setGet.getVarName(), current);
+            }
+        }
+        if (current != null)
+            record(node);
+    }
+
+    @Override
+    public void post(Node node) {
+        if (node instanceof FunctionDeclaration)
+            current = null;
+        else if (node instanceof StructDeclaration)
+            struct = null;
+        else if (node instanceof SetGetVarDeclaration)
+            setGet = null;
+        else if (setGet != null && (node == setGet.getSetterBody() || node == setGet.getGetterBody()))
+            current = null;
+        if (node instanceof Program)
+            solve();
+    }
+
+    private Body addBody(FunctionSymbolTableItem item, boolean setter) {
+        Body body = new Body(item, setter);
+        bodies.add(body);
+        return body;
+    }
+
+    private static Object itemOf(SymbolTable table, String key) {
+        if (table == null)
+            return null;
+        try {
+            return table.getItem(key);
+        } catch (ItemNotFoundException e) {
+            return null;
+        }
+    }
+
+    //What the current body does itself; calls and member accesses are kept to resolve once every body is known
+    private void record(Node node) {
+        Expression[] assignment = BoundsCheckEliminator.assignmentOf(node);
+        if (assignment != null)
+            current.local |= writesOf(assignment[0]);
+        if (node instanceof ListAppend) {
+            current.local |= EffectSummary.WRITES_LISTS;
+        } else if (node instanceof DisplayStmt) {
+            current.local |= EffectSummary.DISPLAYS;
+        } else if (node instanceof ListSize || node instanceof ListAccessByIndex) {
+            current.local |= EffectSummary.READS_LISTS;
+        } else if (node instanceof FunctionCall) {
+            FunctionCall call = (FunctionCall) node;
+            callInstances.put(call.getInstance(), true);
+            FunctionDeclaration callee = calleeOf(call);
+            if (callee != null)
+                current.callees.add(callee);
+            else
+                current.calls.add(call);
+        } else if (node instanceof StructAccess) {
+            current.local |= EffectSummary.READS_STRUCTS;
+            StructAccess access = (StructAccess) node;
+            elements.put(access.getElement(), true);
+            if (access.getMember() != null && !callInstances.containsKey(access))
+                current.memberReads.add(access.getMember().getIdentifier());
+        } else if (node instanceof Identifier && ((Identifier) node).getDepth() == SlotResolver.STRUCT_DEPTH
+                && !elements.containsKey(node)) {
+            current.local |= EffectSummary.READS_STRUCTS;
+            Identifier identifier = (Identifier) node;
+            if (identifier.getSymbol() instanceof VariableSymbolTableItem && !callInstances.containsKey(identifier))
+                current.memberReads.add(((VariableSymbolTableItem) identifier.getSymbol()).getIdentifier());
+        }
+    }
+
+    private int writesOf(Expression lValue) {
+        if (lValue instanceof Identifier) {
+            Identifier identifier = (Identifier) lValue;
+            if (identifier.getDepth() == SlotResolver.FRAME_DEPTH)
+                return 0;
+            if (identifier.getSymbol() instanceof VariableSymbolTableItem)
+                current.memberWrites.add(((VariableSymbolTableItem) identifier.getSymbol()).getIdentifier());
+            return EffectSummary.WRITES_STRUCTS;
+        }
+        if (lValue instanceof StructAccess) {
+            if (((StructAccess) lValue).getMember() != null)
+                current.memberWrites.add(((StructAccess) lValue).getMember().getIdentifier());
+            return EffectSummary.WRITES_STRUCTS;
+        }
+        if (lValue instanceof ListAccessByIndex)
+            return EffectSummary.WRITES_LISTS;
+        return EffectSummary.WRITES_LISTS | EffectSummary.WRITES_STRUCTS;
+    }
+
+    //Function a call names directly, or null for a call through a function pointer, a setter or a getter
+    static FunctionDeclaration calleeOf(FunctionCall call) {
+        if (!(call.getInstance() instanceof Identifier))
+            return null;
+        Identifier name = (Identifier) call.getInstance();
+        //A setter called by name from inside its struct resolves to a member, not to a global function
+        if (name.getSymbol() instanceof FunctionSymbolTableItem && name.getDepth() == SlotResolver.GLOBAL_DEPTH)
+            return ((FunctionSymbolTableItem) name.getSymbol()).getFunctionDeclaration();
+        return null;
+    }
+
+    //Bodies a call can run, or null when they are not known
+    private ArrayList<Body> bodiesOf(FunctionCall call) {
+        ArrayList<Body> targets = new ArrayList<>();
+        FunctionDeclaration callee = calleeOf(call);
+        if (callee != null) {
+            if (!functions.containsKey(callee))
+                return null;
+            targets.add(functions.get(callee));
+            return targets;
+        }
+        Body setter = setterOf(call.getInstance());
+        if (setter != null) {
+            targets.add(setter);
+            return targets;
+        }
+        if (call.getTargets() == null)
+            return null;
+        for (FunctionDeclaration target : call.getTargets()) {
+            if (!functions.containsKey(target))
+                return null;
+            targets.add(functions.get(target));
+        }
+        return targets;
+    }
+
+    private Body setterOf(Expression instance) {
+        if (instance instanceof StructAccess && ((StructAccess) instance).getMember() != null)
+            return setters.get(((StructAccess) instance).getMember().getIdentifier());
+        if (instance instanceof Identifier && ((Identifier) instance).getSymbol() instanceof VariableSymbolTableItem)
+            return setters.get(((VariableSymbolTableItem) ((Identifier) instance).getSymbol()).getIdentifier());
+        if (instance instanceof Identifier && ((Identifier) instance).getSymbol() instanceof FunctionSymbolTableItem)
+            return setterItems.get((FunctionSymbolTableItem) ((Identifier) instance).getSymbol());
+        return null;
+    }
+
+    private void solve() {
+        for (Body body : bodies) {
+            for (FunctionDeclaration callee : body.callees) {
+                if (functions.containsKey(callee))
+                    body.edges.add(functions.get(callee));
+                else
+                    body.local |= EffectSummary.ALL;
+            }
+            for (FunctionCall call : body.calls) {
+                ArrayList<Body> targets = bodiesOf(call);
+                if (targets == null)
+                    body.local |= EffectSummary.ALL;
+                else
+                    body.edges.addAll(targets);
+            }
+            //Members without a getter or setter are plain, and reading or writing them runs nothing
+            for (Identifier member : body.memberReads)
+                if (getters.containsKey(member))
+                    body.edges.add(getters.get(member));
+            for (Identifier member : body.memberWrites)
+                if (setters.containsKey(member))
+                    body.edges.add(setters.get(member));
+        }
+        for (Body body : bodies)
+            if (body.index < 0)
+                connect(body);
+    }
+
+    //Tarjan's algorithm with an explicit stack, since call chains can be deeper than the Java stack
+    private void connect(Body root) {
+        ArrayList<Body> work = new ArrayList<>();
+        visit(root);
+        work.add(root);
+        while (!work.isEmpty()) {
+            Body body = work.get(work.size() - 1);
+            if (body.nextEdge < body.edges.size()) {
+                Body callee = body.edges.get(body.nextEdge++);
+                if (callee.index < 0) {
+                    visit(callee);
+                    work.add(callee);
+                } else if (callee.onStack) {
+                    body.lowLink = Math.min(body.lowLink, callee.index);
+                }
+                continue;
+            }
+            work.remove(work.size() - 1);
+            if (!work.isEmpty()) {
+                Body caller = work.get(work.size() - 1);
+                caller.lowLink = Math.min(caller.lowLink, body.lowLink);
+            }
+            if (body.lowLink == body.index)
+                summarise(body);
+        }
+    }
+
+    private void visit(Body body) {
+        body.index = counter;
+        body.lowLink = counter;
+        counter += 1;
+        stack.add(body);
+        body.onStack = true;
+    }
+
+    //Pops the component rooted at root; every body it calls outside the component is summarised already
+    private void summarise(Body root) {
+        ArrayList<Body> component = new ArrayList<>();
+        Body body;
+        do {
+            body = stack.remove(stack.size() - 1);
+            body.onStack = false;
+            component.add(body);
+        } while (body != root);
+
+        int effects = 0;
+        boolean cycle = component.size() > 1;
+        for (Body member : component) {
+            effects |= member.local;
+            for (Body callee : member.edges) {
+                if (callee.summary != null)
+                    effects |= callee.summary.getEffects();
+                cycle |= callee == member;
+            }
+        }
+        EffectSummary summary = new EffectSummary(effects);
+        for (Body member : component) {
+            member.summary = summary;
+            member.recursive = cycle;
+            if (member.item != null && member.setter)
+                member.item.setSetterEffects(summary);
+            else if (member.item != null)
+                member.item.setEffects(summary);
+            if (summary.isPure())
+                pure += 1;
+        }
+        components += 1;
+        if (cycle)
+            recursive += 1;
+    }
+
+    //What running a call may do, through everything it calls
+    public EffectSummary effectsOf(FunctionCall call) {
+        FunctionDeclaration callee = calleeOf(call);
+        if (callee != null) {
+            EffectSummary cached = ((FunctionSymbolTableItem) ((Identifier) call.getInstance()).getSymbol()).getEffects();
+            return cached == null ? EffectSummary.UNKNOWN : cached;
+        }
+        ArrayList<Body> targets = bodiesOf(call);
+        if (targets == null)
+            return EffectSummary.UNKNOWN;
+        EffectSummary effects = EffectSummary.NONE;
+        for (Body target : targets)
+            effects = effects.union(target.summary == null ? EffectSummary.UNKNOWN : target.summary);
+        return effects;
+    }
+
+    public EffectSummary effectsOf(FunctionDeclaration function) {
+        Body body = functions.get(function);
+        return body == null || body.summary == null ? EffectSummary.UNKNOWN : body.summary;
+    }
+
+    //Whether a function can call itself, directly or through others
+    public boolean isRecursive(FunctionDeclaration function) {
+        Body body = functions.get(function);
+        return body != null && body.recursive;
+    }
+
+    //What reading a member runs: its getter's summary, or null for a plain member
+    public EffectSummary effectsOfRead(Identifier member) {
+        Body getter = getters.get(member);
+        if (getter == null)
+            return null;
+        return getter.summary == null ? EffectSummary.UNKNOWN : getter.summary;
+    }
+
+    //What assigning to a member runs: its setter's summary, or null for a plain member
+    public EffectSummary effectsOfWrite(Identifier member) {
+        Body setter = setters.get(member);
+        if (setter == null)
+            return null;
+        return setter.summary == null ? EffectSummary.UNKNOWN : setter.summary;
+    }
+
+    //Whether a call runs a setter
+    public boolean isSetterCall(FunctionCall call) {
+        return setterOf(call.getInstance()) != null;
+    }
+
+    //Bodies summarised, how many are pure, and the components of the call graph, recursive ones apart
+    public int getBodies() {
+        return bodies.size();
+    }
+
+    public int getPure() {
+        return pure;
+    }
+
+    public int getComponents() {
+        return components;
+    }
+
+    public int getRecursive() {
+        return recursive;
+    }
+}
@@ -0,0 +1,138 @@
+package main.visitor.optimize;
+
+import main.ast.nodes.Node;
+import main.ast.nodes.declaration.FunctionDeclaration;
+import main.ast.nodes.declaration.MainDeclaration;
+import main.ast.nodes.declaration.VariableDeclaration;
+import main.ast.nodes.declaration.struct.StructDeclaration;
+import main.ast.nodes.expression.Identifier;
+import main.ast.nodes.expression.StructAccess;
+import main.ast.nodes.statement.SetGetVarDeclaration;
+import main.ast.nodes.statement.VarDecStmt;
+import main.ast.types.StructType;
+import main.symbolTable.items.VariableSymbolTableItem;
+import main.visitor.TraversalHook;
+import main.visitor.resolve.SlotResolver;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+
+//Finds struct locals of functions and main that never escape and replaces them with one scalar local per member.
+//A local escapes on any use other than as the instance of a member access: returning it, passing it, appending it,
+//storing it or assigning to it. Accessing a setter and getter also counts, since it runs code on the instance;
+//a plain fptr member is only read or written like any other member, so it does not.
+//Runs after SlotResolver: the scalars get new slots at the end of the frame, the declaration gets them in
+//VariableDeclaration.getMemberSlots(), and the element of every access to it gets (FRAME_DEPTH, slot).
+public class EscapeAnalyser implements TraversalHook {
+    private static class Candidate {
+        private final VariableDeclaration declaration;
+        private final ArrayList<StructAccess> accesses = new ArrayList<>();
+        private boolean escapes = false;
+
+        Candidate(VariableDeclaration declaration) {
+            this.declaration = declaration;
+        }
+    }
+
+    //Keyed by the declaration's name, which is what the symbol of every use points back to
+    private final IdentityHashMap<Identifier, Candidate> candidates = new IdentityHashMap<>();
+    //Declaration order, so slots do not depend on identity hash codes
+    private final ArrayList<Candidate> bodyLocals = new ArrayList<>();
+    private final IdentityHashMap<Identifier, Boolean> instances = new IdentityHashMap<>();
+    //Names of setter and getter members; structs come before functions and main, so all are known by their accesses
+    private final IdentityHashMap<Identifier, Boolean> setGetMembers = new IdentityHashMap<>();
+    private int structDepth = 0;
+    private int structLocals = 0;
+    private int replaced = 0;
+
+    @Override
+    public void pre(Node node) {
+        if (node instanceof StructDeclaration)
+            structDepth += 1;
+        if (node instanceof SetGetVarDeclaration)
+            setGetMembers.put(((SetGetVarDeclaration) node).getVarName(), true);
+        if (structDepth > 0)
+            return;
+        if (node instanceof VarDecStmt) {
+            for (VariableDeclaration var : ((VarDecStmt) node).getVars()) {
+                if (var.getVarType() instanceof StructType) {
+                    Candidate candidate = new Candidate(var);
+                    candidate.escapes = var.getDefaultValue() != null;
+                    candidates.put(var.getVarName(), candidate);
+                    bodyLocals.add(candidate);
+                }
+            }
+        } else if (node instanceof StructAccess) {
+            StructAccess access = (StructAccess) node;
+            Candidate candidate = candidateOf(access.getInstance());
+            if (candidate != null) {
+                instances.put((Identifier) access.getInstance(), true);
+                if (access.getMemberIndex() < 0 || setGetMembers.containsKey(access.getMember().getIdentifier()))
+                    candidate.escapes = true;
+                else
+                    candidate.accesses.add(access);
+            }
+        } else if (node instanceof Identifier) {
+            Candidate candidate = candidateOf((Identifier) node);
+            if (candidate != null && !instances.containsKey(node))
+                candidate.escapes = true;
+        }
+    }
+
+    @Override
+    public void post(Node node) {
+        if (node instanceof StructDeclaration)
+            structDepth -= 1;
+        if (node instanceof FunctionDeclaration) {
+            FunctionDeclaration functionDec = (FunctionDeclaration) node;
+            functionDec.setFrameSize(replace(functionDec.getFrameSize()));
+        }
+        if (node instanceof MainDeclaration) {
+            MainDeclaration mainDec = (MainDeclaration) node;
+            mainDec.setFrameSize(replace(mainDec.getFrameSize()));
+        }
+    }
+
+    private Candidate candidateOf(Node node) {
+        if (!(node instanceof Identifier) || !(((Identifier) node).getSymbol() instanceof VariableSymbolTableItem))
+            return null;
+        return candidates.get(((VariableSymbolTableItem) ((Identifier) node).getSymbol()).getIdentifier());
+    }
+
+    //Gives the scalars of the body's non-escaping locals slots from frameSize up, and returns the new frame size
+    private int replace(int frameSize) {
+        for (Candidate candidate : bodyLocals) {
+            structLocals += 1;
+            if (candidate.escapes)
+                continue;
+            replaced += 1;
+            int members = 0;
+            for (StructAccess access : candidate.accesses)
+                members = Math.max(members, access.getMemberIndex() + 1);
+            int[] slots = new int[members];
+            Arrays.fill(slots, Identifier.UNRESOLVED);
+            for (StructAccess access : candidate.accesses) {
+                int member = access.getMemberIndex();
+                if (slots[member] == Identifier.UNRESOLVED)
+                    slots[member] = frameSize++;
+                access.getElement().setDepth(SlotResolver.FRAME_DEPTH);
+                access.getElement().setSlot(slots[member]);
+            }
+            candidate.declaration.setMemberSlots(slots);
+        }
+        candidates.clear();
+        bodyLocals.clear();
+        instances.clear();
+        return frameSize;
+    }
+
+    //Struct locals seen, and how many of them no longer need an allocation
+    public int getStructLocals() {
+        return structLocals;
+    }
+
+    public int getReplaced() {
+        return replaced;
+    }
+}
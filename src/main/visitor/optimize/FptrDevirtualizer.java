@@ -0,0 +1,209 @@
+package main.visitor.optimize;
+
+import main.ast.nodes.Node;
+import main.ast.nodes.Program;
+import main.ast.nodes.declaration.FunctionDeclaration;
+import main.ast.nodes.declaration.VariableDeclaration;
+import main.ast.nodes.expression.*;
+import main.ast.nodes.expression.operators.BinaryOperator;
+import main.ast.nodes.statement.*;
+import main.symbolTable.items.FunctionSymbolTableItem;
+import main.symbolTable.items.VariableSymbolTableItem;
+import main.visitor.TraversalHook;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+
+//Finds which functions each call through a function pointer can reach, over the whole program, and records them on
+//the call when there are one or two. Function values only come from naming a function, so the analysis follows
+//them through variables, parameters, returns, struct members (one location per member, whatever the instance) and
+//lists (one location for every list element). Setter and getter members are left unknown, and so is any call
+//through one; a call with unknown targets passes its arguments to every function whose value was taken.
+public class FptrDevirtualizer implements TraversalHook {
+    //Marks a location that can hold a function value the analysis does not follow
+    private static final FunctionDeclaration UNKNOWN = new FunctionDeclaration();
+    private static final Object LIST_ELEMENTS = new Object();
+
+    //A location, keyed by its declaring identifier, the function it returns from, or LIST_ELEMENTS
+    private final IdentityHashMap<Object, LinkedHashSet<FunctionDeclaration>> values = new IdentityHashMap<>();
+    private final ArrayList<Object> flowTargets = new ArrayList<>();
+    private final ArrayList<Expression> flowSources = new ArrayList<>();
+    private final ArrayList<FunctionCall> calls = new ArrayList<>();
+    private final LinkedHashSet<FunctionDeclaration> addressTaken = new LinkedHashSet<>();
+    private final IdentityHashMap<Identifier, Boolean> callees = new IdentityHashMap<>();
+    private final IdentityHashMap<Identifier, Boolean> setGets = new IdentityHashMap<>();
+    private FunctionDeclaration function;
+    private int fptrCalls = 0;
+    private int monomorphic = 0;
+    private int bimorphic = 0;
+
+    @Override
+    public void pre(Node node) {
+        if (node instanceof FunctionDeclaration) {
+            function = (FunctionDeclaration) node;
+        } else if (node instanceof SetGetVarDeclaration) {
+            SetGetVarDeclaration setGet = (SetGetVarDeclaration) node;
+            values.put(setGet.getVarName(), unknown());
+            setGets.put(setGet.getVarName(), true);
+            for (VariableDeclaration arg : setGet.getArgs())
+                values.put(arg.getVarName(), unknown());
+        } else if (node instanceof VarDecStmt) {
+            for (VariableDeclaration var : ((VarDecStmt) node).getVars())
+                if (var.getDefaultValue() != null)
+                    flow(var.getVarName(), var.getDefaultValue());
+        } else if (node instanceof AssignmentStmt) {
+            AssignmentStmt assignment = (AssignmentStmt) node;
+            flow(location(assignment.getLValue()), assignment.getRValue());
+        } else if (node instanceof BinaryExpression) {
+            BinaryExpression binary = (BinaryExpression) node;
+            if (binary.getBinaryOperator() == BinaryOperator.assign)
+                flow(location(binary.getFirstOperand()), binary.getSecondOperand());
+        } else if (node instanceof ListAppend) {
+            flow(LIST_ELEMENTS, ((ListAppend) node).getElementArg());
+        } else if (node instanceof ReturnStmt) {
+            //Returns of setters and getters go nowhere the analysis reads from
+            if (function != null && ((ReturnStmt) node).getReturnedExpr() != null)
+                flow(function, ((ReturnStmt) node).getReturnedExpr());
+        } else if (node instanceof FunctionCall) {
+            FunctionCall call = (FunctionCall) node;
+            calls.add(call);
+            if (call.getInstance() instanceof Identifier)
+                callees.put((Identifier) call.getInstance(), true);
+        } else if (node instanceof Identifier) {
+            Identifier identifier = (Identifier) node;
+            if (identifier.getSymbol() instanceof FunctionSymbolTableItem && !callees.containsKey(identifier))
+                addressTaken.add(((FunctionSymbolTableItem) identifier.getSymbol()).getFunctionDeclaration());
+        }
+    }
+
+    @Override
+    public void post(Node node) {
+        if (node instanceof FunctionDeclaration)
+            function = null;
+        if (node instanceof Program)
+            solve();
+    }
+
+    private static LinkedHashSet<FunctionDeclaration> unknown() {
+        LinkedHashSet<FunctionDeclaration> set = new LinkedHashSet<>();
+        set.add(UNKNOWN);
+        return set;
+    }
+
+    private void flow(Object target, Expression source) {
+        if (target == null)
+            return;
+        flowTargets.add(target);
+        flowSources.add(source);
+    }
+
+    //Location an assignment writes to, or null when it cannot hold a function
+    private static Object location(Expression lValue) {
+        if (lValue instanceof Identifier && ((Identifier) lValue).getSymbol() instanceof VariableSymbolTableItem)
+            return ((VariableSymbolTableItem) ((Identifier) lValue).getSymbol()).getIdentifier();
+        if (lValue instanceof StructAccess && ((StructAccess) lValue).getMember() != null)
+            return ((StructAccess) lValue).getMember().getIdentifier();
+        if (lValue instanceof ListAccessByIndex)
+            return LIST_ELEMENTS;
+        return null;
+    }
+
+    private LinkedHashSet<FunctionDeclaration> valuesOf(Object location) {
+        LinkedHashSet<FunctionDeclaration> set = values.get(location);
+        return set == null ? new LinkedHashSet<>() : set;
+    }
+
+    //Functions an expression can evaluate to under what is known so far
+    private LinkedHashSet<FunctionDeclaration> evaluate(Expression expression) {
+        if (expression instanceof Identifier) {
+            Identifier identifier = (Identifier) expression;
+            if (identifier.getSymbol() instanceof FunctionSymbolTableItem) {
+                LinkedHashSet<FunctionDeclaration> set = new LinkedHashSet<>();
+                set.add(((FunctionSymbolTableItem) identifier.getSymbol()).getFunctionDeclaration());
+                return set;
+            }
+        }
+        if (expression instanceof Identifier || expression instanceof StructAccess || expression instanceof ListAccessByIndex) {
+            Object location = location(expression);
+            return location == null ? new LinkedHashSet<>() : valuesOf(location);
+        }
+        if (expression instanceof FunctionCall) {
+            LinkedHashSet<FunctionDeclaration> set = new LinkedHashSet<>();
+            for (FunctionDeclaration target : targetsOf((FunctionCall) expression))
+                set.addAll(target == UNKNOWN ? unknown() : valuesOf(target));
+            return set;
+        }
+        if (expression instanceof ExprInPar) {
+            LinkedHashSet<FunctionDeclaration> set = new LinkedHashSet<>();
+            for (Expression input : ((ExprInPar) expression).getInputs())
+                set.addAll(evaluate(input));
+            return set;
+        }
+        if (expression instanceof BinaryExpression && ((BinaryExpression) expression).getBinaryOperator() == BinaryOperator.assign)
+            return evaluate(((BinaryExpression) expression).getSecondOperand());
+        return new LinkedHashSet<>();
+    }
+
+    private LinkedHashSet<FunctionDeclaration> targetsOf(FunctionCall call) {
+        return evaluate(call.getInstance());
+    }
+
+    private boolean add(Object location, LinkedHashSet<FunctionDeclaration> functions) {
+        if (functions.isEmpty())
+            return false;
+        return values.computeIfAbsent(location, key -> new LinkedHashSet<>()).addAll(functions);
+    }
+
+    //Applies every flow, and every call's arguments to its targets' parameters, until nothing changes
+    private void solve() {
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            for (int i = 0; i < flowTargets.size(); i++)
+                changed |= add(flowTargets.get(i), evaluate(flowSources.get(i)));
+            for (FunctionCall call : calls) {
+                //A copy, since a parameter can be passed to the very function it holds
+                ArrayList<FunctionDeclaration> targets = new ArrayList<>(targetsOf(call));
+                if (targets.contains(UNKNOWN))
+                    targets = new ArrayList<>(addressTaken);
+                for (FunctionDeclaration target : targets) {
+                    if (target.getArgs().size() != call.getArgs().size())
+                        continue;
+                    for (int i = 0; i < call.getArgs().size(); i++)
+                        changed |= add(target.getArgs().get(i).getVarName(), evaluate(call.getArgs().get(i)));
+                }
+            }
+        }
+
+        for (FunctionCall call : calls) {
+            //Calls by name and calls of setters and getters are direct already
+            if (call.getInstance() instanceof Identifier && ((Identifier) call.getInstance()).getSymbol() instanceof FunctionSymbolTableItem)
+                continue;
+            if (setGets.containsKey(location(call.getInstance())))
+                continue;
+            fptrCalls += 1;
+            LinkedHashSet<FunctionDeclaration> targets = targetsOf(call);
+            if (targets.isEmpty() || targets.size() > 2 || targets.contains(UNKNOWN))
+                continue;
+            call.setTargets(targets.toArray(new FunctionDeclaration[0]));
+            if (targets.size() == 1)
+                monomorphic += 1;
+            else
+                bimorphic += 1;
+        }
+    }
+
+    //Calls through a function pointer, and how many of them got one or two targets
+    public int getFptrCalls() {
+        return fptrCalls;
+    }
+
+    public int getMonomorphic() {
+        return monomorphic;
+    }
+
+    public int getBimorphic() {
+        return bimorphic;
+    }
+}
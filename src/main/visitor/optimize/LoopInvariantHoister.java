@@ -0,0 +1,324 @@
+package main.visitor.optimize;
+
+import main.ast.nodes.Node;
+import main.ast.nodes.Program;
+import main.ast.nodes.declaration.FunctionDeclaration;
+import main.ast.nodes.declaration.MainDeclaration;
+import main.ast.nodes.declaration.VariableDeclaration;
+import main.ast.nodes.expression.*;
+import main.ast.nodes.expression.operators.BinaryOperator;
+import main.ast.nodes.expression.values.Value;
+import main.ast.nodes.statement.*;
+import main.ast.types.ListType;
+import main.ast.types.StructType;
+import main.symbolTable.EffectSummary;
+import main.symbolTable.items.FunctionSymbolTableItem;
+import main.symbolTable.items.VariableSymbolTableItem;
+import main.visitor.TraversalHook;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+
+//Finds the expressions of while and do...while loops whose value cannot change while the loop runs, and records
+//each on its outermost such loop: Expression.getInvariantIn() and LoopStmt.getInvariants(). An expression is
+//invariant when it has no side effects and nothing it reads is written inside the loop:
+//- locals and parameters it reads are not assigned or declared in the loop;
+//- for size(l) and l[i], no list element is assigned or appended to in the loop (lists are not told apart);
+//- for a.m, member m is not assigned in the loop, for any instance; a getter must be pure, and if it reads lists or
+//  structs, the loop must not write them;
+//- calls are not setter calls, run only pure bodies (see EffectAnalyser) and return no list or struct, and if they
+//  read lists or structs, the loop must not write them.
+//Calls in the loop write what their EffectSummary says they do; a call whose target is not known writes everything.
+//The value is meant to be kept from where it is first computed in a run of the loop, rather than computed before
+//the loop, so an l[i] or a / b that would fail is not evaluated when the loop would not have evaluated it.
+public class LoopInvariantHoister implements TraversalHook {
+    //What a loop writes
+    private static class Effects {
+        private final IdentityHashMap<Identifier, Boolean> variables = new IdentityHashMap<>();
+        private final IdentityHashMap<Identifier, Boolean> members = new IdentityHashMap<>();
+        private boolean lists = false;
+        private boolean allMembers = false;
+    }
+
+    private final EffectAnalyser effectAnalyser;
+    private final ArrayList<Node> declarations = new ArrayList<>();
+    private int loops = 0;
+    private int invariants = 0;
+    private int operations = 0;
+    private int loopOperations = 0;
+
+    //The analyser has to see the same walk and finish before this pass does; see EffectAnalyser
+    public LoopInvariantHoister(EffectAnalyser effectAnalyser) {
+        this.effectAnalyser = effectAnalyser;
+    }
+
+    //Waits for the end of the program, since effects depend on every function
+    @Override
+    public void post(Node node) {
+        if (node instanceof FunctionDeclaration || node instanceof MainDeclaration)
+            declarations.add(node);
+        if (node instanceof Program) {
+            for (Node declaration : declarations)
+                hoist(declaration);
+            declarations.clear();
+        }
+    }
+
+    //Outer loops come first, so an expression that does not change in either of two nested loops goes to the outer
+    private void hoist(Node declaration) {
+        IdentityHashMap<Node, Boolean> inLoops = new IdentityHashMap<>();
+        for (Node node : BoundsCheckEliminator.nodesOf(declaration)) {
+            if (!(node instanceof LoopStmt))
+                continue;
+            loops += 1;
+            LoopStmt loop = (LoopStmt) node;
+            ArrayList<Node> nodes = BoundsCheckEliminator.nodesOf(loop);
+            for (Node inner : nodes)
+                if (inner instanceof Expression && isOperation((Expression) inner))
+                    inLoops.put(inner, true);
+            Effects effects = effectsOf(nodes);
+            for (Node inner : nodes)
+                if (inner instanceof Statement)
+                    for (Expression root : rootsOf((Statement) inner))
+                        mark(root, loop, effects);
+        }
+        loopOperations += inLoops.size();
+    }
+
+    private void mark(Expression expression, LoopStmt loop, Effects effects) {
+        if (expression == null || expression.getInvariantIn() != null)
+            return;
+        if (isWorthKeeping(expression) && isInvariant(expression, effects)) {
+            expression.setInvariantIn(loop);
+            loop.addInvariant(expression);
+            invariants += 1;
+            operations += operationsOf(expression);
+            return;
+        }
+        for (Expression child : readsOf(expression))
+            mark(child, loop, effects);
+    }
+
+    private Effects effectsOf(ArrayList<Node> nodes) {
+        Effects effects = new Effects();
+        for (Node node : nodes) {
+            Expression[] assignment = BoundsCheckEliminator.assignmentOf(node);
+            if (assignment != null) {
+                Expression lValue = assignment[0];
+                Identifier variable = BoundsCheckEliminator.symbolOf(lValue);
+                if (variable != null) {
+                    effects.variables.put(variable, true);
+                } else if (lValue instanceof StructAccess && ((StructAccess) lValue).getMember() != null) {
+                    Identifier member = ((StructAccess) lValue).getMember().getIdentifier();
+                    effects.members.put(member, true);
+                    EffectSummary setter = effectAnalyser.effectsOfWrite(member);
+                    if (setter != null)
+                        addWrites(effects, setter);
+                } else if (lValue instanceof ListAccessByIndex) {
+                    effects.lists = true;
+                } else {
+                    effects.lists = true;
+                    effects.allMembers = true;
+                }
+            }
+            //A local declared in the loop is a new one on every iteration
+            if (node instanceof VarDecStmt) {
+                for (VariableDeclaration var : ((VarDecStmt) node).getVars())
+                    effects.variables.put(var.getVarName(), true);
+            } else if (node instanceof ListAppend) {
+                effects.lists = true;
+            } else if (node instanceof FunctionCall) {
+                addWrites(effects, effectAnalyser.effectsOf((FunctionCall) node));
+            } else if (node instanceof StructAccess && ((StructAccess) node).getMember() != null) {
+                EffectSummary getter = effectAnalyser.effectsOfRead(((StructAccess) node).getMember().getIdentifier());
+                if (getter != null)
+                    addWrites(effects, getter);
+            }
+        }
+        return effects;
+    }
+
+    private static void addWrites(Effects effects, EffectSummary summary) {
+        effects.lists |= summary.has(EffectSummary.WRITES_LISTS);
+        effects.allMembers |= summary.has(EffectSummary.WRITES_STRUCTS);
+    }
+
+    //Whether what a pure body reads stays the same through the loop
+    private static boolean readsUnchanged(EffectSummary summary, Effects effects) {
+        if (summary.has(EffectSummary.READS_LISTS) && effects.lists)
+            return false;
+        return !summary.has(EffectSummary.READS_STRUCTS) || (!effects.allMembers && effects.members.isEmpty());
+    }
+
+    private boolean isInvariant(Expression expression, Effects effects) {
+        if (expression instanceof Value)
+            return true;
+        if (expression instanceof Identifier) {
+            Identifier identifier = (Identifier) expression;
+            if (identifier.getSymbol() instanceof FunctionSymbolTableItem)
+                return true;
+            return identifier.getSymbol() instanceof VariableSymbolTableItem
+                    && !effects.variables.containsKey(BoundsCheckEliminator.symbolOf(identifier));
+        }
+        if (expression instanceof ExprInPar) {
+            for (Expression input : ((ExprInPar) expression).getInputs())
+                if (!isInvariant(input, effects))
+                    return false;
+            return true;
+        }
+        if (expression instanceof UnaryExpression)
+            return isInvariant(((UnaryExpression) expression).getOperand(), effects);
+        if (expression instanceof BinaryExpression) {
+            BinaryExpression binary = (BinaryExpression) expression;
+            return binary.getBinaryOperator() != BinaryOperator.assign && isInvariant(binary.getFirstOperand(), effects)
+                    && isInvariant(binary.getSecondOperand(), effects);
+        }
+        if (expression instanceof ListSize)
+            return !effects.lists && isInvariant(((ListSize) expression).getArg(), effects);
+        if (expression instanceof ListAccessByIndex) {
+            ListAccessByIndex access = (ListAccessByIndex) expression;
+            return !effects.lists && isInvariant(access.getInstance(), effects) && isInvariant(access.getIndex(), effects);
+        }
+        if (expression instanceof StructAccess) {
+            StructAccess access = (StructAccess) expression;
+            if (access.getMember() == null || effects.allMembers || !isInvariant(access.getInstance(), effects))
+                return false;
+            Identifier member = access.getMember().getIdentifier();
+            EffectSummary getter = effectAnalyser.effectsOfRead(member);
+            if (getter != null && (!getter.isPure() || !readsUnchanged(getter, effects)))
+                return false;
+            return !effects.members.containsKey(member);
+        }
+        if (expression instanceof FunctionCall) {
+            FunctionCall call = (FunctionCall) expression;
+            //A list or struct a call returns may be a new one each time, so it is never kept
+            if (effectAnalyser.isSetterCall(call) || call.getType() instanceof ListType || call.getType() instanceof StructType)
+                return false;
+            EffectSummary summary = effectAnalyser.effectsOf(call);
+            if (!summary.isPure() || !readsUnchanged(summary, effects) || !isInvariant(call.getInstance(), effects))
+                return false;
+            for (Expression arg : call.getArgs())
+                if (!isInvariant(arg, effects))
+                    return false;
+            return true;
+        }
+        return false;
+    }
+
+    //A variable or a literal is as cheap to read again as a kept value
+    private static boolean isWorthKeeping(Expression expression) {
+        if (expression instanceof ExprInPar) {
+            for (Expression input : ((ExprInPar) expression).getInputs())
+                if (isWorthKeeping(input))
+                    return true;
+            return false;
+        }
+        return !(expression instanceof Identifier) && !(expression instanceof Value);
+    }
+
+    //Operations an invariant expression saves on every iteration after the first, less those of invariants of outer
+    //loops inside it, which are counted there
+    private static int operationsOf(Expression expression) {
+        int count = isOperation(expression) ? 1 : 0;
+        for (Expression child : readsOf(expression))
+            if (child.getInvariantIn() == null)
+                count += operationsOf(child);
+        return count;
+    }
+
+    static boolean isOperation(Expression expression) {
+        return !(expression instanceof Identifier) && !(expression instanceof Value) && !(expression instanceof ExprInPar);
+    }
+
+    //Top-level expressions of a statement; statements nested in it are reached on their own
+    static ArrayList<Expression> rootsOf(Statement statement) {
+        ArrayList<Expression> roots = new ArrayList<>();
+        if (statement instanceof AssignmentStmt) {
+            roots.addAll(partsOf(((AssignmentStmt) statement).getLValue()));
+            roots.add(((AssignmentStmt) statement).getRValue());
+        } else if (statement instanceof VarDecStmt) {
+            for (VariableDeclaration var : ((VarDecStmt) statement).getVars())
+                roots.add(var.getDefaultValue());
+        } else if (statement instanceof LoopStmt) {
+            roots.add(((LoopStmt) statement).getCondition());
+        } else if (statement instanceof ConditionalStmt) {
+            roots.add(((ConditionalStmt) statement).getCondition());
+        } else if (statement instanceof ReturnStmt) {
+            roots.add(((ReturnStmt) statement).getReturnedExpr());
+        } else if (statement instanceof DisplayStmt) {
+            roots.add(((DisplayStmt) statement).getArg());
+        } else if (statement instanceof FunctionCallStmt) {
+            roots.add(((FunctionCallStmt) statement).getFunctionCall());
+        } else if (statement instanceof ListAppendStmt) {
+            roots.add(((ListAppendStmt) statement).getListAppendExpr());
+        } else if (statement instanceof ListSizeStmt) {
+            roots.add(((ListSizeStmt) statement).getListSizeExpr());
+        }
+        return roots;
+    }
+
+    //Subexpressions whose value an expression reads. The target of an assignment is written, not read, and so is the
+    //member a setter call goes through; only the expressions that locate them are read
+    static ArrayList<Expression> readsOf(Expression expression) {
+        ArrayList<Expression> reads = new ArrayList<>();
+        if (expression instanceof BinaryExpression) {
+            BinaryExpression binary = (BinaryExpression) expression;
+            if (binary.getBinaryOperator() == BinaryOperator.assign)
+                reads.addAll(partsOf(binary.getFirstOperand()));
+            else
+                reads.add(binary.getFirstOperand());
+            reads.add(binary.getSecondOperand());
+        } else if (expression instanceof UnaryExpression) {
+            reads.add(((UnaryExpression) expression).getOperand());
+        } else if (expression instanceof ExprInPar) {
+            reads.addAll(((ExprInPar) expression).getInputs());
+        } else if (expression instanceof StructAccess) {
+            reads.add(((StructAccess) expression).getInstance());
+        } else if (expression instanceof ListAccessByIndex) {
+            reads.add(((ListAccessByIndex) expression).getInstance());
+            reads.add(((ListAccessByIndex) expression).getIndex());
+        } else if (expression instanceof ListSize) {
+            reads.add(((ListSize) expression).getArg());
+        } else if (expression instanceof ListAppend) {
+            reads.add(((ListAppend) expression).getListArg());
+            reads.add(((ListAppend) expression).getElementArg());
+        } else if (expression instanceof FunctionCall) {
+            FunctionCall call = (FunctionCall) expression;
+            if (call.getInstance() instanceof StructAccess)
+                reads.add(((StructAccess) call.getInstance()).getInstance());
+            else
+                reads.add(call.getInstance());
+            reads.addAll(call.getArgs());
+        }
+        return reads;
+    }
+
+    private static ArrayList<Expression> partsOf(Expression lValue) {
+        ArrayList<Expression> parts = new ArrayList<>();
+        if (lValue instanceof StructAccess) {
+            parts.add(((StructAccess) lValue).getInstance());
+        } else if (lValue instanceof ListAccessByIndex) {
+            parts.add(((ListAccessByIndex) lValue).getInstance());
+            parts.add(((ListAccessByIndex) lValue).getIndex());
+        }
+        return parts;
+    }
+
+    //Loops seen, invariant expressions found in them, the operations those save per iteration, and all operations
+    //inside loops
+    public int getLoops() {
+        return loops;
+    }
+
+    public int getInvariants() {
+        return invariants;
+    }
+
+    public int getOperations() {
+        return operations;
+    }
+
+    public int getLoopOperations() {
+        return loopOperations;
+    }
+}
@@ -0,0 +1,73 @@
+package main.visitor.optimize;
+
+import main.ast.nodes.Node;
+import main.ast.nodes.Program;
+import main.ast.nodes.declaration.FunctionDeclaration;
+import main.ast.nodes.declaration.VariableDeclaration;
+import main.ast.types.Type;
+import main.ast.types.primitives.BoolType;
+import main.ast.types.primitives.IntType;
+import main.visitor.TraversalHook;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+
+//Marks functions whose results a backend may keep in a MemoCache: pure ones (see EffectAnalyser) taking and
+//returning only ints and bools. Cmm has no globals, so such a function cannot reach any list or struct it did not
+//make itself, and its result depends on its arguments alone.
+//Without names, only recursive candidates are marked, since that is where the same arguments keep coming back;
+//with names, exactly the named candidates are. Reads the summaries at the end of the program; see EffectAnalyser.
+public class Memoizer implements TraversalHook {
+    private final EffectAnalyser effectAnalyser;
+    private final HashSet<String> names;
+    private final ArrayList<FunctionDeclaration> functions = new ArrayList<>();
+    private int candidates = 0;
+    private int memoized = 0;
+
+    public Memoizer(EffectAnalyser effectAnalyser, Collection<String> names) {
+        this.effectAnalyser = effectAnalyser;
+        this.names = names == null ? null : new HashSet<>(names);
+    }
+
+    @Override
+    public void post(Node node) {
+        if (node instanceof FunctionDeclaration)
+            functions.add((FunctionDeclaration) node);
+        if (node instanceof Program) {
+            for (FunctionDeclaration function : functions) {
+                if (!isCandidate(function))
+                    continue;
+                candidates += 1;
+                boolean chosen = names == null ? effectAnalyser.isRecursive(function)
+                        : names.contains(function.getFunctionName().getName());
+                function.setMemoized(chosen);
+                if (chosen)
+                    memoized += 1;
+            }
+            functions.clear();
+        }
+    }
+
+    private boolean isCandidate(FunctionDeclaration function) {
+        if (!isPrimitive(function.getReturnType()) || !effectAnalyser.effectsOf(function).isPure())
+            return false;
+        for (VariableDeclaration arg : function.getArgs())
+            if (!isPrimitive(arg.getVarType()))
+                return false;
+        return true;
+    }
+
+    private static boolean isPrimitive(Type type) {
+        return type instanceof IntType || type instanceof BoolType;
+    }
+
+    //Functions that could be memoized, and how many were
+    public int getCandidates() {
+        return candidates;
+    }
+
+    public int getMemoized() {
+        return memoized;
+    }
+}
@@ -0,0 +1,53 @@
+package main.visitor.optimize;
+
+import main.ast.nodes.Node;
+import main.ast.nodes.declaration.FunctionDeclaration;
+import main.ast.nodes.expression.ExprInPar;
+import main.ast.nodes.expression.Expression;
+import main.ast.nodes.expression.FunctionCall;
+import main.ast.nodes.statement.ReturnStmt;
+import main.visitor.TraversalHook;
+
+//Marks returns of a direct call to the enclosing function, possibly in parentheses, as tail calls. Nothing runs
+//after a return, so a backend can compile one as a loop: evaluate every argument first, store them into the
+//parameter slots, reset the body's locals (a declaration without a value starts from its default again) and jump
+//to the start of the body, using no stack however deep the recursion goes.
+//Calls through function pointers and to other functions are left alone, even when they reach the same function.
+public class TailCallMarker implements TraversalHook {
+    private FunctionDeclaration function;
+    private int returns = 0;
+    private int tailCalls = 0;
+
+    @Override
+    public void pre(Node node) {
+        if (node instanceof FunctionDeclaration)
+            function = (FunctionDeclaration) node;
+        if (!(node instanceof ReturnStmt) || function == null)
+            return;
+        ReturnStmt returnStmt = (ReturnStmt) node;
+        returns += 1;
+        Expression returned = returnStmt.getReturnedExpr();
+        while (returned instanceof ExprInPar && ((ExprInPar) returned).getInputs().size() == 1)
+            returned = ((ExprInPar) returned).getInputs().get(0);
+        if (returned instanceof FunctionCall && EffectAnalyser.calleeOf((FunctionCall) returned) == function
+                && ((FunctionCall) returned).getArgs().size() == function.getArgs().size()) {
+            returnStmt.setTailCall(true);
+            tailCalls += 1;
+        }
+    }
+
+    @Override
+    public void post(Node node) {
+        if (node instanceof FunctionDeclaration)
+            function = null;
+    }
+
+    //Returns inside functions, and how many of them are tail calls
+    public int getReturns() {
+        return returns;
+    }
+
+    public int getTailCalls() {
+        return tailCalls;
+    }
+}
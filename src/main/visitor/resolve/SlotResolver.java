@@ -0,0 +1,291 @@
+package main.visitor.resolve;
+
+import main.ast.nodes.Program;
+import main.ast.nodes.declaration.FunctionDeclaration;
+import main.ast.nodes.declaration.MainDeclaration;
+import main.ast.nodes.declaration.VariableDeclaration;
+import main.ast.nodes.declaration.struct.StructDeclaration;
+import main.ast.nodes.expression.*;
+import main.ast.nodes.statement.*;
+import main.symbolTable.StructLayout;
+import main.visitor.Visitor;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+
+//Runs after type checking and gives every identifier (depth, slot) coordinates, so an execution engine
+//can keep variables in arrays instead of searching scopes by name.
+//depth 0: slot in the frame of the enclosing function, main, setter or getter (RET always takes slot 0)
+//depth 1: member index in the struct whose setter or getter is running
+//depth 2: index of the function in Program.getFunctions()
+public class SlotResolver extends Visitor<Void> {
+    public static final int FRAME_DEPTH = 0;
+    public static final int STRUCT_DEPTH = 1;
+    public static final int GLOBAL_DEPTH = 2;
+    public static final int RETURN_SLOT = 0;
+
+    private final HashMap<String, Integer> functions = new HashMap<>();
+    private HashMap<String, Integer> members;
+    private final ArrayList<HashMap<String, Integer>> scopes = new ArrayList<>();
+    private final ArrayList<Integer> scopeStarts = new ArrayList<>();
+    private int nextSlot;
+    private int frameSize;
+
+    private void beginFrame(boolean hasReturn) {
+        scopes.clear();
+        scopeStarts.clear();
+        scopes.add(new HashMap<>());
+        nextSlot = hasReturn ? RETURN_SLOT + 1 : 0;
+        frameSize = nextSlot;
+    }
+
+    private int endFrame() {
+        scopes.clear();
+        return frameSize;
+    }
+
+    //Slots of a closed scope are reused by its siblings, so the frame only grows to the deepest nesting
+    private void pushScope() {
+        scopes.add(new HashMap<>());
+        scopeStarts.add(nextSlot);
+    }
+
+    private void popScope() {
+        scopes.remove(scopes.size() - 1);
+        nextSlot = scopeStarts.remove(scopeStarts.size() - 1);
+    }
+
+    private void declare(Identifier name) {
+        HashMap<String, Integer> scope = scopes.get(scopes.size() - 1);
+        if (!scope.containsKey(name.getName())) {
+            scope.put(name.getName(), nextSlot);
+            nextSlot += 1;
+            frameSize = Math.max(frameSize, nextSlot);
+        }
+        name.setDepth(FRAME_DEPTH);
+        name.setSlot(scope.get(name.getName()));
+    }
+
+    //Same order as StructLayout, so a member's slot is its layout index
+    private void indexMembers(StructDeclaration structDec) {
+        members = new HashMap<>();
+        for (String name : StructLayout.memberNames(structDec))
+            members.put(name, members.size());
+    }
+
+    private void resolveMember(Identifier name) {
+        name.setDepth(STRUCT_DEPTH);
+        name.setSlot(members.get(name.getName()));
+    }
+
+    @Override
+    public Void visit(Program program) {
+        for (FunctionDeclaration function : program.getFunctions())
+            functions.putIfAbsent(function.getFunctionName().getName(), functions.size());
+        for (StructDeclaration struct : program.getStructs())
+            struct.accept(this);
+        for (FunctionDeclaration function : program.getFunctions())
+            function.accept(this);
+        program.getMain().accept(this);
+        return null;
+    }
+
+    @Override
+    public Void visit(StructDeclaration structDec) {
+        indexMembers(structDec);
+        structDec.getBody().accept(this);
+        members = null;
+        return null;
+    }
+
+    @Override
+    public Void visit(FunctionDeclaration functionDec) {
+        functionDec.getFunctionName().accept(this);
+        beginFrame(true);
+        for (VariableDeclaration arg : functionDec.getArgs())
+            declare(arg.getVarName());
+        functionDec.getBody().accept(this);
+        functionDec.setFrameSize(endFrame());
+        return null;
+    }
+
+    @Override
+    public Void visit(MainDeclaration mainDec) {
+        beginFrame(false);
+        mainDec.getBody().accept(this);
+        mainDec.setFrameSize(endFrame());
+        return null;
+    }
+
+    @Override
+    public Void visit(SetGetVarDeclaration setGetVarDec) {
+        resolveMember(setGetVarDec.getVarName());
+        beginFrame(false);
+        for (VariableDeclaration arg : setGetVarDec.getArgs())
+            declare(arg.getVarName());
+        setGetVarDec.getSetterBody().accept(this);
+        setGetVarDec.setSetterFrameSize(endFrame());
+        beginFrame(true);
+        setGetVarDec.getGetterBody().accept(this);
+        setGetVarDec.setGetterFrameSize(endFrame());
+        return null;
+    }
+
+    @Override
+    public Void visit(VarDecStmt varDecStmt) {
+        for (VariableDeclaration var : varDecStmt.getVars()) {
+            if (scopes.isEmpty())
+                resolveMember(var.getVarName());
+            else
+                declare(var.getVarName());
+            if (var.getDefaultValue() != null)
+                var.getDefaultValue().accept(this);
+        }
+        return null;
+    }
+
+    @Override
+    public Void visit(AssignmentStmt assignmentStmt) {
+        assignmentStmt.getLValue().accept(this);
+        assignmentStmt.getRValue().accept(this);
+        return null;
+    }
+
+    @Override
+    public Void visit(BlockStmt blockStmt) {
+        for (Statement statement : blockStmt.getStatements())
+            statement.accept(this);
+        return null;
+    }
+
+    @Override
+    public Void visit(ConditionalStmt conditionalStmt) {
+        conditionalStmt.getCondition().accept(this);
+        pushScope();
+        conditionalStmt.getThenBody().accept(this);
+        popScope();
+        if (conditionalStmt.getElseBody() != null) {
+            pushScope();
+            conditionalStmt.getElseBody().accept(this);
+            popScope();
+        }
+        return null;
+    }
+
+    @Override
+    public Void visit(FunctionCallStmt functionCallStmt) {
+        functionCallStmt.getFunctionCall().accept(this);
+        return null;
+    }
+
+    @Override
+    public Void visit(DisplayStmt displayStmt) {
+        displayStmt.getArg().accept(this);
+        return null;
+    }
+
+    @Override
+    public Void visit(ReturnStmt returnStmt) {
+        if (returnStmt.getReturnedExpr() != null)
+            returnStmt.getReturnedExpr().accept(this);
+        return null;
+    }
+
+    @Override
+    public Void visit(LoopStmt loopStmt) {
+        loopStmt.getCondition().accept(this);
+        pushScope();
+        loopStmt.getBody().accept(this);
+        popScope();
+        return null;
+    }
+
+    @Override
+    public Void visit(ListAppendStmt listAppendStmt) {
+        listAppendStmt.getListAppendExpr().accept(this);
+        return null;
+    }
+
+    @Override
+    public Void visit(ListSizeStmt listSizeStmt) {
+        listSizeStmt.getListSizeExpr().accept(this);
+        return null;
+    }
+
+    @Override
+    public Void visit(BinaryExpression binaryExpression) {
+        binaryExpression.getFirstOperand().accept(this);
+        binaryExpression.getSecondOperand().accept(this);
+        return null;
+    }
+
+    @Override
+    public Void visit(UnaryExpression unaryExpression) {
+        unaryExpression.getOperand().accept(this);
+        return null;
+    }
+
+    @Override
+    public Void visit(FunctionCall funcCall) {
+        funcCall.getInstance().accept(this);
+        for (Expression arg : funcCall.getArgs())
+            arg.accept(this);
+        return null;
+    }
+
+    @Override
+    public Void visit(Identifier identifier) {
+        String name = identifier.getName();
+        for (int i = scopes.size() - 1; i >= 0; i--) {
+            Integer slot = scopes.get(i).get(name);
+            if (slot != null) {
+                identifier.setDepth(FRAME_DEPTH);
+                identifier.setSlot(slot);
+                return null;
+            }
+        }
+        if (members != null && members.containsKey(name)) {
+            resolveMember(identifier);
+            return null;
+        }
+        if (functions.containsKey(name)) {
+            identifier.setDepth(GLOBAL_DEPTH);
+            identifier.setSlot(functions.get(name));
+        }
+        return null;
+    }
+
+    @Override
+    public Void visit(ListAccessByIndex listAccessByIndex) {
+        listAccessByIndex.getInstance().accept(this);
+        listAccessByIndex.getIndex().accept(this);
+        return null;
+    }
+
+    //The member name is resolved against the instance's struct, not the frame
+    @Override
+    public Void visit(StructAccess structAccess) {
+        structAccess.getInstance().accept(this);
+        return null;
+    }
+
+    @Override
+    public Void visit(ListSize listSize) {
+        listSize.getArg().accept(this);
+        return null;
+    }
+
+    @Override
+    public Void visit(ListAppend listAppend) {
+        listAppend.getListArg().accept(this);
+        listAppend.getElementArg().accept(this);
+        return null;
+    }
+
+    @Override
+    public Void visit(ExprInPar exprInPar) {
+        for (Expression expression : exprInPar.getInputs())
+            expression.accept(this);
+        return null;
+    }
+}
@@ -10,6 +10,7 @@ import main.ast.types.primitives.BoolType;
 import main.ast.types.primitives.IntType;
 import main.ast.types.primitives.VoidType;
 import main.compileError.typeError.*;
+import main.symbolTable.StructLayout;
 import main.symbolTable.SymbolTable;
 import main.symbolTable.exceptions.ItemNotFoundException;
 import main.symbolTable.items.FunctionSymbolTableItem;
@@ -23,15 +24,22 @@ import java.util.ArrayList;
 public class ExpressionTypeChecker extends Visitor<Type> {
     public boolean is_stmt = false;
 
+    //Every expression is typed through here so the result is kept on the node for later passes
+    public Type check(Expression expression) {
+        Type type = expression.accept(this);
+        expression.setType(type);
+        return type;
+    }
+
     @Override
     public Type visit(BinaryExpression binaryExpression) {
-        Type leftType = binaryExpression.getFirstOperand().accept(this);
-        Type rightType = binaryExpression.getSecondOperand().accept(this);
+        Type leftType = check(binaryExpression.getFirstOperand());
+        Type rightType = check(binaryExpression.getSecondOperand());
         if (leftType instanceof VoidType) {
-            binaryExpression.addError(new CantUseValueOfVoidFunction(binaryExpression.getLine()));
+            binaryExpression.addError(TypeErrors.cantUseValueOfVoidFunction(binaryExpression.getLine()));
         }
         if (rightType instanceof VoidType) {
-            binaryExpression.addError(new CantUseValueOfVoidFunction(binaryExpression.getLine()));
+            binaryExpression.addError(TypeErrors.cantUseValueOfVoidFunction(binaryExpression.getLine()));
             if (leftType instanceof VoidType)
                 return new NoType();
         }
@@ -42,7 +50,7 @@ public class ExpressionTypeChecker extends Visitor<Type> {
             } else if (!(leftType instanceof NoType && rightType instanceof BoolType) &&
                     !(leftType instanceof BoolType && rightType instanceof NoType) &&
                     !(leftType instanceof NoType && rightType instanceof NoType)) {
-                binaryExpression.addError(new UnsupportedOperandType(binaryExpression.getLine(), operator.name()));
+                binaryExpression.addError(TypeErrors.unsupportedOperandType(binaryExpression.getLine(), operator.name()));
             }
             return new NoType();
         }
@@ -54,20 +62,20 @@ public class ExpressionTypeChecker extends Visitor<Type> {
                     (leftType instanceof ListType && rightType instanceof ListType && compareListType((ListType) leftType, (ListType) rightType))) {
                 return rightType;
             } else if (!(leftType instanceof NoType) && !(rightType instanceof NoType)) {
-                binaryExpression.addError(new UnsupportedOperandType(binaryExpression.getLine(), operator.name()));
+                binaryExpression.addError(TypeErrors.unsupportedOperandType(binaryExpression.getLine(), operator.name()));
             }
             return new NoType();
         }
         if (operator == BinaryOperator.eq) {
             if (leftType instanceof ListType || rightType instanceof ListType) {
-                binaryExpression.addError(new UnsupportedOperandType(binaryExpression.getLine(), operator.name()));
+                binaryExpression.addError(TypeErrors.unsupportedOperandType(binaryExpression.getLine(), operator.name()));
             } else if ((leftType instanceof IntType && rightType instanceof IntType) ||
                     (leftType instanceof BoolType && rightType instanceof BoolType) ||
                     (leftType instanceof StructType && rightType instanceof StructType) ||
                     (leftType instanceof FptrType && rightType instanceof FptrType)) {
                 return new BoolType();
             } else if (!(leftType instanceof NoType) && !(rightType instanceof NoType)) {
-                binaryExpression.addError(new UnsupportedOperandType(binaryExpression.getLine(), operator.name()));
+                binaryExpression.addError(TypeErrors.unsupportedOperandType(binaryExpression.getLine(), operator.name()));
             }
             return new NoType();
         }
@@ -79,25 +87,25 @@ public class ExpressionTypeChecker extends Visitor<Type> {
         } else if (!(leftType instanceof NoType && rightType instanceof IntType) &&
                 !(leftType instanceof IntType && rightType instanceof NoType) &&
                 !(leftType instanceof NoType && rightType instanceof NoType)) {
-            binaryExpression.addError(new UnsupportedOperandType(binaryExpression.getLine(), operator.name()));
+            binaryExpression.addError(TypeErrors.unsupportedOperandType(binaryExpression.getLine(), operator.name()));
         }
         return new NoType();
     }
 
     @Override
     public Type visit(UnaryExpression unaryExpression) {
-        Type exp = unaryExpression.getOperand().accept(this);
+        Type exp = check(unaryExpression.getOperand());
         if (unaryExpression.getOperator() == UnaryOperator.not) {
             if (exp instanceof BoolType) {
                 return new BoolType();
             } else if (exp instanceof IntType) {
-                unaryExpression.addError(new UnsupportedOperandType(unaryExpression.getLine(), "not"));
+                unaryExpression.addError(TypeErrors.unsupportedOperandType(unaryExpression.getLine(), "not"));
             }
         } else {
             if (exp instanceof IntType) {
                 return new IntType();
             } else if (exp instanceof BoolType) {
-                unaryExpression.addError(new UnsupportedOperandType(unaryExpression.getLine(), "minus"));
+                unaryExpression.addError(TypeErrors.unsupportedOperandType(unaryExpression.getLine(), "minus"));
             }
         }
         return new NoType();
@@ -105,23 +113,23 @@ public class ExpressionTypeChecker extends Visitor<Type> {
 
     @Override
     public Type visit(FunctionCall funcCall) {
-        Type instance = funcCall.getInstance().accept(this);
+        Type instance = check(funcCall.getInstance());
         if (!(instance instanceof FptrType)) {
-            funcCall.addError(new CallOnNoneFptrType(funcCall.getLine()));
+            funcCall.addError(TypeErrors.callOnNoneFptrType(funcCall.getLine()));
             return new NoType();
         }
         ArrayList<Type> args = new ArrayList<>();
         for (Expression arg : funcCall.getArgs()) {
-            Type item = arg.accept(this);
+            Type item = check(arg);
             args.add(item);
         }
         if (args.size() != ((FptrType) instance).getArgsType().size() ||
                 !compareTypeArrayList(((FptrType) instance).getArgsType(), args)) {
-            funcCall.addError(new ArgsInFunctionCallNotMatchDefinition(funcCall.getLine()));
+            funcCall.addError(TypeErrors.argsInFunctionCallNotMatchDefinition(funcCall.getLine()));
             //return ((FptrType) instance).getReturnType();
         }
         if (((FptrType) instance).getReturnType() instanceof VoidType && !is_stmt) {
-            funcCall.addError(new CantUseValueOfVoidFunction(funcCall.getLine()));
+            funcCall.addError(TypeErrors.cantUseValueOfVoidFunction(funcCall.getLine()));
         }
         is_stmt = false;
         return ((FptrType) instance).getReturnType();
@@ -130,12 +138,13 @@ public class ExpressionTypeChecker extends Visitor<Type> {
     @Override
     public Type visit(Identifier identifier) {
         try {
-            SymbolTableItem item = SymbolTable.top.getItem(VariableSymbolTableItem.START_KEY + identifier.getName());
+            SymbolTableItem item = SymbolTable.top().getItem(VariableSymbolTableItem.START_KEY + identifier.getName());
+            identifier.setSymbol(item);
             Type id = ((VariableSymbolTableItem) item).getType();
             if (id instanceof StructType) {
                 Identifier structName = ((StructType) id).getStructName();
                 try {
-                    SymbolTable.top.getItem(StructSymbolTableItem.START_KEY + structName.getName());
+                    SymbolTable.top().getItem(StructSymbolTableItem.START_KEY + structName.getName());
                     return id;
                 } catch (ItemNotFoundException ex) {
                     return new NoType();
@@ -146,10 +155,11 @@ public class ExpressionTypeChecker extends Visitor<Type> {
 
         } catch (ItemNotFoundException ex) {
             try {
-                FunctionSymbolTableItem item = (FunctionSymbolTableItem) SymbolTable.top.getItem(FunctionSymbolTableItem.START_KEY + identifier.getName());
+                FunctionSymbolTableItem item = (FunctionSymbolTableItem) SymbolTable.top().getItem(FunctionSymbolTableItem.START_KEY + identifier.getName());
+                identifier.setSymbol(item);
                 return new FptrType(item.getArgTypes(), item.getReturnType());
             } catch (ItemNotFoundException ex2) {
-                identifier.addError(new VarNotDeclared(identifier.getLine(), identifier.getName()));
+                identifier.addError(TypeErrors.varNotDeclared(identifier.getLine(), identifier.getName()));
             }
         }
         return new NoType();
@@ -157,38 +167,58 @@ public class ExpressionTypeChecker extends Visitor<Type> {
 
     @Override
     public Type visit(ListAccessByIndex listAccessByIndex) {
-        Type instance = listAccessByIndex.getInstance().accept(this);
-        Type index = listAccessByIndex.getIndex().accept(this);
+        Type instance = check(listAccessByIndex.getInstance());
+        Type index = check(listAccessByIndex.getIndex());
         if (instance instanceof ListType && index instanceof IntType) {
             return ((ListType) instance).getType();
         } else if (instance instanceof ListType && !(index instanceof NoType)) {
-            listAccessByIndex.addError(new ListIndexNotInt(listAccessByIndex.getLine()));
+            listAccessByIndex.addError(TypeErrors.listIndexNotInt(listAccessByIndex.getLine()));
         } else if (!(instance instanceof NoType) && index instanceof IntType) {
-            listAccessByIndex.addError(new AccessByIndexOnNonList(listAccessByIndex.getLine()));
+            listAccessByIndex.addError(TypeErrors.accessByIndexOnNonList(listAccessByIndex.getLine()));
         }
         return new NoType();
     }
 
     @Override
     public Type visit(StructAccess structAccess) {
-        Type instance = structAccess.getInstance().accept(this);
+        Type instance = check(structAccess.getInstance());
         if (instance instanceof NoType) {
             return new NoType();
         }
         if (!(instance instanceof StructType)) {
-            structAccess.addError(new AccessOnNonStruct(structAccess.getLine()));
+            structAccess.addError(TypeErrors.accessOnNonStruct(structAccess.getLine()));
             return new NoType();
         }
         String varName = structAccess.getElement().getName();
         String structName = ((StructType) instance).getStructName().getName();
+        StructLayout layout = layoutOf((StructType) instance);
+        if (layout != null) {
+            structAccess.setStruct(layout.getStruct());
+            int index = layout.indexOf(varName);
+            if (index < 0) {
+                structAccess.addError(TypeErrors.structMemberNotFound(structAccess.getLine(), structName, varName));
+                return new NoType();
+            }
+            VariableSymbolTableItem element = layout.getMember(index);
+            structAccess.setMember(element);
+            structAccess.setMemberIndex(index);
+            structAccess.getElement().setSymbol(element);
+            structAccess.getElement().setType(element.getType());
+            return element.getType();
+        }
+        //Accesses inside struct bodies run before the layout of their struct is frozen
         try {
-            StructSymbolTableItem struct = (StructSymbolTableItem) SymbolTable.root.getItem(StructSymbolTableItem.START_KEY + structName);
+            StructSymbolTableItem struct = (StructSymbolTableItem) SymbolTable.root().getItem(StructSymbolTableItem.START_KEY + structName);
             SymbolTable structTable = struct.getStructSymbolTable();
+            structAccess.setStruct(struct);
             try {
                 VariableSymbolTableItem element = (VariableSymbolTableItem) structTable.getItem(VariableSymbolTableItem.START_KEY + varName);
+                structAccess.setMember(element);
+                structAccess.getElement().setSymbol(element);
+                structAccess.getElement().setType(element.getType());
                 return element.getType();
             } catch (ItemNotFoundException ex) {
-                structAccess.addError(new StructMemberNotFound(structAccess.getLine(), structName, varName));
+                structAccess.addError(TypeErrors.structMemberNotFound(structAccess.getLine(), structName, varName));
                 return new NoType();
             }
         } catch (ItemNotFoundException ex) {
@@ -196,26 +226,43 @@ public class ExpressionTypeChecker extends Visitor<Type> {
         }
     }
 
+    //The layout cached on the type is used only if it was built under the current root
+    private StructLayout layoutOf(StructType structType) {
+        StructLayout layout = structType.getLayout();
+        if (layout != null && layout.getRoot() == SymbolTable.root())
+            return layout;
+        try {
+            StructSymbolTableItem struct = (StructSymbolTableItem) SymbolTable.root().getItem(StructSymbolTableItem.START_KEY + structType.getStructName().getName());
+            layout = struct.getLayout();
+        } catch (ItemNotFoundException ex) {
+            return null;
+        }
+        if (layout == null || layout.getRoot() != SymbolTable.root())
+            return null;
+        structType.setLayout(layout);
+        return layout;
+    }
+
     @Override
     public Type visit(ListSize listSize) {
-        Type list = listSize.getArg().accept(this);
+        Type list = check(listSize.getArg());
         if (list instanceof ListType) {
             return new IntType();
         }
         if (!(list instanceof NoType)) {
-            listSize.addError(new GetSizeOfNonList(listSize.getLine()));
+            listSize.addError(TypeErrors.getSizeOfNonList(listSize.getLine()));
         }
         return null;
     }
 
     @Override
     public Type visit(ListAppend listAppend) {
-        Type listType = listAppend.getListArg().accept(this);
+        Type listType = check(listAppend.getListArg());
         if (!(listType instanceof ListType)) {
-            listAppend.addError(new AppendToNonList(listAppend.getLine()));
+            listAppend.addError(TypeErrors.appendToNonList(listAppend.getLine()));
             return new NoType();
         }
-        Type listElement = listAppend.getElementArg().accept(this);
+        Type listElement = check(listAppend.getElementArg());
         Type listArg = ((ListType) listType).getType();
         if ((listElement instanceof BoolType && listArg instanceof BoolType) ||
                 (listElement instanceof IntType && listArg instanceof IntType) ||
@@ -224,14 +271,20 @@ public class ExpressionTypeChecker extends Visitor<Type> {
             return new VoidType();
         }
         if (!(listArg instanceof NoType)) {
-            listAppend.addError(new NewElementTypeNotMatchListType(listAppend.getLine()));
+            listAppend.addError(TypeErrors.newElementTypeNotMatchListType(listAppend.getLine()));
         }
         return new NoType();
     }
 
     @Override
     public Type visit(ExprInPar exprInPar) {
-        return exprInPar.getInputs().get(0).accept(this);
+        return check(exprInPar.getInputs().get(0));
+    }
+
+    //Already reported as a syntax error, and NoType keeps it from causing type errors of its own
+    @Override
+    public Type visit(ErrorExpression errorExpression) {
+        return new NoType();
     }
 
     @Override
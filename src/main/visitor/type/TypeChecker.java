@@ -4,6 +4,7 @@ import main.ast.nodes.Node;
 import main.ast.nodes.Program;
 import main.ast.nodes.declaration.*;
 import main.ast.nodes.declaration.struct.*;
+import main.ast.nodes.expression.ErrorExpression;
 import main.ast.nodes.expression.Expression;
 import main.ast.nodes.expression.Identifier;
 import main.ast.nodes.expression.ListAccessByIndex;
@@ -15,15 +16,18 @@ import main.ast.types.primitives.BoolType;
 import main.ast.types.primitives.IntType;
 import main.ast.types.primitives.VoidType;
 import main.compileError.typeError.*;
+import main.symbolTable.StructLayout;
 import main.symbolTable.SymbolTable;
 import main.symbolTable.exceptions.ItemAlreadyExistsException;
 import main.symbolTable.exceptions.ItemNotFoundException;
 import main.symbolTable.items.StructSymbolTableItem;
 import main.symbolTable.items.VariableSymbolTableItem;
 import main.symbolTable.utils.Stack;
+import main.visitor.FusedTraversal;
 import main.visitor.Visitor;
 
 import java.util.ArrayList;
+import java.util.function.Predicate;
 
 
 class Scope {
@@ -36,6 +40,8 @@ public class TypeChecker extends Visitor<Void> {
     Stack<Scope> scopes;
     Identifier returnIdentifier;
     boolean declarationPermitted;
+    FusedTraversal declarationTraversal;
+    Predicate<Declaration> bodyFilter = body -> true;
 
     public TypeChecker() {
         top = new Scope();
@@ -45,26 +51,52 @@ public class TypeChecker extends Visitor<Void> {
         declarationPermitted = false;
     }
 
+    //The traversal runs over each top-level declaration as soon as type checking of it is complete
+    public void setDeclarationTraversal(FusedTraversal declarationTraversal) {
+        this.declarationTraversal = declarationTraversal;
+    }
+
+    //Same contract as NameAnalyser.setBodyFilter
+    public void setBodyFilter(Predicate<Declaration> bodyFilter) {
+        this.bodyFilter = bodyFilter;
+    }
+
+    private void declarationDone(Node declaration) {
+        if (declarationTraversal != null)
+            declarationTraversal.run(declaration);
+    }
+
     @Override
     public Void visit(Program program) {
+        if (declarationTraversal != null)
+            declarationTraversal.enter(program);
         for (StructDeclaration struct : program.getStructs()) {
             struct.accept(this);
+            declarationDone(struct);
         }
         for (FunctionDeclaration function : program.getFunctions()) {
+            if (!bodyFilter.test(function))
+                continue;
             function.accept(this);
+            declarationDone(function);
+        }
+        if (bodyFilter.test(program.getMain())) {
+            program.getMain().accept(this);
+            declarationDone(program.getMain());
         }
-        program.getMain().accept(this);
+        if (declarationTraversal != null)
+            declarationTraversal.exit(program);
         return null;
     }
 
     @Override
     public Void visit(FunctionDeclaration functionDec) {
-        pushScope(SymbolTable.root);
+        pushScope(SymbolTable.root());
         recursiveTypeCheck(functionDec.getReturnType(), functionDec);
         var returnItem = new VariableSymbolTableItem(returnIdentifier);
         returnItem.setType(functionDec.getReturnType());
         try {
-            SymbolTable.top.put(returnItem);
+            SymbolTable.top().put(returnItem);
         } catch (ItemAlreadyExistsException ignore) {
         }
         for (VariableDeclaration arg : functionDec.getArgs()) {
@@ -72,7 +104,7 @@ public class TypeChecker extends Visitor<Void> {
         }
         functionDec.getBody().accept(this);
         if (!(top.returnExists || functionDec.getReturnType() instanceof VoidType)) {
-            functionDec.addError(new MissingReturnStatement(functionDec.getLine(), functionDec.getFunctionName().getName()));
+            functionDec.addError(TypeErrors.missingReturnStatement(functionDec.getLine(), functionDec.getFunctionName().getName()));
         }
         popScope();
         return null;
@@ -80,7 +112,7 @@ public class TypeChecker extends Visitor<Void> {
 
     @Override
     public Void visit(MainDeclaration mainDec) {
-        SymbolTable.push(new SymbolTable(SymbolTable.root));
+        SymbolTable.push(new SymbolTable(SymbolTable.root()));
         mainDec.getBody().accept(this);
         SymbolTable.pop();
         return null;
@@ -92,7 +124,7 @@ public class TypeChecker extends Visitor<Void> {
         recursiveTypeCheck(variableDec.getVarType(), variableDec);
         variableSymbolTableItem.setType(variableDec.getVarType());
         try {
-            SymbolTable.top.put(variableSymbolTableItem);
+            SymbolTable.top().put(variableSymbolTableItem);
         } catch (ItemAlreadyExistsException ignore) {
         }
         return null;
@@ -100,11 +132,12 @@ public class TypeChecker extends Visitor<Void> {
 
     @Override
     public Void visit(StructDeclaration structDec) {
-        SymbolTable.push(new SymbolTable(SymbolTable.root));
+        SymbolTable.push(new SymbolTable(SymbolTable.root()));
         structDec.getBody().accept(this);
         try {
-            var structItem = SymbolTable.root.getItem(StructSymbolTableItem.START_KEY + structDec.getStructName().getName());
-            ((StructSymbolTableItem) structItem).setStructSymbolTable(SymbolTable.top);
+            var structItem = (StructSymbolTableItem) SymbolTable.root().getItem(StructSymbolTableItem.START_KEY + structDec.getStructName().getName());
+            structItem.setStructSymbolTable(SymbolTable.top());
+            structItem.setLayout(freezeLayout(structItem, structDec));
         } catch (ItemNotFoundException ignore) {
         }
         SymbolTable.pop();
@@ -115,11 +148,11 @@ public class TypeChecker extends Visitor<Void> {
     public Void visit(SetGetVarDeclaration setGetVarDec) {
         declarationPermitted = true;
         recursiveTypeCheck(setGetVarDec.getVarType(), setGetVarDec);
-        SymbolTable.push(new SymbolTable(SymbolTable.top));
+        SymbolTable.push(new SymbolTable(SymbolTable.top()));
         var item = new VariableSymbolTableItem(setGetVarDec.getVarName());
         item.setType(setGetVarDec.getVarType());
         try {
-            SymbolTable.top.put(item);
+            SymbolTable.top().put(item);
         } catch (ItemAlreadyExistsException ignore) {
         }
         for (VariableDeclaration arg : setGetVarDec.getArgs()) {
@@ -127,11 +160,11 @@ public class TypeChecker extends Visitor<Void> {
         }
         setGetVarDec.getSetterBody().accept(this);
         SymbolTable.pop();
-        SymbolTable.push(new SymbolTable(SymbolTable.top));
+        SymbolTable.push(new SymbolTable(SymbolTable.top()));
         var returnItem = new VariableSymbolTableItem(returnIdentifier);
         returnItem.setType(setGetVarDec.getVarType());
         try {
-            SymbolTable.top.put(returnItem);
+            SymbolTable.top().put(returnItem);
         } catch (ItemAlreadyExistsException ignore) {
         }
         setGetVarDec.getGetterBody().accept(this);
@@ -142,7 +175,7 @@ public class TypeChecker extends Visitor<Void> {
         }
         item.setType(new FptrType(args, setGetVarDec.getVarType()));
         try {
-            SymbolTable.top.put(item);
+            SymbolTable.top().put(item);
         } catch (ItemAlreadyExistsException ignore) {
         }
         declarationPermitted = false;
@@ -152,17 +185,24 @@ public class TypeChecker extends Visitor<Void> {
     @Override
     public Void visit(AssignmentStmt assignmentStmt) {
         var exp = assignmentStmt.getLValue();
-        if (!(exp instanceof StructAccess || exp instanceof Identifier || exp instanceof ListAccessByIndex)) {
-            assignmentStmt.addError(new LeftSideNotLvalue(exp.getLine()));
+        if (!(exp instanceof StructAccess || exp instanceof Identifier || exp instanceof ListAccessByIndex || exp instanceof ErrorExpression)) {
+            assignmentStmt.addError(TypeErrors.leftSideNotLvalue(exp.getLine()));
         }
-        var leftType = assignmentStmt.getLValue().accept(expressionTypeChecker);
-        var rightType = assignmentStmt.getRValue().accept(expressionTypeChecker);
+        var leftType = expressionTypeChecker.check(assignmentStmt.getLValue());
+        var rightType = expressionTypeChecker.check(assignmentStmt.getRValue());
         if (!recursiveCompare(leftType, rightType)) {
-            assignmentStmt.addError(new UnsupportedOperandType(assignmentStmt.getLine(), BinaryOperator.assign.toString()));
+            assignmentStmt.addError(TypeErrors.unsupportedOperandType(assignmentStmt.getLine(), BinaryOperator.assign.toString()));
         }
         return null;
     }
 
+    //The statement that failed to parse may have been the return, so do not report a missing one
+    @Override
+    public Void visit(ErrorStatement errorStatement) {
+        top.returnExists = true;
+        return null;
+    }
+
     @Override
     public Void visit(BlockStmt blockStmt) {
         for (Statement statement : blockStmt.getStatements()) {
@@ -173,16 +213,16 @@ public class TypeChecker extends Visitor<Void> {
 
     @Override
     public Void visit(ConditionalStmt conditionalStmt) {
-        var conditionType = conditionalStmt.getCondition().accept(expressionTypeChecker);
+        var conditionType = expressionTypeChecker.check(conditionalStmt.getCondition());
         if (!recursiveCompare(conditionType, new BoolType())) {
-            conditionalStmt.addError(new ConditionNotBool(conditionalStmt.getCondition().getLine()));
+            conditionalStmt.addError(TypeErrors.conditionNotBool(conditionalStmt.getCondition().getLine()));
         }
-        pushScope(SymbolTable.top);
+        pushScope(SymbolTable.top());
         conditionalStmt.getThenBody().accept(this);
         var returnExists = top.returnExists;
         popScope();
         if (conditionalStmt.getElseBody() != null) {
-            pushScope(SymbolTable.top);
+            pushScope(SymbolTable.top());
             conditionalStmt.getElseBody().accept(this);
             returnExists = top.returnExists && returnExists;
             popScope();
@@ -194,7 +234,7 @@ public class TypeChecker extends Visitor<Void> {
     @Override
     public Void visit(FunctionCallStmt functionCallStmt) {
         expressionTypeChecker.is_stmt = true;
-        functionCallStmt.getFunctionCall().accept(expressionTypeChecker);
+        expressionTypeChecker.check(functionCallStmt.getFunctionCall());
         return null;
     }
 
@@ -202,13 +242,13 @@ public class TypeChecker extends Visitor<Void> {
     public Void visit(DisplayStmt displayStmt) {
         var type = value(displayStmt.getArg());
         if (!(type instanceof BoolType || type instanceof IntType || type instanceof ListType || type instanceof NoType)) {
-            displayStmt.addError(new UnsupportedTypeForDisplay(displayStmt.getLine()));
+            displayStmt.addError(TypeErrors.unsupportedTypeForDisplay(displayStmt.getLine()));
         }
         return null;
     }
 
     private Type value(Expression expression) {
-        var type = expression.accept(expressionTypeChecker);
+        var type = expressionTypeChecker.check(expression);
         if (type instanceof VoidType) {
             return new NoType();
         }
@@ -220,17 +260,17 @@ public class TypeChecker extends Visitor<Void> {
         top.returnExists = true;
         VariableSymbolTableItem variableSymbolTableItem;
         try {
-            variableSymbolTableItem = (VariableSymbolTableItem) SymbolTable.top.getItem(VariableSymbolTableItem.START_KEY + returnIdentifier.getName());
+            variableSymbolTableItem = (VariableSymbolTableItem) SymbolTable.top().getItem(VariableSymbolTableItem.START_KEY + returnIdentifier.getName());
         } catch (ItemNotFoundException ignore) {
-            returnStmt.addError(new CannotUseReturn(returnStmt.getLine()));
+            returnStmt.addError(TypeErrors.cannotUseReturn(returnStmt.getLine()));
             return null;
         }
         if (!(variableSymbolTableItem.getType() instanceof VoidType) && returnStmt.getReturnedExpr() == null) {
-            returnStmt.addError(new ReturnValueNotMatchFunctionReturnType(returnStmt.getLine()));
+            returnStmt.addError(TypeErrors.returnValueNotMatchFunctionReturnType(returnStmt.getLine()));
         } else {
-            var retType = returnStmt.getReturnedExpr() == null ? new VoidType() : returnStmt.getReturnedExpr().accept(expressionTypeChecker);
+            var retType = returnStmt.getReturnedExpr() == null ? new VoidType() : expressionTypeChecker.check(returnStmt.getReturnedExpr());
             if (!recursiveCompare(retType, variableSymbolTableItem.getType())) {
-                returnStmt.addError(new ReturnValueNotMatchFunctionReturnType(returnStmt.getLine()));
+                returnStmt.addError(TypeErrors.returnValueNotMatchFunctionReturnType(returnStmt.getLine()));
             }
         }
         return null;
@@ -238,11 +278,11 @@ public class TypeChecker extends Visitor<Void> {
 
     @Override
     public Void visit(LoopStmt loopStmt) {
-        var conditionType = loopStmt.getCondition().accept(expressionTypeChecker);
+        var conditionType = expressionTypeChecker.check(loopStmt.getCondition());
         if (!recursiveCompare(conditionType, new BoolType())) {
-            loopStmt.addError(new ConditionNotBool(loopStmt.getCondition().getLine()));
+            loopStmt.addError(TypeErrors.conditionNotBool(loopStmt.getCondition().getLine()));
         }
-        pushScope(SymbolTable.top);
+        pushScope(SymbolTable.top());
         loopStmt.getBody().accept(this);
         popScope();
         return null;
@@ -251,20 +291,20 @@ public class TypeChecker extends Visitor<Void> {
     @Override
     public Void visit(VarDecStmt varDecStmt) {
         if (declarationPermitted) {
-            varDecStmt.addError(new CannotUseDefineVar(varDecStmt.getLine()));
+            varDecStmt.addError(TypeErrors.cannotUseDefineVar(varDecStmt.getLine()));
         }
         for (VariableDeclaration var : varDecStmt.getVars()) {
             var variableSymbolTableItem = new VariableSymbolTableItem(var.getVarName());
             recursiveTypeCheck(var.getVarType(), varDecStmt);
             variableSymbolTableItem.setType(var.getVarType());
             try {
-                SymbolTable.top.put(variableSymbolTableItem);
+                SymbolTable.top().put(variableSymbolTableItem);
             } catch (ItemAlreadyExistsException ignore) {
             }
             if (var.getDefaultValue() != null) {
                 var type = value(var.getDefaultValue());
                 if (!recursiveCompare(type, var.getVarType())) {
-                    var.addError(new UnsupportedOperandType(var.getLine(), BinaryOperator.assign.toString()));
+                    var.addError(TypeErrors.unsupportedOperandType(var.getLine(), BinaryOperator.assign.toString()));
                 }
             }
         }
@@ -273,13 +313,13 @@ public class TypeChecker extends Visitor<Void> {
 
     @Override
     public Void visit(ListAppendStmt listAppendStmt) {
-        listAppendStmt.getListAppendExpr().accept(expressionTypeChecker);
+        expressionTypeChecker.check(listAppendStmt.getListAppendExpr());
         return null;
     }
 
     @Override
     public Void visit(ListSizeStmt listSizeStmt) {
-        listSizeStmt.getListSizeExpr().accept(expressionTypeChecker);
+        expressionTypeChecker.check(listSizeStmt.getListSizeExpr());
         return null;
     }
 
@@ -294,6 +334,19 @@ public class TypeChecker extends Visitor<Void> {
         top = scopes.pop();
     }
 
+    //Members are looked up in the struct's scope while it is still on top
+    private StructLayout freezeLayout(StructSymbolTableItem structItem, StructDeclaration structDec) {
+        ArrayList<VariableSymbolTableItem> members = new ArrayList<>();
+        for (String name : StructLayout.memberNames(structDec)) {
+            try {
+                members.add((VariableSymbolTableItem) SymbolTable.top().getItem(VariableSymbolTableItem.START_KEY + name));
+            } catch (ItemNotFoundException e) { //Unreachable, every member was put in the scope above
+                return null;
+            }
+        }
+        return new StructLayout(structItem, SymbolTable.root(), members);
+    }
+
     private void recursiveTypeCheck(Type a, Node b) {
         if (a instanceof StructType) {
             recursiveTypeCheck((StructType) a, b);
@@ -308,9 +361,9 @@ public class TypeChecker extends Visitor<Void> {
 
     private void recursiveTypeCheck(StructType a, Node b) {
         try {
-            SymbolTable.root.getItem(StructSymbolTableItem.START_KEY + a.getStructName().getName());
+            SymbolTable.root().getItem(StructSymbolTableItem.START_KEY + a.getStructName().getName());
         } catch (ItemNotFoundException e) {
-            b.addError(new StructNotDeclared(b.getLine(), a.getStructName().getName()));
+            b.addError(TypeErrors.structNotDeclared(b.getLine(), a.getStructName().getName()));
         }
     }
 
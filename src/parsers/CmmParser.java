@@ -2272,6 +2272,7 @@ public class CmmParser extends Parser {
 			enterOuterAlt(_localctx, 1);
 			{
 			((DoWhileLoopStatementContext)_localctx).stmt =  new LoopStmt();
+			     _localctx.stmt.setDoWhile(true);
 			setState(434);
 			((DoWhileLoopStatementContext)_localctx).d = match(DO);
 			setState(435);
@@ -0,0 +1,25 @@
+#!/bin/sh
+# Builds utilities/startup/build/cmm.jar and a class-data archive (cmm.jsa) for it.
+# The archive is made from the classes loaded while compiling every file in samples/, so it covers
+# the ANTLR runtime, the parser, the AST and the visitors, plus the error classes the samples hit.
+# Archives only work with the JDK that made them, so run this again after changing JDK or sources.
+set -e
+ROOT=$(cd "$(dirname "$0")/../.." && pwd)
+OUT="$ROOT/utilities/startup/build"
+ANTLR="$ROOT/utilities/jarFiles/antlr-4.9.2-complete.jar"
+
+rm -rf "$OUT"
+mkdir -p "$OUT/classes"
+javac -nowarn -encoding UTF-8 -cp "$ANTLR" -d "$OUT/classes" $(find "$ROOT/src" -name '*.java')
+jar cf "$OUT/cmm.jar" -C "$OUT/classes" .
+rm -rf "$OUT/classes"
+
+CP="$OUT/cmm.jar:$ANTLR"
+for sample in "$ROOT"/samples/*.cmm; do
+    java -Xshare:off -XX:DumpLoadedClassList="$OUT/classes.$(basename "$sample").lst" \
+        -Dcmm.stats=off -cp "$CP" main.Cmm "$sample" > /dev/null 2>&1 || true
+done
+sort -u "$OUT"/classes.*.lst > "$OUT/classes.lst"
+rm -f "$OUT"/classes.*.lst
+java -Xshare:dump -XX:SharedClassListFile="$OUT/classes.lst" -XX:SharedArchiveFile="$OUT/cmm.jsa" -cp "$CP" > /dev/null
+echo "wrote $OUT/cmm.jar and $OUT/cmm.jsa"
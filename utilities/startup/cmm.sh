@@ -0,0 +1,15 @@
+#!/bin/sh
+# Startup-optimized main.Cmm: same arguments, output and exit status.
+#  - the class-data archive from build-cds.sh, so classes are mapped in already parsed and verified
+#  - C1 only, since a single compile finishes before C2 code would pay off
+#  - serial GC and no perf data file, which are cheaper to set up
+#  - cmm.stats=off, so no ThreadMXBean or JFR classes are loaded (--stats still turns them on)
+ROOT=$(cd "$(dirname "$0")/../.." && pwd)
+OUT="$ROOT/utilities/startup/build"
+ANTLR="$ROOT/utilities/jarFiles/antlr-4.9.2-complete.jar"
+if [ ! -f "$OUT/cmm.jsa" ]; then
+    echo "run utilities/startup/build-cds.sh first" >&2
+    exit 2
+fi
+exec java -XX:SharedArchiveFile="$OUT/cmm.jsa" -Xshare:auto -XX:TieredStopAtLevel=1 -XX:+UseSerialGC -XX:-UsePerfData \
+    -Dcmm.stats=off -cp "$OUT/cmm.jar:$ANTLR" main.Cmm "$@"
@@ -0,0 +1,27 @@
+#!/bin/sh
+# Wall time of cold single-file compiles, plain java against cmm.sh.
+# usage: startup-benchmark.sh [runs] [file...]   (defaults: 10 runs over samples/*.cmm)
+ROOT=$(cd "$(dirname "$0")/../.." && pwd)
+OUT="$ROOT/utilities/startup/build"
+ANTLR="$ROOT/utilities/jarFiles/antlr-4.9.2-complete.jar"
+RUNS=${1:-10}
+[ $# -gt 0 ] && shift
+[ $# -eq 0 ] && set -- "$ROOT"/samples/*.cmm
+[ -f "$OUT/cmm.jsa" ] || "$ROOT/utilities/startup/build-cds.sh"
+
+measure() {
+    start=$(date +%s%N)
+    i=0
+    while [ $i -lt "$RUNS" ]; do
+        "$@" > /dev/null 2>&1
+        i=$((i + 1))
+    done
+    echo $(( ($(date +%s%N) - start) / 1000000 / RUNS ))
+}
+
+printf "%-24s %10s %10s\n" file "java ms" "cmm.sh ms"
+for file in "$@"; do
+    plain=$(measure java -cp "$OUT/cmm.jar:$ANTLR" main.Cmm "$file")
+    fast=$(measure "$ROOT/utilities/startup/cmm.sh" "$file")
+    printf "%-24s %10d %10d\n" "$(basename "$file")" "$plain" "$fast"
+done